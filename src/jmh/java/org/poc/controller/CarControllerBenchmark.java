@@ -0,0 +1,62 @@
+package org.poc.controller;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.poc.datatransferobject.CarDTO;
+import org.poc.domainobject.CarDO;
+import org.poc.domainobject.DriverDO;
+import org.poc.domainobject.ManufacturerDO;
+import org.poc.domainvalue.OnlineStatus;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CarControllerBenchmark
+{
+    private CarController carController;
+    private CarDO car;
+    private CarDO carWithDriver;
+
+
+    @Setup
+    public void setUp()
+    {
+        carController = new CarController(null, null, null);
+        car = new CarDO(true, CarDO.EngineType.ELECTRIC, "B-XY-100", new ManufacturerDO("tesla"), 4.5f, (short) 4);
+        car.setId(100L);
+
+        DriverDO driver = new DriverDO("driver01", "driver01pw");
+        driver.setId(1L);
+        driver.setOnlineStatus(OnlineStatus.ONLINE);
+        carWithDriver = new CarDO(false, CarDO.EngineType.GAS, "B-XY-101", new ManufacturerDO("audi"), 3.0f, (short) 5);
+        carWithDriver.setId(101L);
+        carWithDriver.setDriver(driver);
+    }
+
+
+    @Benchmark
+    public CarDTO createCarDTO()
+    {
+        return carController.createCarDTO(car);
+    }
+
+
+    @Benchmark
+    public CarDTO createCarDTO_withDriver()
+    {
+        return carController.createCarDTO(carWithDriver);
+    }
+}
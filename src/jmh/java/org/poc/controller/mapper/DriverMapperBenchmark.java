@@ -0,0 +1,73 @@
+package org.poc.controller.mapper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.poc.datatransferobject.DriverDTO;
+import org.poc.domainobject.DriverDO;
+import org.poc.domainvalue.DriverSummary;
+import org.poc.domainvalue.GeoCoordinate;
+import org.poc.domainvalue.OnlineStatus;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DriverMapperBenchmark
+{
+    @Param({"100"})
+    private int size;
+
+    private DriverDO driver;
+    private List<DriverSummary> drivers;
+
+
+    @Setup
+    public void setUp()
+    {
+        drivers = new ArrayList<>(size);
+        for (long id = 1; id <= size; id++)
+        {
+            drivers.add(new DriverSummary(id, "driver" + id, "driver" + id + "pw", id % 2 == 0 ? OnlineStatus.ONLINE : OnlineStatus.OFFLINE, 52.52, 13.405, null));
+        }
+        driver = newDriver(1);
+    }
+
+
+    @Benchmark
+    public DriverDTO makeDriverDTO()
+    {
+        return DriverMapper.makeDriverDTO(driver);
+    }
+
+
+    @Benchmark
+    public List<DriverDTO> makeDriverDTOList()
+    {
+        return DriverMapper.makeDriverDTOList(drivers);
+    }
+
+
+    private static DriverDO newDriver(long id)
+    {
+        DriverDO driverDO = new DriverDO("driver" + id, "driver" + id + "pw");
+        driverDO.setId(id);
+        driverDO.setOnlineStatus(id % 2 == 0 ? OnlineStatus.ONLINE : OnlineStatus.OFFLINE);
+        driverDO.setCoordinate(new GeoCoordinate(52.52, 13.405));
+        return driverDO;
+    }
+}
@@ -0,0 +1,33 @@
+package org.poc.domainvalue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GeoCoordinateBenchmark
+{
+    // not final, so the arguments are not constant folded
+    private double latitude = 52.52;
+    private double longitude = 13.405;
+
+
+    @Benchmark
+    public GeoCoordinate newGeoCoordinate()
+    {
+        return new GeoCoordinate(latitude, longitude);
+    }
+}
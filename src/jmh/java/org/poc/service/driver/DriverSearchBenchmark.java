@@ -0,0 +1,150 @@
+package org.poc.service.driver;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.poc.ServerApplicantTestApplication;
+import org.poc.domainobject.CarDO;
+import org.poc.domainvalue.DriverSearchCriteria;
+import org.poc.domainvalue.DriverSummary;
+import org.poc.service.search.DriverSearchIndex;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.google.common.collect.ImmutableMap;
+
+/**
+ * Runs the driver searches of {@link DefaultDriverService} against an in-memory H2 seeded with one car per
+ * driver, the application context is started once per row count and for the index as well as the database. Results are
+ * not cached.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DriverSearchBenchmark
+{
+    private static final int BATCH_SIZE = 1000;
+    private static final String[] MANUFACTURERS = {"audi", "bmw", "mercedes", "tesla", "volkswagen"};
+    private static final CarDO.EngineType[] ENGINE_TYPES = CarDO.EngineType.values();
+
+    @Param({"10000", "100000"})
+    private int rows;
+
+    @Param({"true", "false"})
+    private boolean index;
+
+    private ConfigurableApplicationContext context;
+    private DriverService driverService;
+
+
+    @Setup
+    public void setUp()
+    {
+        context =
+            new SpringApplicationBuilder(ServerApplicantTestApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(
+                    "--spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1",
+                    "--spring.datasource.initialization-mode=never",
+                    "--spring.jpa.show-sql=false",
+                    "--driver.search.index.enabled=" + index,
+                    "--driver.search.cache.maximum-size=0",
+                    "--logging.level.root=WARN",
+                    "--logging.level.org.hibernate.SQL=WARN",
+                    "--logging.level.org.hibernate.type=WARN");
+        seed(context.getBean(JdbcTemplate.class));
+        context.getBean(DriverSearchIndex.class).reload();
+        driverService = context.getBean(DriverService.class);
+    }
+
+
+    @TearDown
+    public void tearDown()
+    {
+        context.close();
+    }
+
+
+    @Benchmark
+    public List<DriverSummary> searchByUsername()
+    {
+        return driverService.searchByFieldsOfCarAndDriver(Collections.singletonMap("username", "driver12"));
+    }
+
+
+    @Benchmark
+    public List<DriverSummary> searchByManufacturerAndOnlineStatus()
+    {
+        return driverService.searchByFieldsOfCarAndDriver(ImmutableMap.of("manufacturer", "tesla", "onlineStatus", "ONLINE", "seatCount", "4"));
+    }
+
+
+    @Benchmark
+    public List<DriverSummary> searchTopRatedElectricOrHybrid()
+    {
+        return driverService.search(
+            DriverSearchCriteria
+                .newBuilder()
+                .setEngineType(Arrays.asList(CarDO.EngineType.ELECTRIC, CarDO.EngineType.HYBRID))
+                .setMinRating(3.0F)
+                .setSort(DriverSearchCriteria.Sort.RATING)
+                .setDescending(true)
+                .setLimit(20)
+                .createDriverSearchCriteria());
+    }
+
+
+    @Benchmark
+    public List<DriverSummary> searchByCarAttributes()
+    {
+        return driverService.searchByFieldsOfCarAndDriver(ImmutableMap.of("engineType", "ELECTRIC", "convertible", "true", "rating", "2.0"));
+    }
+
+
+    private void seed(JdbcTemplate jdbcTemplate)
+    {
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        List<Object[]> drivers = new ArrayList<>(BATCH_SIZE);
+        List<Object[]> cars = new ArrayList<>(BATCH_SIZE);
+        for (long id = 1; id <= rows; id++)
+        {
+            drivers.add(new Object[] {id, now, id % 3 == 0 ? "OFFLINE" : "ONLINE", "driver" + id + "pw", "driver" + id});
+            cars.add(
+                new Object[] {
+                    id, id % 4 == 0, now, ENGINE_TYPES[(int) (id % ENGINE_TYPES.length)].name(), "B-" + id,
+                    MANUFACTURERS[(int) (id % MANUFACTURERS.length)], (id % 10) / 2.0f, 2 + id % 6, id});
+            if (drivers.size() == BATCH_SIZE || id == rows)
+            {
+                jdbcTemplate.batchUpdate(
+                    "insert into driver (id, date_created, deleted, online_status, password, username) values (?, ?, false, ?, ?, ?)", drivers);
+                jdbcTemplate.batchUpdate(
+                    "insert into car (id, convertible, date_created, engine_type, license_plate, manufacturer, rating, seat_count, driver_fk, version) "
+                        + "values (?, ?, ?, ?, ?, ?, ?, ?, ?, 0)",
+                    cars);
+                drivers.clear();
+                cars.clear();
+            }
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package org.poc;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.poc.util.AsyncRequestMappingHandlerAdapter;
+import org.poc.util.ConcurrencyLimiter;
+import org.poc.util.RequestExecutionProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.web.servlet.WebMvcRegistrations;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.ConcurrentTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.mvc.method.annotation.ExceptionHandlerExceptionResolver;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+
+/**
+ * Asynchronous execution mode of the REST controllers, enabled by <code>request.execution.mode=async</code>.
+ * <p/>
+ * A slow database then holds threads of the request executor instead of servlet container threads, and every endpoint
+ * is bounded by its own concurrency limit, so one stalled endpoint can not starve the others.
+ */
+@Configuration
+@ConditionalOnProperty(name = "request.execution.mode", havingValue = "async")
+public class AsyncExecutionConfig implements WebMvcConfigurer
+{
+
+    private static final Logger LOG = LoggerFactory.getLogger(AsyncExecutionConfig.class);
+
+    private final RequestExecutionProperties properties;
+
+
+    public AsyncExecutionConfig(final RequestExecutionProperties properties)
+    {
+        this.properties = properties;
+    }
+
+
+    @Bean
+    public ConcurrencyLimiter concurrencyLimiter()
+    {
+        return new ConcurrencyLimiter(properties);
+    }
+
+
+    @Bean
+    public WebMvcRegistrations asyncHandlerRegistrations(ConcurrencyLimiter concurrencyLimiter)
+    {
+        return new WebMvcRegistrations()
+        {
+            @Override
+            public RequestMappingHandlerMapping getRequestMappingHandlerMapping()
+            {
+                return null;
+            }
+
+
+            @Override
+            public RequestMappingHandlerAdapter getRequestMappingHandlerAdapter()
+            {
+                return new AsyncRequestMappingHandlerAdapter(concurrencyLimiter);
+            }
+
+
+            @Override
+            public ExceptionHandlerExceptionResolver getExceptionHandlerExceptionResolver()
+            {
+                return null;
+            }
+        };
+    }
+
+
+    @Bean
+    public AsyncTaskExecutor requestExecutor()
+    {
+        ExecutorService virtualThreads = properties.isVirtualThreads() ? virtualThreadPerTaskExecutor() : null;
+        if (virtualThreads != null)
+        {
+            LOG.info("Controller handlers run on virtual threads");
+            return new ConcurrentTaskExecutor(virtualThreads);
+        }
+        // never holds more than max-concurrent tasks, the ConcurrencyLimiter refuses the rest
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(properties.getThreads());
+        executor.setMaxPoolSize(properties.getThreads());
+        executor.setQueueCapacity(properties.getMaxConcurrent());
+        executor.setThreadNamePrefix("request-");
+        LOG.info("Controller handlers run on {} request threads", properties.getThreads());
+        return executor;
+    }
+
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer)
+    {
+        configurer.setTaskExecutor(requestExecutor());
+        configurer.setDefaultTimeout(properties.getTimeout());
+    }
+
+
+    /**
+     * <code>Executors.newVirtualThreadPerTaskExecutor()</code> looked up at runtime, the code is compiled for Java 8.
+     *
+     * @return <code>null</code> if the runtime has no virtual threads
+     */
+    static ExecutorService virtualThreadPerTaskExecutor()
+    {
+        try
+        {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        }
+        catch (ReflectiveOperationException e)
+        {
+            return null;
+        }
+    }
+}
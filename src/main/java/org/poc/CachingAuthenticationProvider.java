@@ -0,0 +1,106 @@
+package org.poc;
+
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.time.Duration;
+
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+
+/**
+ * Remembers successful username/password authentications for a while, so HTTP Basic clients do not pay for the password
+ * hash on every request.
+ * <p/>
+ * Entries are keyed by an HMAC-SHA256 of username and password with a random key of this instance, the password itself
+ * is never kept and a key read from memory cannot be checked against guessed passwords elsewhere. Failed attempts are
+ * not cached and always reach the delegate.
+ */
+public class CachingAuthenticationProvider implements AuthenticationProvider
+{
+
+    private final AuthenticationProvider delegate;
+
+    private final Cache<HashCode, Authentication> authentications;
+
+    private final HashFunction keyFunction;
+
+
+    public CachingAuthenticationProvider(final AuthenticationProvider delegate, final Duration timeToLive, final long maximumSize)
+    {
+        this(delegate, timeToLive, maximumSize, Ticker.systemTicker());
+    }
+
+
+    CachingAuthenticationProvider(final AuthenticationProvider delegate, final Duration timeToLive, final long maximumSize, final Ticker ticker)
+    {
+        this.delegate = delegate;
+        this.authentications =
+            Caffeine
+                .newBuilder()
+                .expireAfterWrite(timeToLive)
+                .maximumSize(maximumSize)
+                .ticker(ticker)
+                .build();
+        byte[] secret = new byte[32];
+        new SecureRandom().nextBytes(secret);
+        this.keyFunction = Hashing.hmacSha256(secret);
+    }
+
+
+    @Override
+    public Authentication authenticate(Authentication authentication) throws AuthenticationException
+    {
+        if (authentication.getCredentials() == null)
+        {
+            return delegate.authenticate(authentication);
+        }
+        HashCode key = key(authentication);
+        Authentication cached = authentications.getIfPresent(key);
+        if (cached == null)
+        {
+            cached = delegate.authenticate(authentication);
+            if (cached == null)
+            {
+                return null;
+            }
+            authentications.put(key, cached);
+        }
+        // a fresh token per request, the details (remote address, session) belong to the current one
+        UsernamePasswordAuthenticationToken result = new UsernamePasswordAuthenticationToken(cached.getPrincipal(), null, cached.getAuthorities());
+        result.setDetails(authentication.getDetails());
+        return result;
+    }
+
+
+    @Override
+    public boolean supports(Class<?> authentication)
+    {
+        return delegate.supports(authentication);
+    }
+
+
+    public void invalidateAll()
+    {
+        authentications.invalidateAll();
+    }
+
+
+    private HashCode key(Authentication authentication)
+    {
+        return keyFunction
+            .newHasher()
+            .putString(authentication.getName(), StandardCharsets.UTF_8)
+            .putByte((byte) 0)
+            .putString(authentication.getCredentials().toString(), StandardCharsets.UTF_8)
+            .hash();
+    }
+}
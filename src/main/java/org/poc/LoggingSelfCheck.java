@@ -0,0 +1,56 @@
+package org.poc;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+/**
+ * Warns on startup when SQL statements or bind parameters are logged, each of them is written on the request thread
+ * and costs latency under load.
+ */
+@Component
+public class LoggingSelfCheck
+{
+
+    private static final Logger LOG = LoggerFactory.getLogger(LoggingSelfCheck.class);
+
+    private final Environment environment;
+
+
+    public LoggingSelfCheck(final Environment environment)
+    {
+        this.environment = environment;
+    }
+
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady()
+    {
+        check().forEach(LOG::warn);
+    }
+
+
+    List<String> check()
+    {
+        List<String> warnings = new ArrayList<>();
+        if (LoggerFactory.getLogger("org.hibernate.type.descriptor.sql.BasicBinder").isTraceEnabled())
+        {
+            warnings.add("TRACE logging of org.hibernate.type is active, every SQL bind parameter is logged");
+        }
+        if (LoggerFactory.getLogger("org.hibernate.SQL").isDebugEnabled())
+        {
+            warnings.add("DEBUG logging of org.hibernate.SQL is active, every SQL statement is logged");
+        }
+        if (environment.getProperty("spring.jpa.show-sql", Boolean.class, false))
+        {
+            warnings.add("spring.jpa.show-sql is true, every SQL statement is written to stdout");
+        }
+        return warnings;
+    }
+}
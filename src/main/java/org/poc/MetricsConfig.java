@@ -0,0 +1,32 @@
+package org.poc;
+
+import java.util.Collections;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jpa.HibernateMetrics;
+
+@Configuration
+public class MetricsConfig
+{
+
+    /**
+     * Session, query and second level cache statistics of Hibernate, needs <code>hibernate.generate_statistics</code>.
+     * <p/>
+     * Bound once the application is ready, a MeterBinder bean would be created while the data source is initialised
+     * and ask for the entity manager factory that is being created at the same time.
+     */
+    @EventListener
+    public void bindHibernateMetrics(ApplicationReadyEvent event)
+    {
+        EntityManagerFactory entityManagerFactory = event.getApplicationContext().getBean(EntityManagerFactory.class);
+        MeterRegistry registry = event.getApplicationContext().getBean(MeterRegistry.class);
+        new HibernateMetrics(entityManagerFactory, "entityManagerFactory", Collections.emptyList()).bindTo(registry);
+    }
+
+}
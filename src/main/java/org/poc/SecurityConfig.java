@@ -1,12 +1,22 @@
 package org.poc;
 
+import java.time.Duration;
+
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
+import org.springframework.boot.actuate.health.HealthEndpoint;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.authentication.builders.AuthenticationManagerBuilder;
 import org.springframework.security.config.annotation.method.configuration.EnableGlobalMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configuration.WebSecurityConfigurerAdapter;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.crypto.factory.PasswordEncoderFactories;
+import org.springframework.security.provisioning.InMemoryUserDetailsManager;
 
 @Configuration
 @EnableWebSecurity
@@ -14,16 +24,43 @@ import org.springframework.security.config.annotation.web.configuration.WebSecur
 public class SecurityConfig extends WebSecurityConfigurerAdapter
 {
 
+    @Value("${security.authentication-cache.ttl-seconds:300}")
+    private long authenticationCacheTtlSeconds;
+
+    @Value("${security.authentication-cache.maximum-size:10000}")
+    private long authenticationCacheMaximumSize;
+
+
     @Autowired
     protected void configAuthentication(AuthenticationManagerBuilder auth) throws Exception
     {
-        auth
-            .inMemoryAuthentication()
-            .withUser("user").password("{noop}password").roles("USER");
+        auth.authenticationProvider(cachingAuthenticationProvider());
+    }
+
 
+    /**
+     * Basic authentication sends the password with every request, checking a bcrypt hash each time would cost
+     * milliseconds of CPU per request, so successful checks are cached.
+     */
+    @Bean
+    public CachingAuthenticationProvider cachingAuthenticationProvider()
+    {
+        DaoAuthenticationProvider provider = new DaoAuthenticationProvider();
+        provider.setPasswordEncoder(PasswordEncoderFactories.createDelegatingPasswordEncoder());
+        provider.setUserDetailsService(
+            new InMemoryUserDetailsManager(
+                User
+                    .withUsername("user")
+                    .password("{bcrypt}$2a$10$EAp.1NyObsIVUO7s8lE2Q.FY/wH1MglfFILXWE.AzQmsNLpaWe/JO")
+                    .roles("USER")
+                    .build()));
+        return new CachingAuthenticationProvider(provider, Duration.ofSeconds(authenticationCacheTtlSeconds), authenticationCacheMaximumSize);
     }
 
 
+    /**
+     * Metrics tell the load and the ids in use, so every actuator endpoint but health needs a user.
+     */
     @Override
     protected void configure(HttpSecurity http) throws Exception
     {
@@ -31,6 +68,8 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter
             .authorizeRequests()
             .antMatchers("/swagger-resources/*", "*.html", "/api/v1/swagger.json")
             .hasAuthority("USER")
+            .requestMatchers(EndpointRequest.toAnyEndpoint().excluding(HealthEndpoint.class))
+            .hasRole("USER")
             .anyRequest().permitAll()
             .and()
             .httpBasic()
@@ -3,7 +3,9 @@ package org.poc;
 import org.poc.util.LoggingInterceptor;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurerAdapter;
 import springfox.documentation.builders.AuthorizationScopeBuilder;
@@ -20,9 +22,20 @@ import java.util.List;
 
 @EnableSwagger2
 @SpringBootApplication
+@EnableScheduling
+@EnableCaching
 public class ServerApplicantTestApplication extends WebMvcConfigurerAdapter
 {
 
+    private final LoggingInterceptor loggingInterceptor;
+
+
+    public ServerApplicantTestApplication(final LoggingInterceptor loggingInterceptor)
+    {
+        this.loggingInterceptor = loggingInterceptor;
+    }
+
+
     public static void main(String[] args)
     {
         SpringApplication.run(ServerApplicantTestApplication.class, args);
@@ -32,7 +45,7 @@ public class ServerApplicantTestApplication extends WebMvcConfigurerAdapter
     @Override
     public void addInterceptors(InterceptorRegistry registry)
     {
-        registry.addInterceptor(new LoggingInterceptor()).addPathPatterns("/**");
+        registry.addInterceptor(loggingInterceptor).addPathPatterns("/**");
     }
 
 
@@ -0,0 +1,59 @@
+package org.poc.controller;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.poc.dataaccessobject.DriverSearchPlans;
+import org.poc.datatransferobject.CacheStatisticsDTO;
+import org.poc.service.cache.DriverSearchResults;
+import org.poc.service.cache.EntityCaches;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.access.annotation.Secured;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+/**
+ * Counters of the car and driver lookup caches, of the driver search plans and of the driver search results.
+ * <p/>
+ */
+@RestController
+@Secured("ROLE_USER")
+@RequestMapping("v1/caches")
+public class CacheController
+{
+
+    private final EntityCaches entityCaches;
+    private final DriverSearchPlans driverSearchPlans;
+    private final DriverSearchResults driverSearchResults;
+
+
+    @Autowired
+    public CacheController(final EntityCaches entityCaches, final DriverSearchPlans driverSearchPlans, final DriverSearchResults driverSearchResults)
+    {
+        this.entityCaches = entityCaches;
+        this.driverSearchPlans = driverSearchPlans;
+        this.driverSearchResults = driverSearchResults;
+    }
+
+
+    @GetMapping
+    public Map<String, CacheStatisticsDTO> getStatistics()
+    {
+        Map<String, CacheStatisticsDTO> statistics = new LinkedHashMap<>();
+        entityCaches
+            .statistics()
+            .forEach((name, stats) -> statistics.put(name, toDTO(stats)));
+        statistics.put(DriverSearchPlans.NAME, toDTO(driverSearchPlans.statistics()));
+        statistics.put(DriverSearchResults.NAME, toDTO(driverSearchResults.statistics()));
+        return statistics;
+    }
+
+
+    private static CacheStatisticsDTO toDTO(CacheStats stats)
+    {
+        return new CacheStatisticsDTO(stats.hitCount(), stats.missCount(), stats.evictionCount(), stats.hitRate());
+    }
+}
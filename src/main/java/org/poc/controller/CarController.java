@@ -2,31 +2,61 @@ package org.poc.controller;
 
 import org.poc.controller.mapper.DriverMapper;
 import org.poc.datatransferobject.CarDTO;
+import org.poc.datatransferobject.CarImportReportDTO;
 import org.poc.domainobject.CarDO;
+import org.poc.domainobject.ManufacturerDO;
+import org.poc.domainvalue.CarImportReport;
+import org.poc.domainvalue.CarSummary;
 import org.poc.exception.ConstraintsViolationException;
 import org.poc.exception.EntityNotFoundException;
+import org.poc.service.car.CarImporter;
 import org.poc.service.car.CarService;
+import org.poc.util.CsvLine;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.annotation.Secured;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
 
 import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.Size;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.Collectors;
 
 /**
  * All operations with a car will be routed by this controller.
  * <p/>
  */
 @RestController
+@Validated
+@Secured("ROLE_USER")
 @RequestMapping("v1/cars")
 public class CarController
 {
     private final CarService carService;
+    private final CarImporter carImporter;
+    private final ObjectMapper objectMapper;
 
 
     @Autowired
-    public CarController(final CarService carService)
+    public CarController(final CarService carService, final CarImporter carImporter, final ObjectMapper objectMapper)
     {
         this.carService = carService;
+        this.carImporter = carImporter;
+        this.objectMapper = objectMapper;
     }
 
 
@@ -47,6 +77,57 @@ public class CarController
     }
 
 
+    /**
+     * Creates up to 1000 cars in one transaction, all or none.
+     */
+    @PostMapping("/batch")
+    @ResponseStatus(HttpStatus.CREATED)
+    public List<CarDTO> createCars(@RequestBody @NotEmpty @Size(max = 1000) List<@Valid CarDTO> carDTOs) throws ConstraintsViolationException
+    {
+        List<CarDO> cars = carDTOs.stream().map(this::createCarDO).collect(Collectors.toList());
+        return carService.createAll(cars).stream().map(this::createCarDTO).collect(Collectors.toList());
+    }
+
+
+    /**
+     * Imports cars from newline delimited JSON or CSV, one car per line. The body is read line by line and stored in
+     * chunks by {@link CarImporter}; lines that can not be parsed, are invalid or violate a constraint are reported with
+     * their line number and do not stop the import.
+     */
+    @PostMapping(
+        value = "/import",
+        consumes = {CarLineReader.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_STREAM_JSON_VALUE, CarLineReader.TEXT_CSV_VALUE})
+    public CarImportReportDTO importCars(@RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType, InputStream body) throws IOException
+    {
+        CarLineReader reader = new CarLineReader(body, contentType, objectMapper, this::createCarDO);
+        return createCarImportReportDTO(carImporter.importCars(reader));
+    }
+
+
+    /**
+     * Streams all cars as newline delimited JSON or, with <code>format=csv</code>, as CSV with a header line.
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportCars(@RequestParam(defaultValue = "ndjson") String format)
+    {
+        boolean csv = "csv".equalsIgnoreCase(format);
+        StreamingResponseBody body = outputStream -> {
+            Writer writer = new OutputStreamWriter(outputStream, StandardCharsets.UTF_8);
+            if (csv)
+            {
+                writer.write(CsvLine.join((Object[]) CarLineReader.CSV_COLUMNS));
+                writer.write('\n');
+            }
+            carService.exportCars(car -> writeLine(writer, csv, createCarDTO(car)));
+            writer.flush();
+        };
+        return ResponseEntity
+            .ok()
+            .contentType(MediaType.valueOf(csv ? CarLineReader.TEXT_CSV_VALUE : CarLineReader.APPLICATION_NDJSON_VALUE))
+            .body(body);
+    }
+
+
     @DeleteMapping("/{carId}")
     public void deleteCar(@PathVariable long carId) throws EntityNotFoundException
     {
@@ -62,7 +143,7 @@ public class CarController
     }
 
 
-    private CarDTO createCarDTO(CarDO car)
+    CarDTO createCarDTO(CarDO car)
     {
         CarDTO carDTO =
             new CarDTO(
@@ -81,6 +162,21 @@ public class CarController
     }
 
 
+    CarDTO createCarDTO(CarSummary car)
+    {
+        CarDTO carDTO =
+            new CarDTO(
+                car.getConvertible(),
+                car.getEngineType(),
+                car.getLicensePlate(),
+                car.getManufacturer() == null ? null : new ManufacturerDO(car.getManufacturer()),
+                car.getRating(),
+                car.getSeatCount());
+        carDTO.setId(car.getId());
+        return carDTO;
+    }
+
+
     CarDO createCarDO(CarDTO car)
     {
         CarDO carDO =
@@ -98,4 +194,36 @@ public class CarController
         }
         return carDO;
     }
+
+
+    CarImportReportDTO createCarImportReportDTO(CarImportReport report)
+    {
+        List<CarImportReportDTO.LineError> errors =
+            report.getErrors().stream().map(error -> new CarImportReportDTO.LineError(error.getLine(), error.getMessage())).collect(Collectors.toList());
+        return new CarImportReportDTO(report.getImported(), report.getFailed(), errors);
+    }
+
+
+    private void writeLine(Writer writer, boolean csv, CarDTO car)
+    {
+        try
+        {
+            if (csv)
+            {
+                writer.write(
+                    CsvLine.join(
+                        car.getId(), car.getLicensePlate(), car.getConvertible(), car.getEngineType(), car.getRating(), car.getSeatCount(),
+                        car.getManufacturer() == null ? null : car.getManufacturer().getManufacturer()));
+            }
+            else
+            {
+                writer.write(objectMapper.writeValueAsString(car));
+            }
+            writer.write('\n');
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+    }
 }
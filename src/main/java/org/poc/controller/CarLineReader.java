@@ -0,0 +1,137 @@
+package org.poc.controller;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.function.Function;
+
+import org.poc.datatransferobject.CarDTO;
+import org.poc.domainobject.CarDO;
+import org.poc.domainobject.ManufacturerDO;
+import org.poc.service.car.CarLines;
+import org.poc.util.CsvLine;
+import org.springframework.http.MediaType;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Reads cars one line at a time from a newline delimited JSON or CSV body. The first CSV line names the columns, see
+ * {@link #CSV_COLUMNS}; columns may come in any order and unknown ones are ignored.
+ */
+class CarLineReader implements CarLines
+{
+    static final String TEXT_CSV_VALUE = "text/csv";
+    static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+    static final String[] CSV_COLUMNS = {"id", "licensePlate", "convertible", "engineType", "rating", "seatCount", "manufacturer"};
+
+    private final BufferedReader reader;
+    private final ObjectMapper objectMapper;
+    private final Function<CarDTO, CarDO> toCarDO;
+    private final boolean csv;
+    private List<String> columns;
+    private String line;
+    private long lineNumber;
+
+
+    CarLineReader(InputStream body, MediaType contentType, ObjectMapper objectMapper, Function<CarDTO, CarDO> toCarDO)
+    {
+        Charset charset = contentType.getCharset() == null ? StandardCharsets.UTF_8 : contentType.getCharset();
+        this.reader = new BufferedReader(new InputStreamReader(body, charset));
+        this.objectMapper = objectMapper;
+        this.toCarDO = toCarDO;
+        this.csv = MediaType.valueOf(TEXT_CSV_VALUE).isCompatibleWith(contentType);
+    }
+
+
+    /**
+     * Skips blank lines and the CSV header.
+     */
+    @Override
+    public boolean next() throws IOException
+    {
+        do
+        {
+            line = reader.readLine();
+            lineNumber++;
+        }
+        while (line != null && line.trim().isEmpty());
+
+        if (line != null && csv && columns == null)
+        {
+            columns = CsvLine.split(line);
+            return next();
+        }
+        return line != null;
+    }
+
+
+    @Override
+    public long getLineNumber()
+    {
+        return lineNumber;
+    }
+
+
+    /**
+     * @throws IOException              if a JSON line can not be parsed
+     * @throws IllegalArgumentException if a CSV line can not be parsed
+     */
+    @Override
+    public CarDO parse() throws IOException
+    {
+        return toCarDO.apply(csv ? parseCsv() : objectMapper.readValue(line, CarDTO.class));
+    }
+
+
+    private CarDTO parseCsv()
+    {
+
+        List<String> fields = CsvLine.split(line);
+        if (fields.size() != columns.size())
+        {
+            throw new IllegalArgumentException("Expected " + columns.size() + " fields but found " + fields.size());
+        }
+        String licensePlate = null;
+        Boolean convertible = null;
+        CarDO.EngineType engineType = null;
+        Float rating = null;
+        Short seatCount = null;
+        ManufacturerDO manufacturer = null;
+        for (int i = 0; i < fields.size(); i++)
+        {
+            String value = fields.get(i);
+            if (value.isEmpty())
+            {
+                continue;
+            }
+            switch (columns.get(i))
+            {
+                case "licensePlate":
+                    licensePlate = value;
+                    break;
+                case "convertible":
+                    convertible = Boolean.valueOf(value);
+                    break;
+                case "engineType":
+                    engineType = CarDO.EngineType.valueOf(value);
+                    break;
+                case "rating":
+                    rating = Float.valueOf(value);
+                    break;
+                case "seatCount":
+                    seatCount = Short.valueOf(value);
+                    break;
+                case "manufacturer":
+                    manufacturer = new ManufacturerDO(value);
+                    break;
+                default:
+                    break;
+            }
+        }
+        return new CarDTO(convertible, engineType, licensePlate, manufacturer, rating, seatCount);
+    }
+}
@@ -3,43 +3,73 @@ package org.poc.controller;
 import org.poc.controller.mapper.DriverMapper;
 import org.poc.datatransferobject.CarDTO;
 import org.poc.datatransferobject.DriverDTO;
+import org.poc.datatransferobject.DriverLocationDTO;
+import org.poc.datatransferobject.DriverPageDTO;
+import org.poc.datatransferobject.DriverSearchDTO;
+import org.poc.datatransferobject.DriverSearchPageDTO;
+import org.poc.datatransferobject.NearbyDriverDTO;
 import org.poc.domainobject.DriverDO;
+import org.poc.domainvalue.BoundingBox;
+import org.poc.domainvalue.DriverEvent;
+import org.poc.domainvalue.DriverSummary;
 import org.poc.domainvalue.OnlineStatus;
 import org.poc.exception.AssignedDriverNotOnlineException;
 import org.poc.exception.CarAlreadyInUseException;
 import org.poc.exception.ConstraintsViolationException;
 import org.poc.exception.EntityNotFoundException;
+import org.poc.exception.InvalidCoordinateException;
 import org.poc.service.driver.DriverService;
+import org.poc.service.location.DriverEventBroadcaster;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.annotations.ApiOperation;
 import io.swagger.annotations.ApiParam;
 import io.swagger.annotations.Example;
 import io.swagger.annotations.ExampleProperty;
 import org.poc.service.driver.DefaultDriverService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.access.annotation.Secured;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import javax.validation.Valid;
+import javax.validation.constraints.DecimalMax;
+import javax.validation.constraints.DecimalMin;
 import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.Size;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 /**
  * All operations with a driver will be routed by this controller.
  * <p/>
  */
 @RestController
+@Validated
+@Secured("ROLE_USER")
 @RequestMapping("v1/drivers")
 public class DriverController
 {
 
+    private static final long EVENTS_TIMEOUT_MILLIS = TimeUnit.MINUTES.toMillis(30);
+
     private final DriverService driverService;
+    private final ObjectMapper objectMapper;
 
 
     @Autowired
-    public DriverController(final DriverService driverService)
+    public DriverController(final DriverService driverService, final ObjectMapper objectMapper)
     {
         this.driverService = driverService;
+        this.objectMapper = objectMapper;
     }
 
 
@@ -68,17 +98,91 @@ public class DriverController
 
     @PutMapping("/{driverId}")
     public void updateLocation(
-        @PathVariable long driverId, @RequestParam double longitude, @RequestParam double latitude)
+        @PathVariable long driverId, @RequestParam @DecimalMin("-180") @DecimalMax("180") double longitude,
+        @RequestParam @DecimalMin("-90") @DecimalMax("90") double latitude)
         throws EntityNotFoundException
     {
         driverService.updateLocation(driverId, longitude, latitude);
     }
 
 
+    /**
+     * Keeps a driver ONLINE; a driver without heartbeat for <code>driver.presence.timeout</code> milliseconds goes OFFLINE.
+     */
+    @PostMapping("/{driverId}/heartbeat")
+    public void heartbeat(@PathVariable long driverId) throws EntityNotFoundException
+    {
+        driverService.heartbeat(driverId);
+    }
+
+
+    /**
+     * Accepts a batch of driver positions. They are written asynchronously, coalesced to the latest position per driver.
+     */
+    @PostMapping("/locations")
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public void ingestLocations(@RequestBody @NotEmpty @Size(max = 10000) List<@Valid DriverLocationDTO> locations)
+    {
+        driverService.ingestLocations(DriverMapper.makeLocationUpdateList(locations));
+    }
+
+
     @GetMapping
-    public List<DriverDTO> findDrivers(@RequestParam OnlineStatus onlineStatus)
+    public DriverPageDTO findDrivers(
+        @RequestParam OnlineStatus onlineStatus, @RequestParam(required = false) Long after, @RequestParam(defaultValue = "100") int limit)
+    {
+        Slice<DriverSummary> page = driverService.find(onlineStatus, after, limit);
+        List<DriverDTO> drivers = DriverMapper.makeDriverDTOList(page.getContent());
+        Long next = page.hasNext() ? drivers.get(drivers.size() - 1).getId() : null;
+        return new DriverPageDTO(drivers, next);
+    }
+
+
+    /**
+     * Streams all drivers by online state as newline delimited JSON, each driver is written as soon as it is read.
+     */
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_STREAM_JSON_VALUE)
+    public StreamingResponseBody streamDrivers(@RequestParam OnlineStatus onlineStatus)
+    {
+        return outputStream -> driverService.streamDrivers(onlineStatus, driver -> writeLine(outputStream, DriverMapper.makeDriverDTO(driver)));
+    }
+
+
+    /**
+     * Finds the ONLINE drivers closest to a point from memory, without a database round trip.
+     */
+    @GetMapping("/nearby")
+    public List<NearbyDriverDTO> findNearby(
+        @RequestParam double lat, @RequestParam double lon, @RequestParam double radiusKm, @RequestParam(defaultValue = "10") int limit)
+    {
+        return DriverMapper.makeNearbyDriverDTOList(driverService.findNearby(lat, lon, radiusKm, limit));
+    }
+
+
+    /**
+     * Pushes position and car changes of the drivers inside the bounding box as Server-Sent Events, a replacement for
+     * polling the ONLINE drivers. Every <code>drivers</code> event holds a JSON array with the latest change per driver
+     * since the previous one; a driver leaving the box is reported once with its new position.
+     *
+     * @throws InvalidCoordinateException if a minimum of the box is higher than its maximum
+     */
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter driverEvents(
+        @RequestParam(defaultValue = "-90") double minLat, @RequestParam(defaultValue = "-180") double minLon,
+        @RequestParam(defaultValue = "90") double maxLat, @RequestParam(defaultValue = "180") double maxLon) throws IOException
     {
-        return DriverMapper.makeDriverDTOList(driverService.find(onlineStatus));
+        if (!(minLat <= maxLat && minLon <= maxLon))
+        {
+            throw new InvalidCoordinateException("minLat and minLon must not be higher than maxLat and maxLon");
+        }
+        SseEmitter emitter = new SseEmitter(EVENTS_TIMEOUT_MILLIS);
+        DriverEventBroadcaster.Subscription subscription =
+            driverService.subscribeEvents(new BoundingBox(minLat, minLon, maxLat, maxLon), events -> sendEvents(emitter, events));
+        emitter.onCompletion(subscription::close);
+        emitter.onTimeout(subscription::close);
+        emitter.onError(error -> subscription.close());
+        emitter.send(SseEmitter.event().comment("subscribed"));
+        return emitter;
     }
 
 
@@ -102,6 +206,7 @@ public class DriverController
      * Using <code>Map</code> as input is <b>not</b> scalable due to the custom parser for each <code><Entry/code> to filter results @see {@link DefaultDriverService#searchByFieldsOfCarAndDriver(Map)} parsing method}.
      * If using {@link CarDTO} and {@link DriverDTO} the Swagger UI will show JSON representation of both classes with all fields but not all fields need to be shown as criteria.
      * The solution is to use annotation <code>@Example</code> but due to <a href="https://github.com/springfox/springfox/issues/1503">springfox issue</a>, <code>@Example</code> section in Swagger UI can not be overwritten.
+     * Ranges, lists of values, order and limit are only supported by the typed {@link #query(DriverSearchDTO)}.
      *
      * @param params Contains filter criteria of car and driver attributes
      * @return List of DriverDTO matching criteria
@@ -119,4 +224,44 @@ public class DriverController
         return DriverMapper.makeDriverDTOList(driverService.searchByFieldsOfCarAndDriver(params));
     }
 
+
+    /**
+     * Search by typed attributes: ranges of <code>rating</code> and <code>seatCount</code>, lists of online states and
+     * engine types, an order and a limit, all applied before the drivers are read. Returns a keyset page of at most
+     * <code>limit</code> drivers (default {@value DriverSearchDTO#DEFAULT_LIMIT}); the following page is requested with
+     * the same criteria and its <code>next</code> cursor as <code>after</code>.
+     */
+    @PostMapping("/query")
+    public DriverSearchPageDTO query(@Valid @RequestBody DriverSearchDTO search)
+    {
+        return DriverMapper.makeDriverSearchPageDTO(driverService.searchPage(DriverMapper.makeDriverSearchCriteria(search)));
+    }
+
+
+    private static void sendEvents(SseEmitter emitter, List<DriverEvent> events)
+    {
+        try
+        {
+            emitter.send(SseEmitter.event().name("drivers").data(DriverMapper.makeDriverEventDTOList(events), MediaType.APPLICATION_JSON));
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+
+    private void writeLine(OutputStream outputStream, DriverDTO driverDTO)
+    {
+        try
+        {
+            outputStream.write(objectMapper.writeValueAsBytes(driverDTO));
+            outputStream.write('\n');
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+    }
+
 }
@@ -1,14 +1,29 @@
 package org.poc.controller.mapper;
 
+import java.time.ZonedDateTime;
 import java.util.Collection;
 import java.util.List;
 import java.util.stream.Collectors;
 
 import org.poc.datatransferobject.CarDTO;
 import org.poc.datatransferobject.DriverDTO;
+import org.poc.datatransferobject.DriverEventDTO;
+import org.poc.datatransferobject.DriverLocationDTO;
+import org.poc.datatransferobject.DriverSearchCursorDTO;
+import org.poc.datatransferobject.DriverSearchDTO;
+import org.poc.datatransferobject.DriverSearchPageDTO;
+import org.poc.datatransferobject.NearbyDriverDTO;
 import org.poc.domainobject.CarDO;
 import org.poc.domainobject.DriverDO;
+import org.poc.domainvalue.DriverEvent;
+import org.poc.domainvalue.DriverSearchCriteria;
+import org.poc.domainvalue.DriverSearchCursor;
+import org.poc.domainvalue.DriverSearchPage;
+import org.poc.domainvalue.DriverSummary;
 import org.poc.domainvalue.GeoCoordinate;
+import org.poc.domainvalue.LocationUpdate;
+import org.poc.domainvalue.NearbyDriver;
+import org.poc.exception.InvalidCursorException;
 
 public class DriverMapper
 {
@@ -48,11 +63,133 @@ public class DriverMapper
     }
 
 
-    public static List<DriverDTO> makeDriverDTOList(Collection<DriverDO> drivers)
+    public static DriverDTO makeDriverDTO(DriverSummary driver)
+    {
+        DriverDTO.DriverDTOBuilder driverDTOBuilder =
+            DriverDTO
+                .newBuilder()
+                .setId(driver.getId())
+                .setPassword(driver.getPassword())
+                .setUsername(driver.getUsername())
+                .setOnlineStatus(driver.getOnlineStatus());
+
+        if (driver.getCoordinate() != null)
+        {
+            driverDTOBuilder.setCoordinate(driver.getCoordinate());
+        }
+        if (driver.getCarId() != null)
+        {
+            CarDTO carDTO = new CarDTO();
+            carDTO.setId(driver.getCarId());
+            driverDTOBuilder.setCarDTO(carDTO);
+        }
+
+        return driverDTOBuilder.createDriverDTO();
+    }
+
+
+    public static List<DriverDTO> makeDriverDTOList(Collection<DriverSummary> drivers)
     {
         return drivers
             .stream()
             .map(DriverMapper::makeDriverDTO)
             .collect(Collectors.toList());
     }
+
+
+    public static List<NearbyDriverDTO> makeNearbyDriverDTOList(Collection<NearbyDriver> drivers)
+    {
+        return drivers
+            .stream()
+            .map(driver -> new NearbyDriverDTO(driver.getDriverId(), driver.getCoordinate(), driver.getDistanceKm()))
+            .collect(Collectors.toList());
+    }
+
+
+    public static List<DriverEventDTO> makeDriverEventDTOList(Collection<DriverEvent> events)
+    {
+        return events
+            .stream()
+            .map(event -> new DriverEventDTO(event.getType(), event.getDriverId(), event.getCoordinate(), event.getCarId()))
+            .collect(Collectors.toList());
+    }
+
+
+    public static List<LocationUpdate> makeLocationUpdateList(Collection<DriverLocationDTO> locations)
+    {
+        ZonedDateTime received = ZonedDateTime.now();
+        return locations
+            .stream()
+            .map(location -> new LocationUpdate(
+                location.getDriverId(), new GeoCoordinate(location.getLatitude(), location.getLongitude()),
+                location.getTimestamp() == null || location.getTimestamp().isAfter(received) ? received : location.getTimestamp()))
+            .collect(Collectors.toList());
+    }
+
+
+    public static DriverSearchCriteria makeDriverSearchCriteria(DriverSearchDTO search)
+    {
+        return DriverSearchCriteria
+            .newBuilder()
+            .setUsername(search.getUsername())
+            .setOnlineStatus(search.getOnlineStatus())
+            .setLicensePlate(search.getLicensePlate())
+            .setManufacturer(search.getManufacturer())
+            .setConvertible(search.getConvertible())
+            .setEngineType(search.getEngineType())
+            .setMinRating(search.getMinRating())
+            .setMaxRating(search.getMaxRating())
+            .setMinSeatCount(search.getMinSeatCount())
+            .setMaxSeatCount(search.getMaxSeatCount())
+            .setSort(search.getSort())
+            .setDescending(search.isDescending())
+            .setAfter(makeDriverSearchCursor(search.getAfter(), search.getSort()))
+            .setLimit(search.getLimit() == null ? DriverSearchDTO.DEFAULT_LIMIT : search.getLimit())
+            .createDriverSearchCriteria();
+    }
+
+
+    public static DriverSearchPageDTO makeDriverSearchPageDTO(DriverSearchPage page)
+    {
+        DriverSearchCursor next = page.getNext();
+        return new DriverSearchPageDTO(
+            makeDriverDTOList(page.getDrivers()),
+            next == null ? null : new DriverSearchCursorDTO(next.getValue() == null ? null : next.getValue().toString(), next.getId()));
+    }
+
+
+    /**
+     * The cursor value as the type of the sorted attribute.
+     *
+     * @throws InvalidCursorException if the value is no number though the drivers are sorted by one
+     */
+    private static DriverSearchCursor makeDriverSearchCursor(DriverSearchCursorDTO cursor, DriverSearchCriteria.Sort sort)
+    {
+        if (cursor == null)
+        {
+            return null;
+        }
+        DriverSearchCriteria.Field field = sort == null ? null : sort.getField();
+        String value = cursor.getValue();
+        if (field == null || value == null)
+        {
+            return new DriverSearchCursor(null, cursor.getId());
+        }
+        try
+        {
+            switch (field)
+            {
+                case RATING:
+                    return new DriverSearchCursor(Float.valueOf(value), cursor.getId());
+                case SEAT_COUNT:
+                    return new DriverSearchCursor(Short.valueOf(value), cursor.getId());
+                default:
+                    return new DriverSearchCursor(value, cursor.getId());
+            }
+        }
+        catch (NumberFormatException e)
+        {
+            throw new InvalidCursorException("Cursor value " + value + " is not a " + field.getParameter());
+        }
+    }
 }
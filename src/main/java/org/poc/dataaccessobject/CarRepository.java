@@ -1,16 +1,45 @@
 package org.poc.dataaccessobject;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
 import org.poc.domainobject.CarDO;
-import org.springframework.data.repository.CrudRepository;
-import org.springframework.data.repository.query.QueryByExampleExecutor;
-import org.springframework.security.access.annotation.Secured;
+import org.poc.domainvalue.CarSummary;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 /**
  * Database Access Object for car table.
  * <p/>
  */
-@Secured("ROLE_USER")
-public interface CarRepository extends CrudRepository<CarDO, Long>, QueryByExampleExecutor<CarDO>
+public interface CarRepository extends JpaRepository<CarDO, Long>
 {
 
+    /**
+     * Car with its driver in one query, the driver is mapped into the car representation.
+     */
+    @Override
+    @EntityGraph(attributePaths = "driver")
+    Optional<CarDO> findById(Long id);
+
+
+    /**
+     * Keyset page on <code>id</code>: cars after the given id as rows of their own columns, bounded by the page size of
+     * <code>pageable</code>.
+     */
+    @Query(
+        "select new org.poc.domainvalue.CarSummary(c.id, c.licensePlate, c.convertible, c.engineType, c.rating, c.seatCount, c.manufacturer.manufacturer) "
+            + "from CarDO c where c.id > :id order by c.id")
+    List<CarSummary> findSummariesByIdGreaterThan(@Param("id") long id, Pageable pageable);
+
+
+    /**
+     * Ids of the cars assigned to any of the drivers.
+     */
+    @Query("select c.id from CarDO c where c.driver.id in :driverIds")
+    List<Long> findIdsByDriverIds(@Param("driverIds") Collection<Long> driverIds);
 }
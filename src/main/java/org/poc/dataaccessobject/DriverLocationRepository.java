@@ -0,0 +1,104 @@
+package org.poc.dataaccessobject;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.poc.domainvalue.GeoCoordinate;
+import org.poc.domainvalue.LocationUpdate;
+import org.poc.domainvalue.OnlineStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Plain JDBC access to driver positions, for paths that must not load driver entities.
+ * <p/>
+ */
+@Repository
+public class DriverLocationRepository
+{
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+
+    public DriverLocationRepository(final JdbcTemplate jdbcTemplate)
+    {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedParameterJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+    }
+
+
+    /**
+     * Reads the position, the time it was reported and the online state of every located, not deleted driver.
+     */
+    public void forEachLocatedDriver(LocatedDriverCallback callback)
+    {
+        jdbcTemplate.query(
+            "select id, latitude, longitude, date_coordinate_updated, online_status from driver "
+                + "where latitude is not null and longitude is not null and deleted = false",
+            rs -> {
+                Timestamp reportedAt = rs.getTimestamp("date_coordinate_updated");
+                callback.accept(
+                    rs.getLong("id"),
+                    new GeoCoordinate(rs.getDouble("latitude"), rs.getDouble("longitude")),
+                    reportedAt == null ? null : reportedAt.toInstant(),
+                    OnlineStatus.valueOf(rs.getString("online_status")));
+            });
+    }
+
+    /**
+     * Writes positions in one JDBC batch. A position older than the one already stored is skipped, as are unknown or
+     * deleted drivers.
+     *
+     * @return number of drivers updated
+     */
+    public int updateLocations(List<LocationUpdate> updates)
+    {
+        int[] counts =
+            jdbcTemplate.batchUpdate(
+                "update driver set latitude = ?, longitude = ?, date_coordinate_updated = ? "
+                    + "where id = ? and deleted = false and (date_coordinate_updated is null or date_coordinate_updated <= ?)",
+                updates.stream().map(update -> {
+                    Timestamp timestamp = Timestamp.from(update.getTimestamp().toInstant());
+                    return new Object[] {update.getCoordinate().getLatitude(), update.getCoordinate().getLongitude(), timestamp, update.getDriverId(), timestamp};
+                }).collect(Collectors.toList()));
+        int updated = 0;
+        for (int count : counts)
+        {
+            updated += Math.max(count, 0);
+        }
+        return updated;
+    }
+
+
+    /**
+     * Online state of the given, not deleted drivers.
+     */
+    public Map<Long, OnlineStatus> findOnlineStatus(Collection<Long> driverIds)
+    {
+        Map<Long, OnlineStatus> statuses = new HashMap<>();
+        if (!driverIds.isEmpty())
+        {
+            namedParameterJdbcTemplate.query(
+                "select id, online_status from driver where id in (:ids) and deleted = false",
+                Collections.singletonMap("ids", driverIds),
+                rs -> {
+                    statuses.put(rs.getLong("id"), OnlineStatus.valueOf(rs.getString("online_status")));
+                });
+        }
+        return statuses;
+    }
+
+    @FunctionalInterface
+    public interface LocatedDriverCallback
+    {
+        void accept(long driverId, GeoCoordinate coordinate, Instant reportedAt, OnlineStatus onlineStatus);
+    }
+}
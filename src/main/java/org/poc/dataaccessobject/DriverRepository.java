@@ -1,12 +1,20 @@
 package org.poc.dataaccessobject;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 import org.poc.domainobject.CarDO;
+import org.poc.domainvalue.DriverSummary;
 import org.poc.domainvalue.OnlineStatus;
+import org.poc.domainvalue.SearchableDriver;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.data.repository.query.QueryByExampleExecutor;
-import org.springframework.security.access.annotation.Secured;
+import org.springframework.transaction.annotation.Transactional;
 
 import org.poc.domainobject.DriverDO;
 
@@ -14,11 +22,58 @@ import org.poc.domainobject.DriverDO;
  * Database Access Object for driver table.
  * <p/>
  */
-@Secured("ROLE_USER")
-public interface DriverRepository extends CrudRepository<DriverDO, Long>, QueryByExampleExecutor<DriverDO>
+public interface DriverRepository extends CrudRepository<DriverDO, Long>, QueryByExampleExecutor<DriverDO>, DriverRepositoryCustom
 {
+    String SEARCHABLE =
+        "select new org.poc.domainvalue.SearchableDriver(d.id, d.username, d.onlineStatus, c.id, c.licensePlate, c.manufacturer.manufacturer, "
+            + "c.convertible, c.engineType, c.rating, c.seatCount) from DriverDO d join d.car c";
+
+
+    @EntityGraph(attributePaths = "car")
     DriverDO findByCar(CarDO carDO);
 
 
+    @EntityGraph(attributePaths = "car")
     List<DriverDO> findByOnlineStatus(OnlineStatus onlineStatus);
+
+
+    /**
+     * Ids of the not deleted drivers in the given online state, the starting point of the in-memory presence.
+     */
+    @Query("select d.id from DriverDO d where d.deleted = false and d.onlineStatus = :onlineStatus")
+    List<Long> findIdsByOnlineStatus(@Param("onlineStatus") OnlineStatus onlineStatus);
+
+
+    /**
+     * Drivers by id, in id order. Only the listed columns are read, straight into {@link DriverSummary}.
+     */
+    @Query(
+        "select new org.poc.domainvalue.DriverSummary(d.id, d.username, d.password, d.onlineStatus, d.coordinate.latitude, d.coordinate.longitude, c.id) "
+            + "from DriverDO d left join d.car c where d.id in :ids order by d.id")
+    List<DriverSummary> findSummariesByIdIn(@Param("ids") Collection<Long> ids);
+
+
+    /**
+     * Every not deleted driver with a car, the starting point of the in-memory search index.
+     */
+    @Query(SEARCHABLE + " where d.deleted = false")
+    List<SearchableDriver> findSearchable();
+
+
+    /**
+     * The driver if it is not deleted and has a car.
+     */
+    @Query(SEARCHABLE + " where d.deleted = false and d.id = :id")
+    Optional<SearchableDriver> findSearchableById(@Param("id") long id);
+
+
+    /**
+     * Sets the online state of the given, not deleted drivers in one statement.
+     *
+     * @return number of drivers updated
+     */
+    @Modifying
+    @Transactional
+    @Query("update DriverDO d set d.onlineStatus = :onlineStatus where d.id in :ids and d.deleted = false")
+    int updateOnlineStatus(@Param("onlineStatus") OnlineStatus onlineStatus, @Param("ids") Collection<Long> ids);
 }
@@ -0,0 +1,26 @@
+package org.poc.dataaccessobject;
+
+import java.util.List;
+
+import org.poc.domainvalue.DriverSearchCriteria;
+import org.poc.domainvalue.DriverSummary;
+
+/**
+ * Queries on driver table that can not be derived by Spring Data.
+ * <p/>
+ */
+public interface DriverRepositoryCustom
+{
+
+    /**
+     * Finds drivers with an assigned car in a single join query, reading only the columns of {@link DriverSummary}.
+     * <p/>
+     * The query comes from {@link DriverSearchPlans}, built once per combination of supplied fields and order;
+     * <code>null</code> fields are ignored, strings match with CONTAINING ignoring case, lists by any of their values
+     * and ranges inclusively. Order and limit are applied by the database.
+     *
+     * @param criteria driver and car attributes to match
+     * @return drivers matching all criteria, in order of the criteria and at most its limit
+     */
+    List<DriverSummary> findByCriteria(DriverSearchCriteria criteria);
+}
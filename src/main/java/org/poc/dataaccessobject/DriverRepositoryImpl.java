@@ -0,0 +1,36 @@
+package org.poc.dataaccessobject;
+
+import java.util.List;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import org.poc.domainvalue.DriverSearchCriteria;
+import org.poc.domainvalue.DriverSummary;
+
+/**
+ * Implementation of {@link DriverRepositoryCustom}, picked up by Spring Data through the <code>Impl</code> postfix.
+ * <p/>
+ */
+public class DriverRepositoryImpl implements DriverRepositoryCustom
+{
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final DriverSearchPlans driverSearchPlans;
+
+
+    public DriverRepositoryImpl(final DriverSearchPlans driverSearchPlans)
+    {
+        this.driverSearchPlans = driverSearchPlans;
+    }
+
+
+    @Override
+    public List<DriverSummary> findByCriteria(DriverSearchCriteria criteria)
+    {
+        DriverSearchPlans.SearchPlan plan = driverSearchPlans.plan(criteria);
+        return plan.bind(entityManager.createQuery(plan.getJpql(), DriverSummary.class), criteria).getResultList();
+    }
+}
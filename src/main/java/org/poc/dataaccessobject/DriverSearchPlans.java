@@ -0,0 +1,253 @@
+package org.poc.dataaccessobject;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import javax.persistence.TypedQuery;
+
+import org.poc.domainvalue.DriverSearchCriteria;
+import org.poc.domainvalue.DriverSearchCriteria.Field;
+import org.poc.domainvalue.DriverSearchCriteria.Sort;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Parameterised JPQL of the driver search, one plan per combination of supplied {@link Field}s, {@link Sort} order and
+ * kind of cursor: none, after a driver with a sorted value or after one without.
+ * <p/>
+ * A plan is built once per combination and only has its values bound afterwards. As the JPQL of a combination never
+ * changes, Hibernate parses and translates it once and serves repeats from its own query plan cache, where a criteria
+ * query is rendered again on every call. Lists of values are bound as one collection parameter and an open end of a
+ * range as the extreme value of its type, so neither adds plans. Hits and misses are published as <code>cache_*</code>
+ * metrics named {@value #NAME}.
+ */
+@Component
+public class DriverSearchPlans implements MeterBinder
+{
+
+    public static final String NAME = "searchPlans";
+
+    private final Cache<Integer, SearchPlan> plans =
+        Caffeine.newBuilder().maximumSize((1 << Field.values().length) * 2 * Sort.values().length * After.values().length).recordStats().build();
+
+
+    public SearchPlan plan(DriverSearchCriteria criteria)
+    {
+        After after = After.of(criteria);
+        int order = (criteria.getSort().ordinal() << 1 | (criteria.isDescending() ? 1 : 0)) * After.values().length + after.ordinal();
+        return plans.get(
+            criteria.fields() | order << Field.values().length, key -> SearchPlan.compile(criteria.fields(), criteria.getSort(), criteria.isDescending(), after));
+    }
+
+
+    public CacheStats statistics()
+    {
+        return plans.stats();
+    }
+
+
+    @Override
+    public void bindTo(MeterRegistry registry)
+    {
+        // same tag keys as the caches of the cache manager, Prometheus refuses a meter name with different keys
+        new CaffeineCacheMetrics(plans, NAME, Tags.of("cacheManager", "driverSearchPlans", "name", NAME)).bindTo(registry);
+    }
+
+
+    /**
+     * Where a search starts, the cursor value only changes the JPQL as far as it is <code>null</code>.
+     */
+    enum After
+    {
+        START,
+        VALUE,
+        NO_VALUE;
+
+
+        static After of(DriverSearchCriteria criteria)
+        {
+            if (criteria.getAfter() == null)
+            {
+                return START;
+            }
+            return criteria.getSort().getField() == null || criteria.getAfter().getValue() != null ? VALUE : NO_VALUE;
+        }
+    }
+
+
+    public static final class SearchPlan
+    {
+        private final String jpql;
+        private final List<Field> parameters;
+
+
+        private SearchPlan(String jpql, List<Field> parameters)
+        {
+            this.jpql = jpql;
+            this.parameters = parameters;
+        }
+
+
+        static SearchPlan compile(int fields, Sort sort, boolean descending, After after)
+        {
+            StringBuilder jpql =
+                new StringBuilder(
+                    "select new org.poc.domainvalue.DriverSummary(d.id, d.username, d.password, d.onlineStatus, d.coordinate.latitude, d.coordinate.longitude, c.id) "
+                        + "from DriverDO d join d.car c where d.deleted = false");
+            List<Field> parameters = new ArrayList<>();
+            for (Field field : Field.values())
+            {
+                if (field.in(fields))
+                {
+                    jpql.append(" and ").append(predicate(field));
+                    parameters.add(field);
+                }
+            }
+            if (after != After.START)
+            {
+                jpql.append(" and ").append(after(sort, descending, after));
+            }
+            String direction = descending ? " desc" : "";
+            jpql.append(" order by ").append(sort == Sort.ID ? "d.id" + direction : path(sort.getField()) + direction + " nulls last, d.id");
+            return new SearchPlan(jpql.toString(), Collections.unmodifiableList(parameters));
+        }
+
+
+        public String getJpql()
+        {
+            return jpql;
+        }
+
+
+        public <T> TypedQuery<T> bind(TypedQuery<T> query, DriverSearchCriteria criteria)
+        {
+            for (Field field : parameters)
+            {
+                switch (field)
+                {
+                    case USERNAME:
+                        query.setParameter("username", containing(criteria.getUsername()));
+                        break;
+                    case ONLINE_STATUS:
+                        query.setParameter("onlineStatus", criteria.getOnlineStatus());
+                        break;
+                    case LICENSE_PLATE:
+                        query.setParameter("licensePlate", containing(criteria.getLicensePlate()));
+                        break;
+                    case MANUFACTURER:
+                        query.setParameter("manufacturer", containing(criteria.getManufacturer()));
+                        break;
+                    case CONVERTIBLE:
+                        query.setParameter("convertible", criteria.getConvertible());
+                        break;
+                    case ENGINE_TYPE:
+                        query.setParameter("engineType", criteria.getEngineType());
+                        break;
+                    case RATING:
+                        query.setParameter("minRating", criteria.getMinRating() == null ? -Float.MAX_VALUE : criteria.getMinRating());
+                        query.setParameter("maxRating", criteria.getMaxRating() == null ? Float.MAX_VALUE : criteria.getMaxRating());
+                        break;
+                    case SEAT_COUNT:
+                        query.setParameter("minSeatCount", criteria.getMinSeatCount() == null ? Short.MIN_VALUE : criteria.getMinSeatCount());
+                        query.setParameter("maxSeatCount", criteria.getMaxSeatCount() == null ? Short.MAX_VALUE : criteria.getMaxSeatCount());
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown field " + field);
+                }
+            }
+            if (criteria.getAfter() != null)
+            {
+                query.setParameter("afterId", criteria.getAfter().getId());
+                if (After.of(criteria) == After.VALUE && criteria.getSort().getField() != null)
+                {
+                    query.setParameter("afterValue", criteria.getAfter().getValue());
+                }
+            }
+            if (criteria.getLimit() != null)
+            {
+                query.setMaxResults(criteria.getLimit());
+            }
+            return query;
+        }
+
+
+        private static String predicate(Field field)
+        {
+            switch (field)
+            {
+                case USERNAME:
+                    return "lower(d.username) like :username";
+                case ONLINE_STATUS:
+                    return "d.onlineStatus in :onlineStatus";
+                case LICENSE_PLATE:
+                    return "lower(c.licensePlate) like :licensePlate";
+                case MANUFACTURER:
+                    return "lower(c.manufacturer.manufacturer) like :manufacturer";
+                case CONVERTIBLE:
+                    return "c.convertible = :convertible";
+                case ENGINE_TYPE:
+                    return "c.engineType in :engineType";
+                case RATING:
+                    return "c.rating between :minRating and :maxRating";
+                case SEAT_COUNT:
+                    return "c.seatCount between :minSeatCount and :maxSeatCount";
+                default:
+                    throw new IllegalArgumentException("Unknown field " + field);
+            }
+        }
+
+
+        /**
+         * Drivers ordered after the cursor: a later value, no value or the same value and a greater id, as drivers
+         * without value come last and ties are ordered by id.
+         */
+        private static String after(Sort sort, boolean descending, After after)
+        {
+            if (sort == Sort.ID)
+            {
+                return descending ? "d.id < :afterId" : "d.id > :afterId";
+            }
+            String path = path(sort.getField());
+            if (after == After.NO_VALUE)
+            {
+                return "(" + path + " is null and d.id > :afterId)";
+            }
+            return "(" + path + (descending ? " < " : " > ") + ":afterValue or " + path + " is null or (" + path + " = :afterValue and d.id > :afterId))";
+        }
+
+
+        private static String path(Field field)
+        {
+            switch (field)
+            {
+                case USERNAME:
+                    return "d.username";
+                case LICENSE_PLATE:
+                    return "c.licensePlate";
+                case MANUFACTURER:
+                    return "c.manufacturer.manufacturer";
+                case RATING:
+                    return "c.rating";
+                case SEAT_COUNT:
+                    return "c.seatCount";
+                default:
+                    throw new IllegalArgumentException("Not sortable " + field);
+            }
+        }
+
+
+        private static String containing(String value)
+        {
+            return "%" + value.toLowerCase() + "%";
+        }
+    }
+}
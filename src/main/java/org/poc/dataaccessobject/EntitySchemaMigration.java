@@ -0,0 +1,130 @@
+package org.poc.dataaccessobject;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.boot.autoconfigure.data.jpa.EntityManagerFactoryDependsOnPostProcessor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.stereotype.Component;
+
+/**
+ * Brings the id sequences and the car table of databases created by older versions in line with
+ * {@link org.poc.domainobject.CarDO} and {@link org.poc.domainobject.DriverDO}.
+ * <p/>
+ * Ids are taken from the sequences in blocks of {@value #ALLOCATION_SIZE}, so a <code>car_seq</code> still incremented by
+ * one would hand out overlapping blocks. Drivers used to draw their ids from <code>hibernate_sequence</code>, their own
+ * <code>driver_seq</code> is created starting above the highest driver id. Existing cars get the <code>version</code>
+ * column of optimistic locking, starting at 0. Runs on startup before the entity manager
+ * factory is built and leaves an up to date schema, or an empty one Hibernate is about to create, as it is.
+ */
+@Component
+public class EntitySchemaMigration implements InitializingBean
+{
+
+    private static final Logger LOG = LoggerFactory.getLogger(EntitySchemaMigration.class);
+
+    private static final int ALLOCATION_SIZE = 50;
+    private static final long INITIAL_VALUE = 100;
+
+    private static final String CAR_SEQUENCE = "car_seq";
+    private static final String DRIVER_SEQUENCE = "driver_seq";
+    private static final String CAR_TABLE = "car";
+    private static final String DRIVER_TABLE = "driver";
+
+    private final JdbcTemplate jdbcTemplate;
+
+
+    public EntitySchemaMigration(final JdbcTemplate jdbcTemplate)
+    {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+
+    @Override
+    public void afterPropertiesSet()
+    {
+        Map<String, Long> increments = sequenceIncrements();
+        Long carIncrement = increments.get(CAR_SEQUENCE);
+        if (carIncrement != null && carIncrement != ALLOCATION_SIZE)
+        {
+            LOG.info("Changing the increment of {} from {} to {}", CAR_SEQUENCE, carIncrement, ALLOCATION_SIZE);
+            jdbcTemplate.execute("alter sequence " + CAR_SEQUENCE + " increment by " + ALLOCATION_SIZE);
+        }
+        if (!increments.containsKey(DRIVER_SEQUENCE) && !columns(DRIVER_TABLE).isEmpty())
+        {
+            long start = Math.max(INITIAL_VALUE, jdbcTemplate.queryForObject("select coalesce(max(id), 0) from driver", Long.class) + 1);
+            LOG.info("Creating {} starting with {}", DRIVER_SEQUENCE, start);
+            jdbcTemplate.execute("create sequence " + DRIVER_SEQUENCE + " start with " + start + " increment by " + ALLOCATION_SIZE);
+        }
+        List<String> carColumns = columns(CAR_TABLE);
+        if (!carColumns.isEmpty() && !carColumns.contains("version"))
+        {
+            LOG.info("Adding the version column to {}", CAR_TABLE);
+            jdbcTemplate.execute("alter table car add column version bigint default 0 not null");
+        }
+    }
+
+
+    /**
+     * @return increment by lower case sequence name
+     */
+    private Map<String, Long> sequenceIncrements()
+    {
+        Map<String, Long> increments = new HashMap<>();
+        jdbcTemplate.query(
+            "select sequence_name, increment from information_schema.sequences",
+            (ResultSet rs) -> {
+                increments.put(rs.getString("sequence_name").toLowerCase(), rs.getLong("increment"));
+            });
+        return increments;
+    }
+
+
+    /**
+     * @return lower case column names, empty if the table does not exist
+     */
+    private List<String> columns(String table)
+    {
+        return jdbcTemplate.execute((Connection connection) -> {
+            List<String> columns = new ArrayList<>();
+            for (String name : new String[] {table, table.toUpperCase()})
+            {
+                ResultSet resultSet = connection.getMetaData().getColumns(null, null, name, null);
+                try
+                {
+                    while (resultSet.next())
+                    {
+                        columns.add(resultSet.getString("COLUMN_NAME").toLowerCase());
+                    }
+                }
+                finally
+                {
+                    JdbcUtils.closeResultSet(resultSet);
+                }
+            }
+            return columns;
+        });
+    }
+
+    /**
+     * Makes the entity manager factory wait for the migration.
+     */
+    @Configuration
+    static class EntityManagerFactoryDependsOnMigration extends EntityManagerFactoryDependsOnPostProcessor
+    {
+
+        EntityManagerFactoryDependsOnMigration()
+        {
+            super("entitySchemaMigration");
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package org.poc.dataaccessobject;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidClassException;
+import java.io.ObjectInputStream;
+import java.io.ObjectStreamClass;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.boot.autoconfigure.data.jpa.EntityManagerFactoryDependsOnPostProcessor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.dao.DataRetrievalFailureException;
+import org.springframework.data.geo.Point;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.stereotype.Component;
+
+/**
+ * Moves driver positions stored by older versions as a Java-serialized {@link Point} in the <code>coordinate</code> column
+ * into the numeric <code>latitude</code>/<code>longitude</code> columns mapped by {@link org.poc.domainvalue.GeoCoordinate}.
+ * <p/>
+ * Runs once on startup before the entity manager factory is built, so <code>ddl-auto=validate</code> already sees the new
+ * columns, and does nothing when the <code>coordinate</code> column is absent. Every step can be repeated, so an
+ * interrupted run is completed by the next start.
+ */
+@Component
+public class GeoCoordinateColumnMigration implements InitializingBean
+{
+
+    private static final Logger LOG = LoggerFactory.getLogger(GeoCoordinateColumnMigration.class);
+
+    private static final String TABLE = "driver";
+    private static final String BLOB_COLUMN = "coordinate";
+
+    private final JdbcTemplate jdbcTemplate;
+
+
+    public GeoCoordinateColumnMigration(final JdbcTemplate jdbcTemplate)
+    {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+
+    @Override
+    public void afterPropertiesSet()
+    {
+        List<String> columns = driverColumns();
+        if (!columns.contains(BLOB_COLUMN))
+        {
+            return;
+        }
+        LOG.info("Migrating serialized driver coordinates to latitude/longitude columns");
+        if (!columns.contains("latitude"))
+        {
+            jdbcTemplate.execute("alter table driver add column latitude double");
+        }
+        if (!columns.contains("longitude"))
+        {
+            jdbcTemplate.execute("alter table driver add column longitude double");
+        }
+
+        List<Object[]> rows =
+            jdbcTemplate.query(
+                "select id, coordinate from driver where coordinate is not null", (rs, rowNum) -> {
+                    Point point = deserialize(rs.getBinaryStream(BLOB_COLUMN));
+                    return new Object[] {point.getY(), point.getX(), rs.getLong("id")};
+                });
+        jdbcTemplate.batchUpdate("update driver set latitude = ?, longitude = ? where id = ?", rows);
+        jdbcTemplate.execute("alter table driver drop column coordinate");
+        LOG.info("Migrated {} driver coordinates", rows.size());
+    }
+
+
+    private List<String> driverColumns()
+    {
+        return jdbcTemplate.execute((Connection connection) -> {
+            DatabaseMetaData metaData = connection.getMetaData();
+            List<String> columns = new ArrayList<>();
+            for (String table : new String[] {TABLE, TABLE.toUpperCase()})
+            {
+                ResultSet resultSet = metaData.getColumns(null, null, table, null);
+                try
+                {
+                    while (resultSet.next())
+                    {
+                        columns.add(resultSet.getString("COLUMN_NAME").toLowerCase());
+                    }
+                }
+                finally
+                {
+                    JdbcUtils.closeResultSet(resultSet);
+                }
+            }
+            return columns;
+        });
+    }
+
+
+    private static Point deserialize(InputStream blob)
+    {
+        try (ObjectInputStream in = new PointInputStream(blob))
+        {
+            return (Point) in.readObject();
+        }
+        catch (IOException | ClassNotFoundException e)
+        {
+            throw new DataRetrievalFailureException("Unreadable serialized coordinate", e);
+        }
+    }
+
+    /**
+     * Makes the entity manager factory wait for the migration.
+     */
+    @Configuration
+    static class EntityManagerFactoryDependsOnMigration extends EntityManagerFactoryDependsOnPostProcessor
+    {
+
+        EntityManagerFactoryDependsOnMigration()
+        {
+            super("geoCoordinateColumnMigration");
+        }
+    }
+
+    /**
+     * Only resolves {@link Point}, so a tampered blob can not instantiate anything else.
+     */
+    private static class PointInputStream extends ObjectInputStream
+    {
+
+        PointInputStream(InputStream in) throws IOException
+        {
+            super(in);
+        }
+
+
+        @Override
+        protected Class<?> resolveClass(ObjectStreamClass desc) throws IOException, ClassNotFoundException
+        {
+            if (!Point.class.getName().equals(desc.getName()))
+            {
+                throw new InvalidClassException(desc.getName(), "not a serialized coordinate");
+            }
+            return super.resolveClass(desc);
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package org.poc.dataaccessobject;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.util.Arrays;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.stereotype.Component;
+
+/**
+ * Creates the indexes of the driver and car access paths on databases whose schema is not generated by Hibernate.
+ * <p/>
+ * <ul>
+ * <li><code>idx_driver_online_status</code> serves the driver listing by online state in id order.</li>
+ * <li><code>idx_car_driver</code> serves loading the car of a driver and {@link DriverRepository#findByCar}.</li>
+ * <li><code>idx_car_manufacturer</code> serves exact manufacturer lookups.</li>
+ * </ul>
+ * The CONTAINING matches of the search (<code>lower(column) like '%term%'</code>) can only use an index on PostgreSQL,
+ * where trigram GIN indexes over the lower-cased search columns are created as well. A trigram statement that fails,
+ * e.g. because the user may not create the extension, is logged and the search keeps working without that index.
+ * Every statement can be repeated, tables that do not exist yet are skipped.
+ * <p/>
+ * Disabled with <code>driver.search.migration.enabled=false</code> where the schema is provisioned outside of the
+ * application, as in the prod profile.
+ */
+@Component
+@ConditionalOnProperty(name = "driver.search.migration.enabled", havingValue = "true", matchIfMissing = true)
+public class SearchIndexMigration implements InitializingBean
+{
+
+    private static final Logger LOG = LoggerFactory.getLogger(SearchIndexMigration.class);
+
+    static final List<String> INDEXES =
+        Arrays.asList(
+            "create index if not exists idx_driver_online_status on driver (online_status, id)",
+            "create index if not exists idx_car_driver on car (driver_fk)",
+            "create index if not exists idx_car_manufacturer on car (manufacturer)");
+
+    static final List<String> TRIGRAM_INDEXES =
+        Arrays.asList(
+            "create extension if not exists pg_trgm",
+            "create index if not exists idx_driver_username_trgm on driver using gin (lower(username) gin_trgm_ops)",
+            "create index if not exists idx_car_license_plate_trgm on car using gin (lower(license_plate) gin_trgm_ops)",
+            "create index if not exists idx_car_manufacturer_trgm on car using gin (lower(manufacturer) gin_trgm_ops)");
+
+    private final JdbcTemplate jdbcTemplate;
+
+
+    public SearchIndexMigration(final JdbcTemplate jdbcTemplate)
+    {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+
+    @Override
+    public void afterPropertiesSet()
+    {
+        if (!tableExists("driver") || !tableExists("car"))
+        {
+            return;
+        }
+        INDEXES.forEach(jdbcTemplate::execute);
+        if (isPostgres())
+        {
+            createTrigramIndexes();
+        }
+        LOG.debug("Driver and car indexes in place");
+    }
+
+
+    void createTrigramIndexes()
+    {
+        for (String statement : TRIGRAM_INDEXES)
+        {
+            try
+            {
+                jdbcTemplate.execute(statement);
+            }
+            catch (DataAccessException e)
+            {
+                LOG.warn("Could not create trigram index, CONTAINING searches on its column scan the table: {}", statement, e);
+            }
+        }
+    }
+
+
+    private boolean tableExists(String table)
+    {
+        return jdbcTemplate.execute((Connection connection) -> {
+            DatabaseMetaData metaData = connection.getMetaData();
+            for (String name : new String[] {table, table.toUpperCase()})
+            {
+                ResultSet resultSet = metaData.getTables(null, null, name, null);
+                try
+                {
+                    if (resultSet.next())
+                    {
+                        return true;
+                    }
+                }
+                finally
+                {
+                    JdbcUtils.closeResultSet(resultSet);
+                }
+            }
+            return false;
+        });
+    }
+
+
+    private boolean isPostgres()
+    {
+        return jdbcTemplate.execute((Connection connection) -> connection.getMetaData().getDatabaseProductName().toLowerCase().contains("postgres"));
+    }
+}
@@ -0,0 +1,46 @@
+package org.poc.datatransferobject;
+
+public class CacheStatisticsDTO
+{
+    private long hitCount;
+    private long missCount;
+    private long evictionCount;
+    private double hitRate;
+
+
+    private CacheStatisticsDTO()
+    {}
+
+
+    public CacheStatisticsDTO(long hitCount, long missCount, long evictionCount, double hitRate)
+    {
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.evictionCount = evictionCount;
+        this.hitRate = hitRate;
+    }
+
+
+    public long getHitCount()
+    {
+        return hitCount;
+    }
+
+
+    public long getMissCount()
+    {
+        return missCount;
+    }
+
+
+    public long getEvictionCount()
+    {
+        return evictionCount;
+    }
+
+
+    public double getHitRate()
+    {
+        return hitRate;
+    }
+}
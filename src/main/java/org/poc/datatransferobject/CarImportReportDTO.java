@@ -0,0 +1,70 @@
+package org.poc.datatransferobject;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class CarImportReportDTO
+{
+    private long imported;
+    private long failed;
+    private List<LineError> errors = new ArrayList<>();
+
+
+    private CarImportReportDTO()
+    {}
+
+
+    public CarImportReportDTO(long imported, long failed, List<LineError> errors)
+    {
+        this.imported = imported;
+        this.failed = failed;
+        this.errors = errors;
+    }
+
+
+    public long getImported()
+    {
+        return imported;
+    }
+
+
+    public long getFailed()
+    {
+        return failed;
+    }
+
+
+    public List<LineError> getErrors()
+    {
+        return errors;
+    }
+
+    public static class LineError
+    {
+        private long line;
+        private String message;
+
+
+        private LineError()
+        {}
+
+
+        public LineError(long line, String message)
+        {
+            this.line = line;
+            this.message = message;
+        }
+
+
+        public long getLine()
+        {
+            return line;
+        }
+
+
+        public String getMessage()
+        {
+            return message;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package org.poc.datatransferobject;
+
+import org.poc.domainvalue.DriverEvent;
+import org.poc.domainvalue.GeoCoordinate;
+
+public class DriverEventDTO
+{
+    private DriverEvent.Type type;
+    private Long id;
+    private GeoCoordinate coordinate;
+    private Long carId;
+
+
+    private DriverEventDTO()
+    {}
+
+
+    public DriverEventDTO(DriverEvent.Type type, Long id, GeoCoordinate coordinate, Long carId)
+    {
+        this.type = type;
+        this.id = id;
+        this.coordinate = coordinate;
+        this.carId = carId;
+    }
+
+
+    public DriverEvent.Type getType()
+    {
+        return type;
+    }
+
+
+    public Long getId()
+    {
+        return id;
+    }
+
+
+    public GeoCoordinate getCoordinate()
+    {
+        return coordinate;
+    }
+
+
+    public Long getCarId()
+    {
+        return carId;
+    }
+}
@@ -0,0 +1,69 @@
+package org.poc.datatransferobject;
+
+import java.time.ZonedDateTime;
+
+import javax.validation.constraints.DecimalMax;
+import javax.validation.constraints.DecimalMin;
+import javax.validation.constraints.NotNull;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class DriverLocationDTO
+{
+    @NotNull(message = "Driver id can not be null!")
+    private Long driverId;
+
+    @NotNull(message = "Latitude can not be null!")
+    @DecimalMin("-90")
+    @DecimalMax("90")
+    private Double latitude;
+
+    @NotNull(message = "Longitude can not be null!")
+    @DecimalMin("-180")
+    @DecimalMax("180")
+    private Double longitude;
+
+    private ZonedDateTime timestamp;
+
+
+    private DriverLocationDTO()
+    {}
+
+
+    public DriverLocationDTO(Long driverId, Double latitude, Double longitude, ZonedDateTime timestamp)
+    {
+        this.driverId = driverId;
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.timestamp = timestamp;
+    }
+
+
+    public Long getDriverId()
+    {
+        return driverId;
+    }
+
+
+    public Double getLatitude()
+    {
+        return latitude;
+    }
+
+
+    public Double getLongitude()
+    {
+        return longitude;
+    }
+
+
+    /**
+     * When the position was taken, the time it is received when absent or later than that, so a skewed clock cannot
+     * hold on to a position.
+     */
+    public ZonedDateTime getTimestamp()
+    {
+        return timestamp;
+    }
+}
@@ -0,0 +1,39 @@
+package org.poc.datatransferobject;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * One keyset page of drivers. <code>next</code> is the cursor to request the following page, absent on the last page.
+ * <p/>
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class DriverPageDTO
+{
+    private List<DriverDTO> drivers;
+    private Long next;
+
+
+    private DriverPageDTO()
+    {}
+
+
+    public DriverPageDTO(List<DriverDTO> drivers, Long next)
+    {
+        this.drivers = drivers;
+        this.next = next;
+    }
+
+
+    public List<DriverDTO> getDrivers()
+    {
+        return drivers;
+    }
+
+
+    public Long getNext()
+    {
+        return next;
+    }
+}
@@ -0,0 +1,45 @@
+package org.poc.datatransferobject;
+
+import javax.validation.constraints.NotNull;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Keyset cursor of the typed driver search: the sorted value and id of the last driver of a page, to be sent back
+ * unchanged as <code>after</code> for the following page.
+ * <p/>
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class DriverSearchCursorDTO
+{
+    private String value;
+
+    @NotNull(message = "Cursor id can not be null!")
+    private Long id;
+
+
+    private DriverSearchCursorDTO()
+    {}
+
+
+    public DriverSearchCursorDTO(String value, Long id)
+    {
+        this.value = value;
+        this.id = id;
+    }
+
+
+    /**
+     * The sorted value of the driver, absent if it has none or the drivers are ordered by id.
+     */
+    public String getValue()
+    {
+        return value;
+    }
+
+
+    public Long getId()
+    {
+        return id;
+    }
+}
@@ -0,0 +1,141 @@
+package org.poc.datatransferobject;
+
+import java.util.List;
+
+import javax.validation.Valid;
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+
+import org.poc.domainobject.CarDO;
+import org.poc.domainvalue.DriverSearchCriteria;
+import org.poc.domainvalue.OnlineStatus;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Typed driver search, every absent attribute is ignored. Strings match with CONTAINING ignoring case, lists by any of
+ * their values and <code>min</code>/<code>max</code> inclusively, either may be left out.
+ * <p/>
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class DriverSearchDTO
+{
+    public static final int DEFAULT_LIMIT = 100;
+
+    private String username;
+    private List<OnlineStatus> onlineStatus;
+    private String licensePlate;
+    private String manufacturer;
+    private Boolean convertible;
+    private List<CarDO.EngineType> engineType;
+    private Float minRating;
+    private Float maxRating;
+    private Short minSeatCount;
+    private Short maxSeatCount;
+    private DriverSearchCriteria.Sort sort;
+    private boolean descending;
+
+    @Valid
+    private DriverSearchCursorDTO after;
+
+    @Min(1)
+    @Max(1000)
+    private Integer limit;
+
+
+    private DriverSearchDTO()
+    {}
+
+
+    public String getUsername()
+    {
+        return username;
+    }
+
+
+    public List<OnlineStatus> getOnlineStatus()
+    {
+        return onlineStatus;
+    }
+
+
+    public String getLicensePlate()
+    {
+        return licensePlate;
+    }
+
+
+    public String getManufacturer()
+    {
+        return manufacturer;
+    }
+
+
+    public Boolean getConvertible()
+    {
+        return convertible;
+    }
+
+
+    public List<CarDO.EngineType> getEngineType()
+    {
+        return engineType;
+    }
+
+
+    public Float getMinRating()
+    {
+        return minRating;
+    }
+
+
+    public Float getMaxRating()
+    {
+        return maxRating;
+    }
+
+
+    public Short getMinSeatCount()
+    {
+        return minSeatCount;
+    }
+
+
+    public Short getMaxSeatCount()
+    {
+        return maxSeatCount;
+    }
+
+
+    /**
+     * The order of the drivers, by driver id when absent.
+     */
+    public DriverSearchCriteria.Sort getSort()
+    {
+        return sort;
+    }
+
+
+    public boolean isDescending()
+    {
+        return descending;
+    }
+
+
+    /**
+     * The <code>next</code> cursor of the previous page with the same criteria, absent for the first page.
+     */
+    public DriverSearchCursorDTO getAfter()
+    {
+        return after;
+    }
+
+
+    /**
+     * The most drivers returned, {@value #DEFAULT_LIMIT} when absent.
+     */
+    public Integer getLimit()
+    {
+        return limit;
+    }
+}
@@ -0,0 +1,40 @@
+package org.poc.datatransferobject;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * One keyset page of the typed driver search. <code>next</code> is the cursor to request the following page, absent on
+ * the last page.
+ * <p/>
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class DriverSearchPageDTO
+{
+    private List<DriverDTO> drivers;
+    private DriverSearchCursorDTO next;
+
+
+    private DriverSearchPageDTO()
+    {}
+
+
+    public DriverSearchPageDTO(List<DriverDTO> drivers, DriverSearchCursorDTO next)
+    {
+        this.drivers = drivers;
+        this.next = next;
+    }
+
+
+    public List<DriverDTO> getDrivers()
+    {
+        return drivers;
+    }
+
+
+    public DriverSearchCursorDTO getNext()
+    {
+        return next;
+    }
+}
@@ -0,0 +1,40 @@
+package org.poc.datatransferobject;
+
+import org.poc.domainvalue.GeoCoordinate;
+
+public class NearbyDriverDTO
+{
+    private Long id;
+    private GeoCoordinate coordinate;
+    private double distanceKm;
+
+
+    private NearbyDriverDTO()
+    {}
+
+
+    public NearbyDriverDTO(Long id, GeoCoordinate coordinate, double distanceKm)
+    {
+        this.id = id;
+        this.coordinate = coordinate;
+        this.distanceKm = distanceKm;
+    }
+
+
+    public Long getId()
+    {
+        return id;
+    }
+
+
+    public GeoCoordinate getCoordinate()
+    {
+        return coordinate;
+    }
+
+
+    public double getDistanceKm()
+    {
+        return distanceKm;
+    }
+}
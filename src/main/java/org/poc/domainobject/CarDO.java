@@ -6,16 +6,18 @@ import javax.persistence.*;
 import javax.validation.constraints.Min;
 import javax.validation.constraints.NotNull;
 import java.time.ZonedDateTime;
-import java.util.Objects;
 
 @Entity
 @Table(
     name = "car",
-    uniqueConstraints = @UniqueConstraint(name = "uc_licenseplate", columnNames = {"licensePlate"}))
+    uniqueConstraints = @UniqueConstraint(name = "uc_licenseplate", columnNames = {"licensePlate"}),
+    indexes = {
+        @Index(name = "idx_car_driver", columnList = "driver_fk"),
+        @Index(name = "idx_car_manufacturer", columnList = "manufacturer")})
 public class CarDO
 {
     @Id
-    @SequenceGenerator(name = "carSeqGen", sequenceName = "carSeq", initialValue = 100, allocationSize = 1)
+    @SequenceGenerator(name = "carSeqGen", sequenceName = "carSeq", initialValue = 100, allocationSize = 50)
     @GeneratedValue(generator = "carSeqGen")
     private Long id;
 
@@ -35,7 +37,7 @@ public class CarDO
     @Column(nullable = false)
     private Boolean convertible;
 
-    @Column
+    @Column(columnDefinition = "real")
     private Float rating;
 
     @Enumerated(EnumType.STRING)
@@ -45,10 +47,14 @@ public class CarDO
     @Embedded
     private ManufacturerDO manufacturer;
 
-    @OneToOne(fetch = FetchType.EAGER)
+    @OneToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "driver_fk")
     private DriverDO driver;
 
+    @Version
+    @Column(nullable = false)
+    private long version;
+
 
     public CarDO()
     {}
@@ -161,30 +167,27 @@ public class CarDO
     }
 
 
+    /**
+     * Identity is the primary key: cars with the same id are equal, a car without id only equals itself. The hash is
+     * the same for every car, so it does not change when the id is assigned on persist and never touches a lazy proxy;
+     * collections of cars are to be keyed by id.
+     */
     @Override
     public boolean equals(Object o)
     {
         if (this == o)
             return true;
-        if (o == null || getClass() != o.getClass())
+        if (!(o instanceof CarDO))
             return false;
-        CarDO carDO = (CarDO) o;
-        return Objects.equals(id, carDO.id)
-            &&
-            Objects.equals(dateCreated, carDO.dateCreated) &&
-            Objects.equals(licensePlate, carDO.licensePlate) &&
-            Objects.equals(seatCount, carDO.seatCount) &&
-            Objects.equals(convertible, carDO.convertible) &&
-            Objects.equals(rating, carDO.rating) &&
-            engineType == carDO.engineType &&
-            Objects.equals(manufacturer, carDO.manufacturer);
+        Long id = getId();
+        return id != null && id.equals(((CarDO) o).getId());
     }
 
 
     @Override
     public int hashCode()
     {
-        return Objects.hash(id, dateCreated, licensePlate, seatCount, convertible, rating, engineType, manufacturer);
+        return CarDO.class.hashCode();
     }
 
     public enum EngineType
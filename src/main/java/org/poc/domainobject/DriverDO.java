@@ -12,12 +12,16 @@ import org.springframework.format.annotation.DateTimeFormat;
 @Entity
 @Table(
     name = "driver",
-    uniqueConstraints = @UniqueConstraint(name = "uc_username", columnNames = {"username"}))
+    uniqueConstraints = @UniqueConstraint(name = "uc_username", columnNames = {"username"}),
+    indexes = {
+        @Index(name = "idx_driver_coordinate", columnList = "latitude, longitude"),
+        @Index(name = "idx_driver_online_status", columnList = "onlineStatus, id")})
 public class DriverDO
 {
 
     @Id
-    @GeneratedValue
+    @SequenceGenerator(name = "driverSeqGen", sequenceName = "driverSeq", initialValue = 100, allocationSize = 50)
+    @GeneratedValue(generator = "driverSeqGen")
     private Long id;
 
     @Column(nullable = false)
@@ -126,6 +130,12 @@ public class DriverDO
     }
 
 
+    public ZonedDateTime getDateCoordinateUpdated()
+    {
+        return dateCoordinateUpdated;
+    }
+
+
     public CarDO getCar()
     {
         return car;
@@ -136,4 +146,26 @@ public class DriverDO
     {
         this.car = car;
     }
+
+
+    /**
+     * Identity is the primary key, see {@link CarDO#equals(Object)}.
+     */
+    @Override
+    public boolean equals(Object o)
+    {
+        if (this == o)
+            return true;
+        if (!(o instanceof DriverDO))
+            return false;
+        Long id = getId();
+        return id != null && id.equals(((DriverDO) o).getId());
+    }
+
+
+    @Override
+    public int hashCode()
+    {
+        return DriverDO.class.hashCode();
+    }
 }
@@ -0,0 +1,42 @@
+package org.poc.domainvalue;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Rectangle between two latitudes and two longitudes, not crossing the antimeridian.
+ */
+public class BoundingBox
+{
+    private final double minLatitude;
+    private final double minLongitude;
+    private final double maxLatitude;
+    private final double maxLongitude;
+
+
+    public BoundingBox(double minLatitude, double minLongitude, double maxLatitude, double maxLongitude)
+    {
+        Preconditions.checkArgument(minLatitude <= maxLatitude, "minLatitude is higher than maxLatitude");
+        Preconditions.checkArgument(minLongitude <= maxLongitude, "minLongitude is higher than maxLongitude");
+        this.minLatitude = minLatitude;
+        this.minLongitude = minLongitude;
+        this.maxLatitude = maxLatitude;
+        this.maxLongitude = maxLongitude;
+    }
+
+
+    /**
+     * The whole globe.
+     */
+    public static BoundingBox world()
+    {
+        return new BoundingBox(-90, -180, 90, 180);
+    }
+
+
+    public boolean contains(GeoCoordinate coordinate)
+    {
+        return coordinate != null
+            && coordinate.getLatitude() >= minLatitude && coordinate.getLatitude() <= maxLatitude
+            && coordinate.getLongitude() >= minLongitude && coordinate.getLongitude() <= maxLongitude;
+    }
+}
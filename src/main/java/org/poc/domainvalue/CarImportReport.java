@@ -0,0 +1,84 @@
+package org.poc.domainvalue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Outcome of a car import: how many cars were stored, how many lines failed and the first failures with their line.
+ */
+public class CarImportReport
+{
+    private final int maxErrors;
+    private long imported;
+    private long failed;
+    private final List<LineError> errors = new ArrayList<>();
+
+
+    /**
+     * @param maxErrors failures kept with their message, the others are only counted
+     */
+    public CarImportReport(int maxErrors)
+    {
+        this.maxErrors = maxErrors;
+    }
+
+
+    public void addImported(int count)
+    {
+        imported += count;
+    }
+
+
+    public void addError(long line, String message)
+    {
+        failed++;
+        if (errors.size() < maxErrors)
+        {
+            errors.add(new LineError(line, message));
+        }
+    }
+
+
+    public long getImported()
+    {
+        return imported;
+    }
+
+
+    public long getFailed()
+    {
+        return failed;
+    }
+
+
+    public List<LineError> getErrors()
+    {
+        return Collections.unmodifiableList(errors);
+    }
+
+    public static class LineError
+    {
+        private final long line;
+        private final String message;
+
+
+        public LineError(long line, String message)
+        {
+            this.line = line;
+            this.message = message;
+        }
+
+
+        public long getLine()
+        {
+            return line;
+        }
+
+
+        public String getMessage()
+        {
+            return message;
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package org.poc.domainvalue;
+
+import org.poc.domainobject.CarDO;
+
+/**
+ * Read-only row of the car export, built by the query itself from the car columns only, without the driver. Never
+ * managed by the persistence context.
+ */
+public class CarSummary
+{
+    private final long id;
+    private final String licensePlate;
+    private final Boolean convertible;
+    private final CarDO.EngineType engineType;
+    private final Float rating;
+    private final Short seatCount;
+    private final String manufacturer;
+
+
+    public CarSummary(
+        long id, String licensePlate, Boolean convertible, CarDO.EngineType engineType, Float rating, Short seatCount, String manufacturer)
+    {
+        this.id = id;
+        this.licensePlate = licensePlate;
+        this.convertible = convertible;
+        this.engineType = engineType;
+        this.rating = rating;
+        this.seatCount = seatCount;
+        this.manufacturer = manufacturer;
+    }
+
+
+    public long getId()
+    {
+        return id;
+    }
+
+
+    public String getLicensePlate()
+    {
+        return licensePlate;
+    }
+
+
+    public Boolean getConvertible()
+    {
+        return convertible;
+    }
+
+
+    public CarDO.EngineType getEngineType()
+    {
+        return engineType;
+    }
+
+
+    public Float getRating()
+    {
+        return rating;
+    }
+
+
+    public Short getSeatCount()
+    {
+        return seatCount;
+    }
+
+
+    public String getManufacturer()
+    {
+        return manufacturer;
+    }
+}
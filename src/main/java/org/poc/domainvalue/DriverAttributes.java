@@ -0,0 +1,151 @@
+package org.poc.domainvalue;
+
+import org.poc.domainobject.CarDO;
+import org.poc.domainobject.DriverDO;
+import org.poc.domainvalue.DriverSearchCriteria.Field;
+
+/**
+ * Searchable attribute values of one driver and its car, as {@link DriverSearchCriteria} compares them. Every attribute
+ * without value is <code>null</code>.
+ */
+public class DriverAttributes
+{
+    private final String username;
+    private final OnlineStatus onlineStatus;
+    private final String licensePlate;
+    private final String manufacturer;
+    private final Boolean convertible;
+    private final CarDO.EngineType engineType;
+    private final Float rating;
+    private final Short seatCount;
+
+
+    public DriverAttributes(
+        String username, OnlineStatus onlineStatus, String licensePlate, String manufacturer, Boolean convertible, CarDO.EngineType engineType, Float rating,
+        Short seatCount)
+    {
+        this.username = username;
+        this.onlineStatus = onlineStatus;
+        this.licensePlate = licensePlate;
+        this.manufacturer = manufacturer;
+        this.convertible = convertible;
+        this.engineType = engineType;
+        this.rating = rating;
+        this.seatCount = seatCount;
+    }
+
+
+    /**
+     * Values read right away, the entities may be detached when they are used.
+     *
+     * @param driverDO <code>null</code> if only the car is known
+     */
+    public static DriverAttributes of(DriverDO driverDO, CarDO carDO)
+    {
+        return new DriverAttributes(
+            driverDO == null ? null : driverDO.getUsername(), driverDO == null ? null : driverDO.getOnlineStatus(), carDO.getLicensePlate(),
+            carDO.getManufacturer() == null ? null : carDO.getManufacturer().getManufacturer(), carDO.getConvertible(), carDO.getEngineType(),
+            carDO.getRating(), carDO.getSeatCount());
+    }
+
+
+    /**
+     * The same driver with the attributes of another car.
+     */
+    public DriverAttributes withCar(CarDO carDO)
+    {
+        return new DriverAttributes(
+            username, onlineStatus, carDO.getLicensePlate(), carDO.getManufacturer() == null ? null : carDO.getManufacturer().getManufacturer(),
+            carDO.getConvertible(), carDO.getEngineType(), carDO.getRating(), carDO.getSeatCount());
+    }
+
+
+    /**
+     * The same driver in another online state.
+     */
+    public DriverAttributes withOnlineStatus(OnlineStatus onlineStatus)
+    {
+        if (onlineStatus == this.onlineStatus)
+        {
+            return this;
+        }
+        return new DriverAttributes(username, onlineStatus, licensePlate, manufacturer, convertible, engineType, rating, seatCount);
+    }
+
+
+    /**
+     * @return value of the field, <code>null</code> if it is not set
+     */
+    public Object get(Field field)
+    {
+        switch (field)
+        {
+            case USERNAME:
+                return username;
+            case ONLINE_STATUS:
+                return onlineStatus;
+            case LICENSE_PLATE:
+                return licensePlate;
+            case MANUFACTURER:
+                return manufacturer;
+            case CONVERTIBLE:
+                return convertible;
+            case ENGINE_TYPE:
+                return engineType;
+            case RATING:
+                return rating;
+            case SEAT_COUNT:
+                return seatCount;
+            default:
+                throw new IllegalArgumentException("Unknown field " + field);
+        }
+    }
+
+
+    public String getUsername()
+    {
+        return username;
+    }
+
+
+    public OnlineStatus getOnlineStatus()
+    {
+        return onlineStatus;
+    }
+
+
+    public String getLicensePlate()
+    {
+        return licensePlate;
+    }
+
+
+    public String getManufacturer()
+    {
+        return manufacturer;
+    }
+
+
+    public Boolean getConvertible()
+    {
+        return convertible;
+    }
+
+
+    public CarDO.EngineType getEngineType()
+    {
+        return engineType;
+    }
+
+
+    public Float getRating()
+    {
+        return rating;
+    }
+
+
+    public Short getSeatCount()
+    {
+        return seatCount;
+    }
+}
@@ -0,0 +1,66 @@
+package org.poc.domainvalue;
+
+/**
+ * A change of a driver pushed to the subscribers of driver events: a new position or a new car assignment.
+ */
+public class DriverEvent
+{
+    public enum Type
+    {
+        LOCATION, CAR
+    }
+
+    private final Type type;
+    private final long driverId;
+    private final GeoCoordinate coordinate;
+    private final Long carId;
+
+
+    private DriverEvent(Type type, long driverId, GeoCoordinate coordinate, Long carId)
+    {
+        this.type = type;
+        this.driverId = driverId;
+        this.coordinate = coordinate;
+        this.carId = carId;
+    }
+
+
+    public static DriverEvent location(long driverId, GeoCoordinate coordinate)
+    {
+        return new DriverEvent(Type.LOCATION, driverId, coordinate, null);
+    }
+
+
+    /**
+     * @param coordinate last known position of the driver, <code>null</code> if unknown
+     * @param carId      the car now driven, <code>null</code> once the driver gave back the car
+     */
+    public static DriverEvent car(long driverId, GeoCoordinate coordinate, Long carId)
+    {
+        return new DriverEvent(Type.CAR, driverId, coordinate, carId);
+    }
+
+
+    public Type getType()
+    {
+        return type;
+    }
+
+
+    public long getDriverId()
+    {
+        return driverId;
+    }
+
+
+    public GeoCoordinate getCoordinate()
+    {
+        return coordinate;
+    }
+
+
+    public Long getCarId()
+    {
+        return carId;
+    }
+}
@@ -0,0 +1,609 @@
+package org.poc.domainvalue;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Set;
+
+import org.poc.domainobject.CarDO;
+
+/**
+ * Attributes of a driver search, every <code>null</code> attribute is ignored. Strings match with CONTAINING ignoring
+ * case, online state and engine type with any of their values, <code>convertible</code> by equality and rating and
+ * seat count within an inclusive range, either end may be open; only drivers with an assigned car are found. Drivers
+ * come in {@link Sort} order, a driver without value last and drivers with the same value by id, starting after the
+ * {@link DriverSearchCursor} if there is one and cut at the limit.
+ * <p/>
+ * {@link #fields()} tells which attributes are set, searches with the same fields and order share one query plan. Equal
+ * criteria find the same drivers, whatever order or unknown keys the request had.
+ */
+public class DriverSearchCriteria
+{
+
+    /**
+     * The searchable attributes, by their name in the search request.
+     */
+    public enum Field
+    {
+        USERNAME("username"),
+        ONLINE_STATUS("onlineStatus"),
+        LICENSE_PLATE("licensePlate"),
+        MANUFACTURER("manufacturer"),
+        CONVERTIBLE("convertible"),
+        ENGINE_TYPE("engineType"),
+        RATING("rating"),
+        SEAT_COUNT("seatCount");
+
+        private final String parameter;
+
+
+        Field(String parameter)
+        {
+            this.parameter = parameter;
+        }
+
+
+        public String getParameter()
+        {
+            return parameter;
+        }
+
+
+        public int bit()
+        {
+            return 1 << ordinal();
+        }
+
+
+        public boolean in(int fields)
+        {
+            return (fields & bit()) != 0;
+        }
+    }
+
+
+    /**
+     * The orders of the found drivers, by their name in the search request.
+     */
+    public enum Sort
+    {
+        ID(null),
+        USERNAME(Field.USERNAME),
+        LICENSE_PLATE(Field.LICENSE_PLATE),
+        MANUFACTURER(Field.MANUFACTURER),
+        RATING(Field.RATING),
+        SEAT_COUNT(Field.SEAT_COUNT);
+
+        private final Field field;
+
+
+        Sort(Field field)
+        {
+            this.field = field;
+        }
+
+
+        /**
+         * @return the attribute sorted by, <code>null</code> for the driver id
+         */
+        public Field getField()
+        {
+            return field;
+        }
+    }
+
+
+    private final String username;
+    private final Set<OnlineStatus> onlineStatus;
+    private final String licensePlate;
+    private final String manufacturer;
+    private final Boolean convertible;
+    private final Set<CarDO.EngineType> engineType;
+    private final Float minRating;
+    private final Float maxRating;
+    private final Short minSeatCount;
+    private final Short maxSeatCount;
+    private final Sort sort;
+    private final boolean descending;
+    private final DriverSearchCursor after;
+    private final Integer limit;
+    private final int fields;
+
+
+    private DriverSearchCriteria(DriverSearchCriteriaBuilder builder)
+    {
+        this.username = builder.username;
+        this.onlineStatus = builder.onlineStatus;
+        this.licensePlate = builder.licensePlate;
+        this.manufacturer = builder.manufacturer;
+        this.convertible = builder.convertible;
+        this.engineType = builder.engineType;
+        this.minRating = builder.minRating;
+        this.maxRating = builder.maxRating;
+        this.minSeatCount = builder.minSeatCount;
+        this.maxSeatCount = builder.maxSeatCount;
+        this.sort = builder.sort;
+        this.descending = builder.descending;
+        this.after = builder.after;
+        this.limit = builder.limit;
+        this.fields =
+            bit(Field.USERNAME, username) | bit(Field.ONLINE_STATUS, onlineStatus) | bit(Field.LICENSE_PLATE, licensePlate)
+                | bit(Field.MANUFACTURER, manufacturer) | bit(Field.CONVERTIBLE, convertible) | bit(Field.ENGINE_TYPE, engineType)
+                | bit(Field.RATING, minRating) | bit(Field.RATING, maxRating) | bit(Field.SEAT_COUNT, minSeatCount) | bit(Field.SEAT_COUNT, maxSeatCount);
+    }
+
+
+    public static DriverSearchCriteriaBuilder newBuilder()
+    {
+        return new DriverSearchCriteriaBuilder();
+    }
+
+
+    /**
+     * The same criteria with another limit.
+     *
+     * @param limit <code>null</code> for all drivers found
+     */
+    public DriverSearchCriteria withLimit(Integer limit)
+    {
+        DriverSearchCriteriaBuilder builder = new DriverSearchCriteriaBuilder();
+        builder.username = username;
+        builder.onlineStatus = onlineStatus;
+        builder.licensePlate = licensePlate;
+        builder.manufacturer = manufacturer;
+        builder.convertible = convertible;
+        builder.engineType = engineType;
+        builder.minRating = minRating;
+        builder.maxRating = maxRating;
+        builder.minSeatCount = minSeatCount;
+        builder.maxSeatCount = maxSeatCount;
+        builder.sort = sort;
+        builder.descending = descending;
+        builder.after = after;
+        builder.limit = limit;
+        return new DriverSearchCriteria(builder);
+    }
+
+
+    /**
+     * @return bit set of the {@link Field}s that are not <code>null</code>, a range counts if either end is set
+     */
+    public int fields()
+    {
+        return fields;
+    }
+
+
+    /**
+     * Whether a driver and car with the given attribute values are found, compared the way the query compares them. A
+     * value the candidate does not set never matches a set attribute. Order, cursor and limit are not considered.
+     *
+     * @param candidate attribute values of one driver and its car
+     */
+    public boolean matches(DriverAttributes candidate)
+    {
+        return matches(candidate, false);
+    }
+
+
+    /**
+     * Like {@link #matches}, but a value the candidate does not set is unknown and could match.
+     */
+    public boolean couldMatch(DriverAttributes candidate)
+    {
+        return matches(candidate, true);
+    }
+
+
+    public String getUsername()
+    {
+        return username;
+    }
+
+
+    /**
+     * @return the accepted online states, <code>null</code> for any
+     */
+    public Set<OnlineStatus> getOnlineStatus()
+    {
+        return onlineStatus;
+    }
+
+
+    public String getLicensePlate()
+    {
+        return licensePlate;
+    }
+
+
+    public String getManufacturer()
+    {
+        return manufacturer;
+    }
+
+
+    public Boolean getConvertible()
+    {
+        return convertible;
+    }
+
+
+    /**
+     * @return the accepted engine types, <code>null</code> for any
+     */
+    public Set<CarDO.EngineType> getEngineType()
+    {
+        return engineType;
+    }
+
+
+    public Float getMinRating()
+    {
+        return minRating;
+    }
+
+
+    public Float getMaxRating()
+    {
+        return maxRating;
+    }
+
+
+    public Short getMinSeatCount()
+    {
+        return minSeatCount;
+    }
+
+
+    public Short getMaxSeatCount()
+    {
+        return maxSeatCount;
+    }
+
+
+    public Sort getSort()
+    {
+        return sort;
+    }
+
+
+    public boolean isDescending()
+    {
+        return descending;
+    }
+
+
+    /**
+     * @return the driver the search starts after, <code>null</code> to start with the first
+     */
+    public DriverSearchCursor getAfter()
+    {
+        return after;
+    }
+
+
+    /**
+     * @return the most drivers found, <code>null</code> for all
+     */
+    public Integer getLimit()
+    {
+        return limit;
+    }
+
+
+    @Override
+    public boolean equals(Object o)
+    {
+        if (this == o)
+        {
+            return true;
+        }
+        if (!(o instanceof DriverSearchCriteria))
+        {
+            return false;
+        }
+        DriverSearchCriteria that = (DriverSearchCriteria) o;
+        return fields == that.fields && Objects.equals(username, that.username) && Objects.equals(onlineStatus, that.onlineStatus)
+            && Objects.equals(licensePlate, that.licensePlate) && Objects.equals(manufacturer, that.manufacturer)
+            && Objects.equals(convertible, that.convertible) && Objects.equals(engineType, that.engineType) && Objects.equals(minRating, that.minRating)
+            && Objects.equals(maxRating, that.maxRating) && Objects.equals(minSeatCount, that.minSeatCount) && Objects.equals(maxSeatCount, that.maxSeatCount)
+            && sort == that.sort && descending == that.descending && Objects.equals(after, that.after) && Objects.equals(limit, that.limit);
+    }
+
+
+    @Override
+    public int hashCode()
+    {
+        return Objects.hash(
+            username, onlineStatus, licensePlate, manufacturer, convertible, engineType, minRating, maxRating, minSeatCount, maxSeatCount, sort, descending,
+            after, limit);
+    }
+
+
+    @Override
+    public String toString()
+    {
+        StringBuilder string = new StringBuilder("DriverSearchCriteria{");
+        append(string, Field.USERNAME, username);
+        append(string, Field.ONLINE_STATUS, onlineStatus);
+        append(string, Field.LICENSE_PLATE, licensePlate);
+        append(string, Field.MANUFACTURER, manufacturer);
+        append(string, Field.CONVERTIBLE, convertible);
+        append(string, Field.ENGINE_TYPE, engineType);
+        append(string, Field.RATING, Field.RATING.in(fields) ? range(minRating, maxRating) : null);
+        append(string, Field.SEAT_COUNT, Field.SEAT_COUNT.in(fields) ? range(minSeatCount, maxSeatCount) : null);
+        if (sort != Sort.ID || descending)
+        {
+            string.append(string.charAt(string.length() - 1) == '{' ? "" : ", ").append("sort=").append(sort).append(descending ? " desc" : "");
+        }
+        if (after != null)
+        {
+            string.append(string.charAt(string.length() - 1) == '{' ? "" : ", ").append("after=").append(after);
+        }
+        if (limit != null)
+        {
+            string.append(string.charAt(string.length() - 1) == '{' ? "" : ", ").append("limit=").append(limit);
+        }
+        return string.append('}').toString();
+    }
+
+
+    private static void append(StringBuilder string, Field field, Object value)
+    {
+        if (value != null)
+        {
+            string.append(string.charAt(string.length() - 1) == '{' ? "" : ", ").append(field.getParameter()).append('=').append(value);
+        }
+    }
+
+
+    private static String range(Object min, Object max)
+    {
+        return (min == null ? "" : min) + ".." + (max == null ? "" : max);
+    }
+
+
+    private static int bit(Field field, Object value)
+    {
+        return value == null ? 0 : field.bit();
+    }
+
+
+    private boolean matches(DriverAttributes candidate, boolean unknown)
+    {
+        return containing(username, candidate.getUsername(), unknown) && any(onlineStatus, candidate.getOnlineStatus(), unknown)
+            && containing(licensePlate, candidate.getLicensePlate(), unknown) && containing(manufacturer, candidate.getManufacturer(), unknown)
+            && equal(convertible, candidate.getConvertible(), unknown) && any(engineType, candidate.getEngineType(), unknown)
+            && within(minRating, maxRating, candidate.getRating(), unknown) && within(minSeatCount, maxSeatCount, candidate.getSeatCount(), unknown);
+    }
+
+
+    private static boolean containing(String criterion, String value, boolean unknown)
+    {
+        if (criterion == null)
+        {
+            return true;
+        }
+        return value == null ? unknown : value.toLowerCase(Locale.ROOT).contains(criterion.toLowerCase(Locale.ROOT));
+    }
+
+
+    private static boolean equal(Object criterion, Object value, boolean unknown)
+    {
+        if (criterion == null)
+        {
+            return true;
+        }
+        return value == null ? unknown : criterion.equals(value);
+    }
+
+
+    private static boolean any(Set<?> criterion, Object value, boolean unknown)
+    {
+        if (criterion == null)
+        {
+            return true;
+        }
+        return value == null ? unknown : criterion.contains(value);
+    }
+
+
+    private static <T extends Comparable<T>> boolean within(T min, T max, T value, boolean unknown)
+    {
+        if (min == null && max == null)
+        {
+            return true;
+        }
+        if (value == null)
+        {
+            return unknown;
+        }
+        return (min == null || min.compareTo(value) <= 0) && (max == null || max.compareTo(value) >= 0);
+    }
+
+
+    private static <E extends Enum<E>> Set<E> anyOf(Collection<E> values, Class<E> type)
+    {
+        if (values == null || values.isEmpty())
+        {
+            return null;
+        }
+        EnumSet<E> set = EnumSet.noneOf(type);
+        set.addAll(values);
+        return Collections.unmodifiableSet(set);
+    }
+
+
+    public static class DriverSearchCriteriaBuilder
+    {
+        private String username;
+        private Set<OnlineStatus> onlineStatus;
+        private String licensePlate;
+        private String manufacturer;
+        private Boolean convertible;
+        private Set<CarDO.EngineType> engineType;
+        private Float minRating;
+        private Float maxRating;
+        private Short minSeatCount;
+        private Short maxSeatCount;
+        private Sort sort = Sort.ID;
+        private boolean descending;
+        private DriverSearchCursor after;
+        private Integer limit;
+
+
+        public DriverSearchCriteriaBuilder setUsername(String username)
+        {
+            this.username = username;
+            return this;
+        }
+
+
+        public DriverSearchCriteriaBuilder setOnlineStatus(OnlineStatus onlineStatus)
+        {
+            return setOnlineStatus(onlineStatus == null ? null : Collections.singleton(onlineStatus));
+        }
+
+
+        /**
+         * @param onlineStatus any of them matches, <code>null</code> or empty for any online state
+         */
+        public DriverSearchCriteriaBuilder setOnlineStatus(Collection<OnlineStatus> onlineStatus)
+        {
+            this.onlineStatus = anyOf(onlineStatus, OnlineStatus.class);
+            return this;
+        }
+
+
+        public DriverSearchCriteriaBuilder setLicensePlate(String licensePlate)
+        {
+            this.licensePlate = licensePlate;
+            return this;
+        }
+
+
+        public DriverSearchCriteriaBuilder setManufacturer(String manufacturer)
+        {
+            this.manufacturer = manufacturer;
+            return this;
+        }
+
+
+        public DriverSearchCriteriaBuilder setConvertible(Boolean convertible)
+        {
+            this.convertible = convertible;
+            return this;
+        }
+
+
+        public DriverSearchCriteriaBuilder setEngineType(CarDO.EngineType engineType)
+        {
+            return setEngineType(engineType == null ? null : Collections.singleton(engineType));
+        }
+
+
+        /**
+         * @param engineType any of them matches, <code>null</code> or empty for any engine type
+         */
+        public DriverSearchCriteriaBuilder setEngineType(Collection<CarDO.EngineType> engineType)
+        {
+            this.engineType = anyOf(engineType, CarDO.EngineType.class);
+            return this;
+        }
+
+
+        /**
+         * Exactly this rating, a range of one value.
+         */
+        public DriverSearchCriteriaBuilder setRating(Float rating)
+        {
+            this.minRating = rating;
+            this.maxRating = rating;
+            return this;
+        }
+
+
+        public DriverSearchCriteriaBuilder setMinRating(Float minRating)
+        {
+            this.minRating = minRating;
+            return this;
+        }
+
+
+        public DriverSearchCriteriaBuilder setMaxRating(Float maxRating)
+        {
+            this.maxRating = maxRating;
+            return this;
+        }
+
+
+        /**
+         * Exactly this seat count, a range of one value.
+         */
+        public DriverSearchCriteriaBuilder setSeatCount(Short seatCount)
+        {
+            this.minSeatCount = seatCount;
+            this.maxSeatCount = seatCount;
+            return this;
+        }
+
+
+        public DriverSearchCriteriaBuilder setMinSeatCount(Short minSeatCount)
+        {
+            this.minSeatCount = minSeatCount;
+            return this;
+        }
+
+
+        public DriverSearchCriteriaBuilder setMaxSeatCount(Short maxSeatCount)
+        {
+            this.maxSeatCount = maxSeatCount;
+            return this;
+        }
+
+
+        /**
+         * @param sort <code>null</code> for the driver id
+         */
+        public DriverSearchCriteriaBuilder setSort(Sort sort)
+        {
+            this.sort = sort == null ? Sort.ID : sort;
+            return this;
+        }
+
+
+        public DriverSearchCriteriaBuilder setDescending(boolean descending)
+        {
+            this.descending = descending;
+            return this;
+        }
+
+
+        /**
+         * @param after cursor of the previous page in the same order, <code>null</code> for the first page
+         */
+        public DriverSearchCriteriaBuilder setAfter(DriverSearchCursor after)
+        {
+            this.after = after;
+            return this;
+        }
+
+
+        /**
+         * @param limit <code>null</code> for all drivers found
+         */
+        public DriverSearchCriteriaBuilder setLimit(Integer limit)
+        {
+            this.limit = limit;
+            return this;
+        }
+
+
+        public DriverSearchCriteria createDriverSearchCriteria()
+        {
+            return new DriverSearchCriteria(this);
+        }
+    }
+}
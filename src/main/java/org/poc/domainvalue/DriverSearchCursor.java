@@ -0,0 +1,66 @@
+package org.poc.domainvalue;
+
+import java.util.Objects;
+
+/**
+ * Position in the order of a driver search: the sorted value and id of the last driver of a page. The next page starts
+ * with the first driver ordered after it.
+ */
+public class DriverSearchCursor
+{
+    private final Comparable<?> value;
+    private final long id;
+
+
+    /**
+     * @param value sorted value of the driver, <code>null</code> if it has none or the search is ordered by id
+     * @param id    id of the driver
+     */
+    public DriverSearchCursor(Comparable<?> value, long id)
+    {
+        this.value = value;
+        this.id = id;
+    }
+
+
+    public Comparable<?> getValue()
+    {
+        return value;
+    }
+
+
+    public long getId()
+    {
+        return id;
+    }
+
+
+    @Override
+    public boolean equals(Object o)
+    {
+        if (this == o)
+        {
+            return true;
+        }
+        if (!(o instanceof DriverSearchCursor))
+        {
+            return false;
+        }
+        DriverSearchCursor that = (DriverSearchCursor) o;
+        return id == that.id && Objects.equals(value, that.value);
+    }
+
+
+    @Override
+    public int hashCode()
+    {
+        return Objects.hash(value, id);
+    }
+
+
+    @Override
+    public String toString()
+    {
+        return (value == null ? "" : value + "/") + id;
+    }
+}
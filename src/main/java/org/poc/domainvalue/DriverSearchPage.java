@@ -0,0 +1,31 @@
+package org.poc.domainvalue;
+
+import java.util.List;
+
+/**
+ * One page of a driver search and the cursor of the following page, <code>null</code> on the last page.
+ */
+public class DriverSearchPage
+{
+    private final List<DriverSummary> drivers;
+    private final DriverSearchCursor next;
+
+
+    public DriverSearchPage(List<DriverSummary> drivers, DriverSearchCursor next)
+    {
+        this.drivers = drivers;
+        this.next = next;
+    }
+
+
+    public List<DriverSummary> getDrivers()
+    {
+        return drivers;
+    }
+
+
+    public DriverSearchCursor getNext()
+    {
+        return next;
+    }
+}
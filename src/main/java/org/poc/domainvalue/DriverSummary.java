@@ -0,0 +1,77 @@
+package org.poc.domainvalue;
+
+/**
+ * Read-only row of the driver listings, built by the query itself from the columns the response needs. Never managed by
+ * the persistence context.
+ */
+public class DriverSummary
+{
+    private final long id;
+    private final String username;
+    private final String password;
+    private final OnlineStatus onlineStatus;
+    private final GeoCoordinate coordinate;
+    private final Long carId;
+
+
+    public DriverSummary(long id, String username, String password, OnlineStatus onlineStatus, Double latitude, Double longitude, Long carId)
+    {
+        this.id = id;
+        this.username = username;
+        this.password = password;
+        this.onlineStatus = onlineStatus;
+        this.coordinate = latitude == null || longitude == null ? null : new GeoCoordinate(latitude, longitude);
+        this.carId = carId;
+    }
+
+
+    /**
+     * The same driver in another online state, for overlaying the in-memory state on a row read from the database.
+     */
+    public DriverSummary withOnlineStatus(OnlineStatus onlineStatus)
+    {
+        if (onlineStatus == this.onlineStatus)
+        {
+            return this;
+        }
+        return new DriverSummary(
+            id, username, password, onlineStatus, coordinate == null ? null : coordinate.getLatitude(), coordinate == null ? null : coordinate.getLongitude(),
+            carId);
+    }
+
+
+    public long getId()
+    {
+        return id;
+    }
+
+
+    public String getUsername()
+    {
+        return username;
+    }
+
+
+    public String getPassword()
+    {
+        return password;
+    }
+
+
+    public OnlineStatus getOnlineStatus()
+    {
+        return onlineStatus;
+    }
+
+
+    public GeoCoordinate getCoordinate()
+    {
+        return coordinate;
+    }
+
+
+    public Long getCarId()
+    {
+        return carId;
+    }
+}
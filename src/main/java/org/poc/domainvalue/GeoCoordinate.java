@@ -17,13 +17,16 @@ public class GeoCoordinate
     private static final int MIN_LATITUDE = -90;
     private static final int MAX_LONGITUDE = 180;
     private static final int MIN_LONGITUDE = -180;
-    @Column(name = "coordinate")
-    private final Point point;
+    @Column(name = "latitude")
+    private final double latitude;
+    @Column(name = "longitude")
+    private final double longitude;
 
 
     protected GeoCoordinate()
     {
-        this.point = null;
+        this.latitude = 0;
+        this.longitude = 0;
     }
 
 
@@ -38,28 +41,29 @@ public class GeoCoordinate
         Preconditions.checkArgument(longitude >= MIN_LONGITUDE, "longitude is lower than min_longitude: " + MIN_LONGITUDE);
         Preconditions.checkArgument(longitude <= MAX_LONGITUDE, "longitude is higher than max_longitude: " + MAX_LONGITUDE);
 
-        this.point = new Point(longitude, latitude);
+        this.latitude = latitude;
+        this.longitude = longitude;
     }
 
 
     @JsonProperty
     public double getLatitude()
     {
-        return this.point.getY();
+        return this.latitude;
     }
 
 
     @JsonIgnore
     public Point getPoint()
     {
-        return this.point;
+        return new Point(this.longitude, this.latitude);
     }
 
 
     @JsonProperty
     public double getLongitude()
     {
-        return this.point.getX();
+        return this.longitude;
     }
 
 
@@ -68,7 +72,8 @@ public class GeoCoordinate
     {
         final int prime = 31;
         int result = 1;
-        result = prime * result + ((this.point == null) ? 0 : this.point.hashCode());
+        result = prime * result + Double.hashCode(this.latitude);
+        result = prime * result + Double.hashCode(this.longitude);
         return result;
     }
 
@@ -89,25 +94,14 @@ public class GeoCoordinate
             return false;
         }
         final GeoCoordinate other = (GeoCoordinate) obj;
-        if (this.point == null)
-        {
-            if (other.point != null)
-            {
-                return false;
-            }
-        }
-        else if (!this.point.equals(other.point))
-        {
-            return false;
-        }
-        return true;
+        return Double.compare(this.latitude, other.latitude) == 0 && Double.compare(this.longitude, other.longitude) == 0;
     }
 
 
     @Override
     public String toString()
     {
-        return this.point.toString();
+        return String.format("Point [x=%f, y=%f]", this.longitude, this.latitude);
     }
 
 }
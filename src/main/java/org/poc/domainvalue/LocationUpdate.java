@@ -0,0 +1,48 @@
+package org.poc.domainvalue;
+
+import java.time.ZonedDateTime;
+
+/**
+ * A position reported by a driver at a given time.
+ */
+public class LocationUpdate
+{
+    private final long driverId;
+    private final GeoCoordinate coordinate;
+    private final ZonedDateTime timestamp;
+
+
+    public LocationUpdate(long driverId, GeoCoordinate coordinate, ZonedDateTime timestamp)
+    {
+        this.driverId = driverId;
+        this.coordinate = coordinate;
+        this.timestamp = timestamp;
+    }
+
+
+    public long getDriverId()
+    {
+        return driverId;
+    }
+
+
+    public GeoCoordinate getCoordinate()
+    {
+        return coordinate;
+    }
+
+
+    public ZonedDateTime getTimestamp()
+    {
+        return timestamp;
+    }
+
+
+    /**
+     * @return whichever of both updates was reported last, this one on ties
+     */
+    public LocationUpdate latest(LocationUpdate other)
+    {
+        return other.timestamp.isAfter(timestamp) ? other : this;
+    }
+}
@@ -0,0 +1,37 @@
+package org.poc.domainvalue;
+
+/**
+ * A driver position found by a proximity lookup, with its great-circle distance to the searched point.
+ */
+public class NearbyDriver
+{
+    private final long driverId;
+    private final GeoCoordinate coordinate;
+    private final double distanceKm;
+
+
+    public NearbyDriver(long driverId, GeoCoordinate coordinate, double distanceKm)
+    {
+        this.driverId = driverId;
+        this.coordinate = coordinate;
+        this.distanceKm = distanceKm;
+    }
+
+
+    public long getDriverId()
+    {
+        return driverId;
+    }
+
+
+    public GeoCoordinate getCoordinate()
+    {
+        return coordinate;
+    }
+
+
+    public double getDistanceKm()
+    {
+        return distanceKm;
+    }
+}
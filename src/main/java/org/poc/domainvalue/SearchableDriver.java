@@ -0,0 +1,74 @@
+package org.poc.domainvalue;
+
+import org.poc.domainobject.CarDO;
+import org.poc.domainobject.DriverDO;
+
+/**
+ * A driver with its assigned car as the driver search sees it, built by the query itself or from the entities of a
+ * write. Never managed by the persistence context.
+ */
+public class SearchableDriver
+{
+    private final long driverId;
+    private final long carId;
+    private final DriverAttributes attributes;
+
+
+    public SearchableDriver(
+        long driverId, String username, OnlineStatus onlineStatus, long carId, String licensePlate, String manufacturer, Boolean convertible,
+        CarDO.EngineType engineType, Float rating, Short seatCount)
+    {
+        this(driverId, carId, new DriverAttributes(username, onlineStatus, licensePlate, manufacturer, convertible, engineType, rating, seatCount));
+    }
+
+
+    private SearchableDriver(long driverId, long carId, DriverAttributes attributes)
+    {
+        this.driverId = driverId;
+        this.carId = carId;
+        this.attributes = attributes;
+    }
+
+
+    public static SearchableDriver of(DriverDO driverDO, CarDO carDO)
+    {
+        return new SearchableDriver(driverDO.getId(), carDO.getId(), DriverAttributes.of(driverDO, carDO));
+    }
+
+
+    /**
+     * The same driver with the attributes of its car changed.
+     */
+    public SearchableDriver withCar(CarDO carDO)
+    {
+        return new SearchableDriver(driverId, carId, attributes.withCar(carDO));
+    }
+
+
+    /**
+     * The same driver in another online state.
+     */
+    public SearchableDriver withOnlineStatus(OnlineStatus onlineStatus)
+    {
+        DriverAttributes changed = attributes.withOnlineStatus(onlineStatus);
+        return changed == attributes ? this : new SearchableDriver(driverId, carId, changed);
+    }
+
+
+    public long getDriverId()
+    {
+        return driverId;
+    }
+
+
+    public long getCarId()
+    {
+        return carId;
+    }
+
+
+    public DriverAttributes getAttributes()
+    {
+        return attributes;
+    }
+}
@@ -0,0 +1,14 @@
+package org.poc.exception;
+
+public class EndpointOverloadedException extends RuntimeException
+{
+
+    private static final long serialVersionUID = -2466415096409536313L;
+
+
+    public EndpointOverloadedException(final String message)
+    {
+        super(message);
+    }
+
+}
@@ -1,5 +1,7 @@
 package org.poc.exception;
 
+import javax.validation.ConstraintViolationException;
+
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
@@ -34,6 +36,20 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler
     }
 
 
+    @ExceptionHandler({SubscriberLimitExceededException.class, EndpointOverloadedException.class})
+    protected ResponseEntity<String> handleServiceUnavailable(RuntimeException exception)
+    {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(exception.getMessage());
+    }
+
+
+    @ExceptionHandler({InvalidCoordinateException.class, ConstraintViolationException.class, InvalidCursorException.class})
+    protected ResponseEntity<String> handleBadRequest(RuntimeException exception)
+    {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(exception.getMessage());
+    }
+
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<Object> globalExceptionHandler(Exception ex, WebRequest request) throws Exception
     {
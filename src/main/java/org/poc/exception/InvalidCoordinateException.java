@@ -0,0 +1,13 @@
+package org.poc.exception;
+
+public class InvalidCoordinateException extends RuntimeException
+{
+
+    private static final long serialVersionUID = -6203419587712406583L;
+
+
+    public InvalidCoordinateException(String message)
+    {
+        super(message);
+    }
+}
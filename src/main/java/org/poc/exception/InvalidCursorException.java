@@ -0,0 +1,13 @@
+package org.poc.exception;
+
+public class InvalidCursorException extends RuntimeException
+{
+
+    private static final long serialVersionUID = 4781506329817265043L;
+
+
+    public InvalidCursorException(String message)
+    {
+        super(message);
+    }
+}
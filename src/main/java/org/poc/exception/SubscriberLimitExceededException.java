@@ -0,0 +1,14 @@
+package org.poc.exception;
+
+public class SubscriberLimitExceededException extends RuntimeException
+{
+
+    private static final long serialVersionUID = 3184216627781460952L;
+
+
+    public SubscriberLimitExceededException(final String message)
+    {
+        super(message);
+    }
+
+}
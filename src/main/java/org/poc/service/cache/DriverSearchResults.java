@@ -0,0 +1,217 @@
+package org.poc.service.cache;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.stream.LongStream;
+
+import org.poc.domainobject.CarDO;
+import org.poc.domainobject.DriverDO;
+import org.poc.domainvalue.DriverAttributes;
+import org.poc.domainvalue.DriverSearchCriteria;
+import org.poc.domainvalue.DriverSummary;
+import org.poc.domainvalue.OnlineStatus;
+import org.poc.util.Transactions;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Results of the driver search by {@link DriverSearchCriteria}, kept for <code>driver.search.cache.ttl</code>
+ * milliseconds and at most <code>driver.search.cache.maximum-size</code> searches.
+ * <p/>
+ * Writes drop only the results they could change: those listing the changed driver or car and those whose criteria the
+ * new state matches; that holds for limited results too, a driver neither listed nor matching cannot move into them.
+ * Inside a transaction this happens after commit. A search that was running while results were dropped is not kept, it
+ * may have read the state from before the write. Positions stored by the batched location ingestion do not drop
+ * anything, so coordinates in a cached result may lag behind by up to the ttl. Hits and misses are published as
+ * <code>cache_*</code> metrics named {@value #NAME}.
+ */
+@Component
+public class DriverSearchResults implements MeterBinder
+{
+
+    public static final String NAME = "driverSearches";
+
+    private final Cache<DriverSearchCriteria, Result> results;
+    private final AtomicLong generation = new AtomicLong();
+
+
+    public DriverSearchResults(
+        @Value("${driver.search.cache.ttl:5000}") final long ttlMillis, @Value("${driver.search.cache.maximum-size:1000}") final long maximumSize)
+    {
+        this.results = Caffeine.newBuilder().expireAfterWrite(ttlMillis, TimeUnit.MILLISECONDS).maximumSize(maximumSize).recordStats().build();
+    }
+
+
+    /**
+     * @param loader runs the search on a miss
+     * @return the cached drivers for the criteria, or those of the loader
+     */
+    public List<DriverSummary> get(DriverSearchCriteria criteria, Supplier<List<DriverSummary>> loader)
+    {
+        Result result = results.getIfPresent(criteria);
+        if (result != null)
+        {
+            return result.drivers;
+        }
+        long started = generation.get();
+        List<DriverSummary> drivers = Collections.unmodifiableList(loader.get());
+        if (generation.get() == started)
+        {
+            results.put(criteria, new Result(drivers));
+        }
+        return drivers;
+    }
+
+
+    /**
+     * A driver changed something that cannot make it match other searches, e.g. its position or car was taken away, or
+     * it was deleted.
+     */
+    public void driverChanged(long driverId)
+    {
+        invalidate((criteria, result) -> result.hasDriver(driverId));
+    }
+
+
+    /**
+     * A car was created, updated or deleted; any driver it is assigned to is only known by id.
+     */
+    public void carChanged(CarDO carDO)
+    {
+        Long carId = carDO.getId();
+        Long driverId = carDO.getDriver() == null ? null : carDO.getDriver().getId();
+        DriverAttributes candidate = driverId == null ? null : DriverAttributes.of(null, carDO);
+        invalidate((criteria, result) -> (carId != null && result.hasCar(carId)) || (driverId != null && result.hasDriver(driverId))
+            || (candidate != null && criteria.couldMatch(candidate)));
+    }
+
+
+    /**
+     * A car was assigned to a driver. Taking it away only changes results that list the driver, see
+     * {@link #driverChanged}.
+     */
+    public void carAssigned(long driverId, DriverDO driverDO, CarDO carDO)
+    {
+        Long carId = carDO.getId();
+        DriverAttributes candidate = DriverAttributes.of(driverDO, carDO);
+        invalidate((criteria, result) -> result.hasDriver(driverId) || (carId != null && result.hasCar(carId)) || criteria.couldMatch(candidate));
+    }
+
+
+    /**
+     * The online state of the drivers was stored.
+     */
+    public void onlineStatusChanged(Collection<Long> driverIds, OnlineStatus onlineStatus)
+    {
+        long[] changed = sorted(driverIds.stream().mapToLong(Long::longValue));
+        invalidate(
+            (criteria, result) -> (criteria.getOnlineStatus() != null && criteria.getOnlineStatus().contains(onlineStatus)) || result.hasAnyDriver(changed));
+    }
+
+
+    public void clear()
+    {
+        generation.incrementAndGet();
+        results.invalidateAll();
+    }
+
+
+    public CacheStats statistics()
+    {
+        return results.stats();
+    }
+
+
+    @Override
+    public void bindTo(MeterRegistry registry)
+    {
+        // same tag keys as the caches of the cache manager, Prometheus refuses a meter name with different keys
+        new CaffeineCacheMetrics(results, NAME, Tags.of("cacheManager", "driverSearchResults", "name", NAME)).bindTo(registry);
+    }
+
+
+    private void invalidate(StaleResult stale)
+    {
+        Transactions.afterCommit(() -> remove(stale));
+    }
+
+
+    private void remove(StaleResult stale)
+    {
+        generation.incrementAndGet();
+        results.asMap().entrySet().removeIf(entry -> stale.test(entry.getKey(), entry.getValue()));
+    }
+
+
+    private static long[] sorted(LongStream ids)
+    {
+        return ids.sorted().toArray();
+    }
+
+
+    @FunctionalInterface
+    private interface StaleResult
+    {
+        boolean test(DriverSearchCriteria criteria, Result result);
+    }
+
+
+    /**
+     * Found drivers with their driver and car ids sorted for lookups during invalidation.
+     */
+    private static final class Result
+    {
+        private final List<DriverSummary> drivers;
+        private final long[] driverIds;
+        private final long[] carIds;
+
+
+        Result(List<DriverSummary> drivers)
+        {
+            this.drivers = drivers;
+            this.driverIds = sorted(drivers.stream().mapToLong(DriverSummary::getId));
+            this.carIds = sorted(drivers.stream().filter(driver -> driver.getCarId() != null).mapToLong(DriverSummary::getCarId));
+        }
+
+
+        boolean hasDriver(long driverId)
+        {
+            return Arrays.binarySearch(driverIds, driverId) >= 0;
+        }
+
+
+        boolean hasCar(long carId)
+        {
+            return Arrays.binarySearch(carIds, carId) >= 0;
+        }
+
+
+        boolean hasAnyDriver(long[] sortedIds)
+        {
+            long[] smaller = sortedIds.length < driverIds.length ? sortedIds : driverIds;
+            long[] larger = smaller == sortedIds ? driverIds : sortedIds;
+            for (long id : smaller)
+            {
+                if (Arrays.binarySearch(larger, id) >= 0)
+                {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
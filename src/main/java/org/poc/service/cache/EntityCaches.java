@@ -0,0 +1,110 @@
+package org.poc.service.cache;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.poc.dataaccessobject.CarRepository;
+import org.poc.domainobject.CarDO;
+import org.poc.domainobject.DriverDO;
+import org.poc.util.Transactions;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+/**
+ * Eviction and statistics of the read-through caches in front of car and driver lookups.
+ * <p/>
+ * A cached car holds its driver and a cached driver its car, so changing one of them evicts both entries. The ids are
+ * read right away, the entries are evicted once the transaction has committed, otherwise a concurrent lookup could cache
+ * the old state again before the change is visible.
+ */
+@Component
+public class EntityCaches
+{
+    public static final String CARS = "cars";
+    public static final String DRIVERS = "drivers";
+
+    private final CacheManager cacheManager;
+    private final CarRepository carRepository;
+
+
+    public EntityCaches(final CacheManager cacheManager, final CarRepository carRepository)
+    {
+        this.cacheManager = cacheManager;
+        this.carRepository = carRepository;
+    }
+
+
+    public void evictCar(CarDO carDO)
+    {
+        Long carId = carDO.getId();
+        Long driverId = carDO.getDriver() == null ? null : carDO.getDriver().getId();
+        Transactions.afterCommit(() -> {
+            evict(CARS, carId);
+            evict(DRIVERS, driverId);
+        });
+    }
+
+
+    public void evictDriver(DriverDO driverDO)
+    {
+        Long driverId = driverDO.getId();
+        Long carId = driverDO.getCar() == null ? null : driverDO.getCar().getId();
+        Transactions.afterCommit(() -> {
+            evict(DRIVERS, driverId);
+            evict(CARS, carId);
+        });
+    }
+
+
+    /**
+     * Evicts drivers changed without loading them, e.g. by a JDBC batch, and the cars assigned to them.
+     */
+    public void evictDrivers(Collection<Long> driverIds)
+    {
+        List<Long> carIds = driverIds.isEmpty() ? new ArrayList<>() : carRepository.findIdsByDriverIds(driverIds);
+        Transactions.afterCommit(() -> {
+            driverIds.forEach(driverId -> evict(DRIVERS, driverId));
+            carIds.forEach(carId -> evict(CARS, carId));
+        });
+    }
+
+
+    public void clear()
+    {
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+    }
+
+
+    /**
+     * Hit, miss and eviction counters per cache since startup.
+     */
+    public Map<String, CacheStats> statistics()
+    {
+        Map<String, CacheStats> statistics = new TreeMap<>();
+        for (String name : cacheManager.getCacheNames())
+        {
+            Object nativeCache = cacheManager.getCache(name).getNativeCache();
+            if (nativeCache instanceof com.github.benmanes.caffeine.cache.Cache)
+            {
+                statistics.put(name, ((com.github.benmanes.caffeine.cache.Cache<?, ?>) nativeCache).stats());
+            }
+        }
+        return statistics;
+    }
+
+
+    private void evict(String name, Long id)
+    {
+        Cache cache = cacheManager.getCache(name);
+        if (cache != null && id != null)
+        {
+            cache.evict(id);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package org.poc.service.car;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+
+import org.poc.domainobject.CarDO;
+import org.poc.domainvalue.CarImportReport;
+import org.poc.exception.ConstraintsViolationException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Stores imported cars one chunk per transaction.
+ * <p/>
+ * Lines are read and validated one at a time and collected into chunks of {@value #IMPORT_CHUNK_SIZE} cars. A chunk is
+ * inserted at once; when one of its cars violates a constraint the chunk is rolled back and its cars are inserted one by
+ * one, so the failing cars can be reported while the others are stored.
+ */
+@Component
+public class CarImporter
+{
+
+    static final int IMPORT_CHUNK_SIZE = 500;
+    static final int MAX_IMPORT_ERRORS = 1000;
+
+    private static final Logger LOG = LoggerFactory.getLogger(CarImporter.class);
+
+    private final CarService carService;
+    private final Validator validator;
+
+
+    public CarImporter(final CarService carService, final Validator validator)
+    {
+        this.carService = carService;
+        this.validator = validator;
+    }
+
+
+    /**
+     * Imports every line as a new car without driver. Lines that can not be parsed, are invalid or violate a constraint
+     * are reported with their line number and do not stop the import.
+     *
+     * @throws IOException if the input can not be read
+     */
+    public CarImportReport importCars(CarLines lines) throws IOException
+    {
+        CarImportReport report = new CarImportReport(MAX_IMPORT_ERRORS);
+        List<CarDO> chunk = new ArrayList<>(IMPORT_CHUNK_SIZE);
+        List<Long> chunkLines = new ArrayList<>(IMPORT_CHUNK_SIZE);
+        while (lines.next())
+        {
+            try
+            {
+                CarDO carDO = lines.parse();
+                carDO.setId(null);
+                carDO.setDriver(null);
+                Set<ConstraintViolation<CarDO>> violations = validator.validate(carDO);
+                if (violations.isEmpty())
+                {
+                    chunk.add(carDO);
+                    chunkLines.add(lines.getLineNumber());
+                }
+                else
+                {
+                    report.addError(lines.getLineNumber(), violations.iterator().next().getMessage());
+                }
+            }
+            catch (IOException | IllegalArgumentException e)
+            {
+                report.addError(lines.getLineNumber(), e.getMessage());
+            }
+            if (chunk.size() == IMPORT_CHUNK_SIZE)
+            {
+                importChunk(chunk, chunkLines, report);
+            }
+        }
+        importChunk(chunk, chunkLines, report);
+        return report;
+    }
+
+
+    private void importChunk(List<CarDO> chunk, List<Long> chunkLines, CarImportReport report)
+    {
+        if (chunk.isEmpty())
+        {
+            return;
+        }
+        Map<Integer, String> failures = storeChunk(chunk);
+        failures.forEach((index, message) -> report.addError(chunkLines.get(index), message));
+        report.addImported(chunk.size() - failures.size());
+        chunk.clear();
+        chunkLines.clear();
+    }
+
+
+    /**
+     * @return error message by position in <code>cars</code> of each car that was not stored
+     */
+    private Map<Integer, String> storeChunk(List<CarDO> cars)
+    {
+        Map<Integer, String> failures = new TreeMap<>();
+        try
+        {
+            carService.createAll(cars);
+        }
+        catch (ConstraintsViolationException chunkFailure)
+        {
+            LOG.debug("Chunk of {} cars rejected, storing one by one: {}", cars.size(), chunkFailure.getMessage());
+            for (int i = 0; i < cars.size(); i++)
+            {
+                CarDO car = cars.get(i);
+                car.setId(null);
+                try
+                {
+                    carService.create(car);
+                }
+                catch (ConstraintsViolationException e)
+                {
+                    failures.put(i, e.getMessage());
+                }
+            }
+        }
+        return failures;
+    }
+}
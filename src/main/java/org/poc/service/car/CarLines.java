@@ -0,0 +1,34 @@
+package org.poc.service.car;
+
+import java.io.IOException;
+
+import org.poc.domainobject.CarDO;
+
+/**
+ * Cars of an import, one per line of the input, read forward once.
+ */
+public interface CarLines
+{
+
+    /**
+     * Moves to the next line holding a car.
+     *
+     * @return <code>false</code> at the end of the input
+     * @throws IOException if the input can not be read
+     */
+    boolean next() throws IOException;
+
+
+    /**
+     * @return number of the current line in the input, counting the lines that were skipped
+     */
+    long getLineNumber();
+
+
+    /**
+     * @return car of the current line
+     * @throws IOException              if the line is not a car
+     * @throws IllegalArgumentException if a value of the line is not valid for its attribute
+     */
+    CarDO parse() throws IOException;
+}
@@ -1,6 +1,10 @@
 package org.poc.service.car;
 
+import java.util.List;
+import java.util.function.Consumer;
+
 import org.poc.domainobject.CarDO;
+import org.poc.domainvalue.CarSummary;
 import org.poc.exception.ConstraintsViolationException;
 import org.poc.exception.EntityNotFoundException;
 
@@ -13,9 +17,15 @@ public interface CarService
     CarDO create(CarDO carDO) throws ConstraintsViolationException;
 
 
+    List<CarDO> createAll(List<CarDO> cars) throws ConstraintsViolationException;
+
+
     void delete(Long carId) throws EntityNotFoundException;
 
 
     void update(CarDO carDO) throws EntityNotFoundException;
 
+
+    void exportCars(Consumer<CarSummary> consumer);
+
 }
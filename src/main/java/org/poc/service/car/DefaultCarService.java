@@ -1,14 +1,24 @@
 package org.poc.service.car;
 
+import java.util.List;
+import java.util.function.Consumer;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import org.poc.dataaccessobject.CarRepository;
 import org.poc.domainobject.CarDO;
+import org.poc.domainvalue.CarSummary;
 import org.poc.exception.ConstraintsViolationException;
 import org.poc.exception.EntityNotFoundException;
+import org.poc.service.cache.DriverSearchResults;
+import org.poc.service.cache.EntityCaches;
+import org.poc.service.search.DriverSearchIndex;
 
 @Service
 public class DefaultCarService implements CarService
@@ -16,16 +26,27 @@ public class DefaultCarService implements CarService
 
     private static final Logger LOG = LoggerFactory.getLogger(DefaultCarService.class);
 
+    static final int EXPORT_PAGE_SIZE = 500;
+
     private final CarRepository carRepository;
+    private final EntityCaches entityCaches;
+    private final DriverSearchResults driverSearchResults;
+    private final DriverSearchIndex driverSearchIndex;
 
 
-    public DefaultCarService(final CarRepository carRepository)
+    public DefaultCarService(
+        final CarRepository carRepository, final EntityCaches entityCaches, final DriverSearchResults driverSearchResults,
+        final DriverSearchIndex driverSearchIndex)
     {
         this.carRepository = carRepository;
+        this.entityCaches = entityCaches;
+        this.driverSearchResults = driverSearchResults;
+        this.driverSearchIndex = driverSearchIndex;
     }
 
 
     @Override
+    @Cacheable(cacheNames = EntityCaches.CARS)
     public CarDO find(Long carId) throws EntityNotFoundException
     {
         return carRepository
@@ -37,20 +58,47 @@ public class DefaultCarService implements CarService
     @Override
     public CarDO create(CarDO carDO) throws ConstraintsViolationException
     {
+        CarDO created;
         try
         {
-            return carRepository.save(carDO);
+            created = carRepository.save(carDO);
         }
         catch (DataIntegrityViolationException dive)
         {
             throw new ConstraintsViolationException(
                 String.format("Car with Id '%s' already found with error: %s", carDO.getId(), dive.getMessage()));
         }
+        evictSearches(created);
+        return created;
+    }
 
+
+    /**
+     * Inserts all cars in one transaction. Ids come from the pooled sequence and the inserts are sent as JDBC batches,
+     * see <code>hibernate.jdbc.batch_size</code>.
+     *
+     * @throws ConstraintsViolationException if any car violates a constraint, no car is stored then
+     */
+    @Override
+    @Transactional
+    public List<CarDO> createAll(List<CarDO> cars) throws ConstraintsViolationException
+    {
+        try
+        {
+            List<CarDO> created = carRepository.saveAll(cars);
+            carRepository.flush();
+            created.forEach(this::evictSearches);
+            return created;
+        }
+        catch (DataIntegrityViolationException dive)
+        {
+            throw new ConstraintsViolationException(String.format("Cars could not be created with error: %s", dive.getMessage()));
+        }
     }
 
 
     @Override
+    @Transactional
     public void update(CarDO carDoInput) throws EntityNotFoundException
     {
         CarDO carDoFound =
@@ -65,10 +113,14 @@ public class DefaultCarService implements CarService
         carDoFound.setSeatCount(carDoInput.getSeatCount());
 
         carRepository.save(carDoFound);
+        entityCaches.evictCar(carDoFound);
+        driverSearchIndex.carChanged(carDoFound);
+        driverSearchResults.carChanged(carDoFound);
     }
 
 
     @Override
+    @Transactional
     public void delete(Long carId) throws EntityNotFoundException
     {
         CarDO carDoFound =
@@ -76,6 +128,39 @@ public class DefaultCarService implements CarService
                 .findById(carId)
                 .orElseThrow(() -> new EntityNotFoundException(String.format("Car with Id '%d' not found", carId)));
         carRepository.delete(carDoFound);
+        entityCaches.evictCar(carDoFound);
+        driverSearchIndex.carRemoved(carDoFound);
+        driverSearchResults.carChanged(carDoFound);
     }
 
+
+    /**
+     * Hands every car to the consumer, read in keyset pages of {@value #EXPORT_PAGE_SIZE} so only one page is held in
+     * memory at a time. The rows carry the car columns only, neither entities nor drivers are loaded.
+     */
+    @Override
+    public void exportCars(Consumer<CarSummary> consumer)
+    {
+        PageRequest page = PageRequest.of(0, EXPORT_PAGE_SIZE);
+        List<CarSummary> cars = carRepository.findSummariesByIdGreaterThan(Long.MIN_VALUE, page);
+        cars.forEach(consumer);
+        while (cars.size() == EXPORT_PAGE_SIZE)
+        {
+            cars = carRepository.findSummariesByIdGreaterThan(cars.get(cars.size() - 1).getId(), page);
+            cars.forEach(consumer);
+        }
+    }
+
+
+    /**
+     * A new car is only found by the driver search once it is assigned to a driver.
+     */
+    private void evictSearches(CarDO carDO)
+    {
+        if (carDO.getDriver() != null)
+        {
+            driverSearchIndex.carAssigned(carDO.getDriver().getId());
+            driverSearchResults.carChanged(carDO);
+        }
+    }
 }
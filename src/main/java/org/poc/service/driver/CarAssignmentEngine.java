@@ -0,0 +1,90 @@
+package org.poc.service.driver;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+
+import org.poc.exception.CarAlreadyInUseException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.google.common.util.concurrent.Striped;
+
+/**
+ * Runs car assignments one at a time per car.
+ * <p/>
+ * Inside this node assignments of the same car wait on a striped lock for at most
+ * <code>car.assignment.lock-timeout</code> milliseconds. The <code>car.assignment.stripes</code> locks are created lazily
+ * and only weakly held, so there can be enough of them that cars rarely share one. Across nodes the <code>@Version</code> of the car makes the
+ * second concurrent commit fail. Both cases end in a {@link CarAlreadyInUseException}; the database transaction only
+ * spans the assignment itself, so no row lock is held while waiting.
+ */
+@Component
+public class CarAssignmentEngine
+{
+
+    private static final Logger LOG = LoggerFactory.getLogger(CarAssignmentEngine.class);
+
+    private final Striped<Lock> locks;
+    private final TransactionTemplate transactionTemplate;
+    private final long lockTimeoutMillis;
+
+
+    public CarAssignmentEngine(
+        final PlatformTransactionManager transactionManager, @Value("${car.assignment.stripes:65536}") final int stripes,
+        @Value("${car.assignment.lock-timeout:200}") final long lockTimeoutMillis)
+    {
+        this.locks = Striped.lazyWeakLock(stripes);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.lockTimeoutMillis = lockTimeoutMillis;
+    }
+
+
+    /**
+     * Runs the assignment in its own transaction while holding the lock of the car.
+     *
+     * @throws CarAlreadyInUseException if the car is being assigned concurrently
+     */
+    public void assign(long carId, Runnable assignment) throws CarAlreadyInUseException
+    {
+        Lock lock = locks.get(carId);
+        if (!tryLock(lock))
+        {
+            throw new CarAlreadyInUseException("Car with Id '" + carId + "' is being assigned to another driver");
+        }
+        try
+        {
+            transactionTemplate.execute(status -> {
+                assignment.run();
+                return null;
+            });
+        }
+        catch (OptimisticLockingFailureException e)
+        {
+            LOG.info("Concurrent assignment of car with Id '{}': {}", carId, e.getMessage());
+            throw new CarAlreadyInUseException("Car with Id '" + carId + "' was assigned to another driver concurrently");
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+
+    private boolean tryLock(Lock lock)
+    {
+        try
+        {
+            return lock.tryLock(lockTimeoutMillis, TimeUnit.MILLISECONDS);
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -4,24 +4,50 @@ import org.poc.dataaccessobject.CarRepository;
 import org.poc.dataaccessobject.DriverRepository;
 import org.poc.domainobject.CarDO;
 import org.poc.domainobject.DriverDO;
-import org.poc.domainobject.ManufacturerDO;
+import org.poc.domainvalue.BoundingBox;
+import org.poc.domainvalue.DriverEvent;
+import org.poc.domainvalue.DriverSearchCriteria;
+import org.poc.domainvalue.DriverSearchCriteria.Field;
+import org.poc.domainvalue.DriverSearchCursor;
+import org.poc.domainvalue.DriverSearchPage;
+import org.poc.domainvalue.DriverSummary;
 import org.poc.domainvalue.GeoCoordinate;
+import org.poc.domainvalue.LocationUpdate;
+import org.poc.domainvalue.NearbyDriver;
 import org.poc.domainvalue.OnlineStatus;
+import org.poc.domainvalue.SearchableDriver;
 import org.poc.exception.AssignedDriverNotOnlineException;
 import org.poc.exception.CarAlreadyInUseException;
 import org.poc.exception.ConstraintsViolationException;
 import org.poc.exception.EntityNotFoundException;
+import org.poc.service.cache.DriverSearchResults;
+import org.poc.service.cache.EntityCaches;
+import org.poc.service.location.DriverEventBroadcaster;
+import org.poc.service.location.DriverLocationIndex;
+import org.poc.service.location.LocationIngestionQueue;
+import org.poc.service.presence.DriverPresenceRegistry;
+import org.poc.service.search.DriverSearchIndex;
+import org.poc.util.Transactions;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.dao.DataIntegrityViolationException;
-import org.springframework.data.domain.Example;
-import org.springframework.data.domain.ExampleMatcher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.google.common.collect.Lists;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 /**
@@ -34,14 +60,38 @@ public class DefaultDriverService implements DriverService
 
     private static final Logger LOG = LoggerFactory.getLogger(DefaultDriverService.class);
 
+    static final int MAX_PAGE_SIZE = 1000;
+    static final int MAX_NEARBY_DRIVERS = 100;
+    static final int STREAM_CHUNK_SIZE = 500;
+
     private final DriverRepository driverRepository;
     private final CarRepository carRepository;
-
-
-    public DefaultDriverService(DriverRepository driverRepository, CarRepository carRepository)
+    private final DriverLocationIndex driverLocationIndex;
+    private final LocationIngestionQueue locationIngestionQueue;
+    private final EntityCaches entityCaches;
+    private final CarAssignmentEngine carAssignmentEngine;
+    private final DriverEventBroadcaster driverEventBroadcaster;
+    private final DriverPresenceRegistry driverPresenceRegistry;
+    private final DriverSearchResults driverSearchResults;
+    private final DriverSearchIndex driverSearchIndex;
+
+
+    public DefaultDriverService(
+        DriverRepository driverRepository, CarRepository carRepository, DriverLocationIndex driverLocationIndex,
+        LocationIngestionQueue locationIngestionQueue, EntityCaches entityCaches, CarAssignmentEngine carAssignmentEngine,
+        DriverEventBroadcaster driverEventBroadcaster, DriverPresenceRegistry driverPresenceRegistry, DriverSearchResults driverSearchResults,
+        DriverSearchIndex driverSearchIndex)
     {
         this.driverRepository = driverRepository;
         this.carRepository = carRepository;
+        this.driverLocationIndex = driverLocationIndex;
+        this.locationIngestionQueue = locationIngestionQueue;
+        this.entityCaches = entityCaches;
+        this.carAssignmentEngine = carAssignmentEngine;
+        this.driverEventBroadcaster = driverEventBroadcaster;
+        this.driverPresenceRegistry = driverPresenceRegistry;
+        this.driverSearchResults = driverSearchResults;
+        this.driverSearchIndex = driverSearchIndex;
     }
 
 
@@ -53,6 +103,7 @@ public class DefaultDriverService implements DriverService
      * @throws EntityNotFoundException if no driver with the given id was found.
      */
     @Override
+    @Cacheable(cacheNames = EntityCaches.DRIVERS)
     public DriverDO find(Long driverId) throws EntityNotFoundException
     {
         return findDriver(driverId);
@@ -60,7 +111,7 @@ public class DefaultDriverService implements DriverService
 
 
     /**
-     * Creates a new driver.
+     * Creates a new driver. It has no car yet, so no cached search result can contain it.
      *
      * @param driverDO
      * @return
@@ -79,6 +130,7 @@ public class DefaultDriverService implements DriverService
             LOG.warn("ConstraintsViolationException while creating a driver: {}", driverDO, e);
             throw new ConstraintsViolationException(e.getMessage());
         }
+        Transactions.afterCommit(() -> driverPresenceRegistry.register(driver.getId(), driver.getOnlineStatus()));
         return driver;
     }
 
@@ -95,6 +147,11 @@ public class DefaultDriverService implements DriverService
     {
         DriverDO driverDO = findDriver(driverId);
         driverDO.setDeleted(true);
+        Transactions.afterCommit(() -> driverLocationIndex.remove(driverId));
+        Transactions.afterCommit(() -> driverPresenceRegistry.remove(driverId));
+        entityCaches.evictDriver(driverDO);
+        driverSearchIndex.driverRemoved(driverId);
+        driverSearchResults.driverChanged(driverId);
     }
 
 
@@ -111,24 +168,124 @@ public class DefaultDriverService implements DriverService
     public void updateLocation(long driverId, double longitude, double latitude) throws EntityNotFoundException
     {
         DriverDO driverDO = findDriver(driverId);
-        driverDO.setCoordinate(new GeoCoordinate(latitude, longitude));
+        GeoCoordinate coordinate = new GeoCoordinate(latitude, longitude);
+        driverDO.setCoordinate(coordinate);
+        entityCaches.evictDriver(driverDO);
+        driverSearchResults.driverChanged(driverId);
+        boolean online = onlineStatus(driverId, driverDO) == OnlineStatus.ONLINE && !driverDO.getDeleted();
+        Instant reportedAt = driverDO.getDateCoordinateUpdated().toInstant();
+        Transactions.afterCommit(() -> driverLocationIndex.update(driverId, coordinate, reportedAt, online));
+        driverEventBroadcaster.publish(DriverEvent.location(driverId, coordinate));
+    }
+
+
+    /**
+     * Keeps a driver ONLINE, see {@link DriverPresenceRegistry}.
+     *
+     * @param driverId
+     * @throws EntityNotFoundException if no driver with the given id was found or it is deleted.
+     */
+    @Override
+    public void heartbeat(long driverId) throws EntityNotFoundException
+    {
+        if (!driverPresenceRegistry.heartbeat(driverId))
+        {
+            // created after the registry was loaded, by another instance
+            DriverDO driverDO = findDriver(driverId);
+            if (driverDO.getDeleted())
+            {
+                throw new EntityNotFoundException("Could not find driver with id: " + driverId);
+            }
+            driverPresenceRegistry.register(driverId, driverDO.getOnlineStatus());
+            driverPresenceRegistry.heartbeat(driverId);
+        }
+    }
+
+
+    /**
+     * Find one page of drivers by online state, using the driver id as keyset cursor. Which drivers are in the state is
+     * answered by the {@link DriverPresenceRegistry}, the database is only asked for their columns by primary key.
+     *
+     * @param onlineStatus
+     * @param afterId      cursor returned by the previous page, <code>null</code> for the first page
+     * @param limit        page size, bounded to [1, {@value #MAX_PAGE_SIZE}]
+     */
+    @Override
+    public Slice<DriverSummary> find(OnlineStatus onlineStatus, Long afterId, int limit)
+    {
+        int pageSize = Math.min(Math.max(limit, 1), MAX_PAGE_SIZE);
+        List<Long> driverIds = driverPresenceRegistry.ids(onlineStatus, afterId == null ? Long.MIN_VALUE : afterId, pageSize + 1);
+        boolean hasNext = driverIds.size() > pageSize;
+        List<DriverSummary> drivers = findSummaries(hasNext ? driverIds.subList(0, pageSize) : driverIds, onlineStatus);
+        return new SliceImpl<>(drivers, PageRequest.of(0, pageSize), hasNext);
     }
 
 
     /**
-     * Find all drivers by online state.
+     * Hand every driver by online state to the consumer, read in chunks of {@value #STREAM_CHUNK_SIZE} by primary key
+     * so no connection is held while the consumer writes.
      *
      * @param onlineStatus
+     * @param consumer
      */
     @Override
-    public List<DriverDO> find(OnlineStatus onlineStatus)
+    public void streamDrivers(OnlineStatus onlineStatus, Consumer<DriverSummary> consumer)
     {
-        return driverRepository.findByOnlineStatus(onlineStatus);
+        long afterId = Long.MIN_VALUE;
+        List<Long> driverIds;
+        do
+        {
+            driverIds = driverPresenceRegistry.ids(onlineStatus, afterId, STREAM_CHUNK_SIZE);
+            findSummaries(driverIds, onlineStatus).forEach(consumer);
+            afterId = driverIds.isEmpty() ? afterId : driverIds.get(driverIds.size() - 1);
+        }
+        while (driverIds.size() == STREAM_CHUNK_SIZE);
     }
 
 
     /**
-     * Assign driver to a car
+     * Find the ONLINE drivers closest to a point, answered by the in-memory location index.
+     *
+     * @param latitude
+     * @param longitude
+     * @param radiusKm
+     * @param limit     maximum number of drivers, bounded to [1, {@value #MAX_NEARBY_DRIVERS}]
+     * @return drivers ordered by distance, closest first
+     */
+    @Override
+    public List<NearbyDriver> findNearby(double latitude, double longitude, double radiusKm, int limit)
+    {
+        return driverLocationIndex.nearest(latitude, longitude, radiusKm, Math.min(Math.max(limit, 1), MAX_NEARBY_DRIVERS));
+    }
+
+
+    /**
+     * Queue driver positions for the next batched write, only the latest position per driver is stored.
+     *
+     * @param updates
+     */
+    @Override
+    public void ingestLocations(List<LocationUpdate> updates)
+    {
+        updates.forEach(locationIngestionQueue::offer);
+    }
+
+
+    /**
+     * Subscribe to position and car changes of the drivers inside a bounding box.
+     *
+     * @param box
+     * @param sink receives coalesced batches of events, close the subscription to stop them
+     */
+    @Override
+    public DriverEventBroadcaster.Subscription subscribeEvents(BoundingBox box, Consumer<List<DriverEvent>> sink)
+    {
+        return driverEventBroadcaster.subscribe(box, sink);
+    }
+
+
+    /**
+     * Assign driver to a car, serialized per car by the {@link CarAssignmentEngine}.
      *
      * @param driverId
      * @param carId
@@ -139,38 +296,49 @@ public class DefaultDriverService implements DriverService
     @Override
     public void selectCarByDriver(Long driverId, Long carId) throws EntityNotFoundException, CarAlreadyInUseException, AssignedDriverNotOnlineException
     {
-        DriverDO driverDO = findDriver(driverId);
-        CarDO carDO = findCar(carId);
-        assert driverDO != null && carDO != null;
-        if (driverDO.getOnlineStatus() != OnlineStatus.ONLINE)
-        {
-            throw new AssignedDriverNotOnlineException("Driver '" + driverId + "' not ONLINE");
-        }
-
-        DriverDO driverWithCar = driverRepository.findByCar(carDO);
-        if (driverWithCar != null && !driverDO.equals(driverWithCar))
-        {
-            throw new CarAlreadyInUseException("Car with Id '" + carDO.getId() + "' is already assigned to driver " + driverWithCar.getId());
-        }
-        if (driverDO.equals(driverWithCar))
-        {
-            LOG.info("No modification: Car with Id '" + carDO.getId() + "' is already assigned to driver " + driverWithCar.getId());
-        }
-        carDO.setDriver(driverDO);
-        carRepository.save(carDO);
+        carAssignmentEngine.assign(carId, () -> {
+            DriverDO driverDO = findDriver(driverId);
+            CarDO carDO = findCar(carId);
+            assert driverDO != null && carDO != null;
+            if (onlineStatus(driverId, driverDO) != OnlineStatus.ONLINE)
+            {
+                throw new AssignedDriverNotOnlineException("Driver '" + driverId + "' not ONLINE");
+            }
+
+            DriverDO driverWithCar = driverRepository.findByCar(carDO);
+            Long driverIdWithCar = driverWithCar == null ? null : driverWithCar.getId();
+            if (driverIdWithCar != null && !driverIdWithCar.equals(driverId))
+            {
+                throw new CarAlreadyInUseException("Car with Id '" + carDO.getId() + "' is already assigned to driver " + driverIdWithCar);
+            }
+            if (driverIdWithCar != null)
+            {
+                LOG.info("No modification: Car with Id '" + carDO.getId() + "' is already assigned to driver " + driverIdWithCar);
+            }
+            entityCaches.evictDriver(driverDO);
+            entityCaches.evictCar(carDO);
+            carDO.setDriver(driverDO);
+            carRepository.save(carDO);
+            driverSearchIndex.carAssigned(driverDO, carDO);
+            driverSearchResults.carAssigned(driverId, driverDO, carDO);
+            driverEventBroadcaster.publish(DriverEvent.car(driverId, driverDO.getCoordinate(), carId));
+        });
     }
 
 
     /**
-     * Remove car assignation of a driver
+     * Remove car assignation of a driver. The car owns the assignment, so it has to be changed while managed, i.e.
+     * inside the transaction.
      *
      * @param driverId
      * @throws EntityNotFoundException
      */
     @Override
+    @Transactional
     public void deselectCarByDriver(Long driverId) throws EntityNotFoundException
     {
         DriverDO driver = findDriver(driverId);
+        entityCaches.evictDriver(driver);
         CarDO carDO = driver.getCar();
         if (carDO != null)
         {
@@ -179,45 +347,75 @@ public class DefaultDriverService implements DriverService
         }
 
         driverRepository.save(driver);
+        if (carDO != null)
+        {
+            driverSearchIndex.driverRemoved(driverId);
+            driverSearchResults.driverChanged(driverId);
+            driverEventBroadcaster.publish(DriverEvent.car(driverId, driver.getCoordinate(), null));
+        }
     }
 
 
     /**
-     * Search driver by car and driver attributes
+     * Search driver by car and driver attributes, all of them compared by equality or CONTAINING, in order of the driver
+     * id. See {@link #search(DriverSearchCriteria)}.
      *
      * @param params
      * @return
      */
     @Override
-    public List<DriverDO> searchByFieldsOfCarAndDriver(Map<String, String> params)
+    public List<DriverSummary> searchByFieldsOfCarAndDriver(Map<String, String> params)
+    {
+        return search(fromParameters(params));
+    }
+
+
+    /**
+     * Search driver by car and driver attributes. Which drivers match, in which order and up to the limit is answered by
+     * the {@link DriverSearchIndex}, the database is only asked for the columns of those drivers by primary key; with
+     * the index switched off the database resolves the whole search in a single join of driver and car. Repeated
+     * searches are answered by {@link DriverSearchResults} until a write could change their result.
+     */
+    @Override
+    public List<DriverSummary> search(DriverSearchCriteria criteria)
+    {
+        return driverSearchResults.get(
+            criteria, () -> driverSearchIndex.isEnabled() ? findSummaries(driverSearchIndex.search(criteria)) : driverRepository.findByCriteria(criteria));
+    }
+
+
+    /**
+     * One page of the {@link #search(DriverSearchCriteria)}: one driver more than the limit is searched to tell whether
+     * another page follows, its cursor is taken from the sorted value of the last driver on the page. Trailing drivers
+     * deleted or without car since the search are left out, they would not be found anymore.
+     */
+    @Override
+    public DriverSearchPage searchPage(DriverSearchCriteria criteria)
     {
-        DriverDO driverDO = fromUsernameOnlineStatus(params);
-        Example<DriverDO> exampleDriver =
-            Example
-                .of(
-                    driverDO, ExampleMatcher
-                        .matching()
-                        .withIgnoreNullValues()
-                        .withIgnorePaths("id", "dateCreated")
-                        .withIgnoreCase()
-                        .withStringMatcher(ExampleMatcher.StringMatcher.CONTAINING));
-        CarDO carDO = fromLicensePlateRatingSeatCountEngineTypeManufacture(params);
-        Example<CarDO> exampleCar =
-            Example
-                .of(
-                    carDO, ExampleMatcher
-                        .matching()
-                        .withIgnoreNullValues()
-                        .withIgnorePaths("id", "dateCreated")
-                        .withIgnoreCase()
-                        .withStringMatcher(ExampleMatcher.StringMatcher.CONTAINING));
-
-        List<DriverDO> filteredDrivers = (List<DriverDO>) driverRepository.findAll(exampleDriver);
-        List<CarDO> filteredCars = (List<CarDO>) carRepository.findAll(exampleCar);
-        List<DriverDO> filteredDriversAssignedToCars = filteredCars.stream().map(CarDO::getDriver).filter(Objects::nonNull).collect(Collectors.toList());
-
-        //Intersecting two lists
-        return filteredDrivers.stream().filter(filteredDriversAssignedToCars::contains).collect(Collectors.toList());
+        Integer limit = criteria.getLimit();
+        List<DriverSummary> drivers = search(limit == null ? criteria : criteria.withLimit(limit + 1));
+        if (limit == null || drivers.size() <= limit)
+        {
+            return new DriverSearchPage(drivers, null);
+        }
+        Field field = criteria.getSort().getField();
+        for (int last = limit - 1; last >= 0; last--)
+        {
+            long driverId = drivers.get(last).getId();
+            Optional<SearchableDriver> driver = field == null ? Optional.empty() : findSearchable(driverId);
+            if (field == null || driver.isPresent())
+            {
+                Comparable<?> value = driver.map(found -> (Comparable<?>) found.getAttributes().get(field)).orElse(null);
+                return new DriverSearchPage(drivers.subList(0, last + 1), new DriverSearchCursor(value, driverId));
+            }
+        }
+        return new DriverSearchPage(Collections.emptyList(), criteria.getAfter());
+    }
+
+
+    private Optional<SearchableDriver> findSearchable(long driverId)
+    {
+        return driverSearchIndex.isEnabled() ? driverSearchIndex.find(driverId) : driverRepository.findSearchableById(driverId);
     }
 
 
@@ -229,36 +427,75 @@ public class DefaultDriverService implements DriverService
     }
 
 
-    private CarDO findCar(Long carId) throws EntityNotFoundException
+    private List<DriverSummary> findSummaries(List<Long> driverIds, OnlineStatus onlineStatus)
     {
-        return carRepository
-            .findById(carId)
-            .orElseThrow(() -> new EntityNotFoundException("Could not find car with id: " + carId));
+        if (driverIds.isEmpty())
+        {
+            return Collections.emptyList();
+        }
+        return driverRepository
+            .findSummariesByIdIn(driverIds)
+            .stream()
+            .map(driver -> driver.withOnlineStatus(onlineStatus))
+            .collect(Collectors.toList());
     }
 
 
-    private DriverDO fromUsernameOnlineStatus(Map<String, String> fields)
+    /**
+     * Drivers by id in the order of the ids, read in chunks of {@value #STREAM_CHUNK_SIZE}. Drivers deleted meanwhile
+     * are left out.
+     */
+    private List<DriverSummary> findSummaries(List<Long> driverIds)
     {
-        DriverDO driverDO = new DriverDO(fields.get("username"), null);
-        driverDO.setOnlineStatus(null);
-        if (fields.containsKey("onlineStatus"))
+        Map<Long, DriverSummary> driversById = new HashMap<>(driverIds.size() * 2);
+        for (List<Long> chunk : Lists.partition(driverIds, STREAM_CHUNK_SIZE))
+        {
+            driverRepository.findSummariesByIdIn(chunk).forEach(driver -> driversById.put(driver.getId(), driver));
+        }
+        List<DriverSummary> drivers = new ArrayList<>(driversById.size());
+        for (Long driverId : driverIds)
         {
-            driverDO.setOnlineStatus(OnlineStatus.valueOf(fields.get("onlineStatus")));
+            DriverSummary driver = driversById.get(driverId);
+            if (driver != null)
+            {
+                drivers.add(driver);
+            }
         }
-        driverDO.setDeleted(null);
-        return driverDO;
+        return drivers;
     }
 
 
-    private CarDO fromLicensePlateRatingSeatCountEngineTypeManufacture(Map<String, String> fields)
+    /**
+     * The state in the presence registry, which is ahead of the database until the next flush.
+     */
+    private OnlineStatus onlineStatus(long driverId, DriverDO driverDO)
     {
-        Boolean convertible = fields.containsKey("convertible") ? Boolean.valueOf(fields.get("convertible")) : null;
-        CarDO.EngineType engineType = fields.containsKey("engineType") ? CarDO.EngineType.valueOf(fields.get("engineType")) : null;
-        ManufacturerDO manufacturer = fields.containsKey("manufacturer") ? new ManufacturerDO(fields.get("manufacturer")) : null;
-        Float rating = fields.containsKey("rating") ? Float.valueOf(fields.get("rating")) : null;
-        Short seatCount = fields.containsKey("seatCount") ? Short.valueOf(fields.get("seatCount")) : null;
+        OnlineStatus onlineStatus = driverPresenceRegistry.status(driverId);
+        return onlineStatus != null ? onlineStatus : driverDO.getOnlineStatus();
+    }
+
 
-        return new CarDO(convertible, engineType, fields.get("licensePlate"), manufacturer, rating, seatCount);
+    private CarDO findCar(Long carId) throws EntityNotFoundException
+    {
+        return carRepository
+            .findById(carId)
+            .orElseThrow(() -> new EntityNotFoundException("Could not find car with id: " + carId));
+    }
+
+
+    private DriverSearchCriteria fromParameters(Map<String, String> fields)
+    {
+        return DriverSearchCriteria
+            .newBuilder()
+            .setUsername(fields.get("username"))
+            .setOnlineStatus(fields.containsKey("onlineStatus") ? OnlineStatus.valueOf(fields.get("onlineStatus")) : null)
+            .setLicensePlate(fields.get("licensePlate"))
+            .setManufacturer(fields.get("manufacturer"))
+            .setConvertible(fields.containsKey("convertible") ? Boolean.valueOf(fields.get("convertible")) : null)
+            .setEngineType(fields.containsKey("engineType") ? CarDO.EngineType.valueOf(fields.get("engineType")) : null)
+            .setRating(fields.containsKey("rating") ? Float.valueOf(fields.get("rating")) : null)
+            .setSeatCount(fields.containsKey("seatCount") ? Short.valueOf(fields.get("seatCount")) : null)
+            .createDriverSearchCriteria();
     }
 
 }
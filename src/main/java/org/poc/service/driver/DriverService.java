@@ -1,14 +1,24 @@
 package org.poc.service.driver;
 
 import org.poc.domainobject.DriverDO;
+import org.poc.domainvalue.BoundingBox;
+import org.poc.domainvalue.DriverEvent;
+import org.poc.domainvalue.DriverSearchCriteria;
+import org.poc.domainvalue.DriverSearchPage;
+import org.poc.domainvalue.DriverSummary;
+import org.poc.domainvalue.LocationUpdate;
+import org.poc.domainvalue.NearbyDriver;
 import org.poc.domainvalue.OnlineStatus;
 import org.poc.exception.AssignedDriverNotOnlineException;
 import org.poc.exception.CarAlreadyInUseException;
 import org.poc.exception.ConstraintsViolationException;
 import org.poc.exception.EntityNotFoundException;
+import org.poc.service.location.DriverEventBroadcaster;
+import org.springframework.data.domain.Slice;
 
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 public interface DriverService
 {
@@ -25,7 +35,21 @@ public interface DriverService
     void updateLocation(long driverId, double longitude, double latitude) throws EntityNotFoundException;
 
 
-    List<DriverDO> find(OnlineStatus onlineStatus);
+    void heartbeat(long driverId) throws EntityNotFoundException;
+
+
+    Slice<DriverSummary> find(OnlineStatus onlineStatus, Long afterId, int limit);
+
+
+    void streamDrivers(OnlineStatus onlineStatus, Consumer<DriverSummary> consumer);
+
+
+    List<NearbyDriver> findNearby(double latitude, double longitude, double radiusKm, int limit);
+
+    void ingestLocations(List<LocationUpdate> updates);
+
+
+    DriverEventBroadcaster.Subscription subscribeEvents(BoundingBox box, Consumer<List<DriverEvent>> sink);
 
 
     void selectCarByDriver(Long driverId, Long carId) throws EntityNotFoundException, CarAlreadyInUseException, AssignedDriverNotOnlineException;
@@ -34,5 +58,11 @@ public interface DriverService
     void deselectCarByDriver(Long driverId) throws EntityNotFoundException;
 
 
-    List<DriverDO> searchByFieldsOfCarAndDriver(Map<String, String> params);
+    List<DriverSummary> searchByFieldsOfCarAndDriver(Map<String, String> params);
+
+
+    List<DriverSummary> search(DriverSearchCriteria criteria);
+
+
+    DriverSearchPage searchPage(DriverSearchCriteria criteria);
 }
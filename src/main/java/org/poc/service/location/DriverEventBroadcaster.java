@@ -0,0 +1,213 @@
+package org.poc.service.location;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import javax.annotation.PreDestroy;
+
+import org.poc.domainvalue.BoundingBox;
+import org.poc.domainvalue.DriverEvent;
+import org.poc.exception.SubscriberLimitExceededException;
+import org.poc.util.Transactions;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Pushes driver changes to subscribers, each one only seeing the drivers inside its bounding box.
+ * <p/>
+ * Events are not queued per subscriber but coalesced: until the next delivery only the latest position and the latest
+ * car assignment per driver are kept, so a slow consumer costs at most one entry per driver in its box. Deliveries run
+ * every <code>driver.events.interval</code> milliseconds at most, one at a time per subscriber, on a small pool of
+ * <code>driver.events.threads</code> threads.
+ * <p/>
+ * A driver leaving a box is reported once with its new position, so the subscriber can take it off its map.
+ */
+@Component
+public class DriverEventBroadcaster
+{
+
+    private static final Logger LOG = LoggerFactory.getLogger(DriverEventBroadcaster.class);
+
+    private final Set<Subscription> subscriptions = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger subscriberSlots = new AtomicInteger();
+    private final ScheduledExecutorService executor;
+    private final long intervalMillis;
+    private final int maxSubscribers;
+
+
+    public DriverEventBroadcaster(
+        @Value("${driver.events.interval:250}") final long intervalMillis, @Value("${driver.events.max-subscribers:500}") final int maxSubscribers,
+        @Value("${driver.events.threads:4}") final int threads)
+    {
+        this.intervalMillis = intervalMillis;
+        this.maxSubscribers = maxSubscribers;
+        this.executor = Executors.newScheduledThreadPool(threads, new ThreadFactoryBuilder().setNameFormat("driver-events-%d").setDaemon(true).build());
+    }
+
+
+    /**
+     * @param box  area of interest
+     * @param sink receives the coalesced events, a RuntimeException ends the subscription
+     * @throws SubscriberLimitExceededException if <code>driver.events.max-subscribers</code> are already connected
+     */
+    public Subscription subscribe(BoundingBox box, Consumer<List<DriverEvent>> sink)
+    {
+        // the slot is taken before the subscription is added, so concurrent subscribes can not pass the limit together
+        if (subscriberSlots.incrementAndGet() > maxSubscribers)
+        {
+            subscriberSlots.decrementAndGet();
+            throw new SubscriberLimitExceededException("Too many driver event subscribers: " + maxSubscribers);
+        }
+        Subscription subscription = new Subscription(box, sink);
+        subscriptions.add(subscription);
+        return subscription;
+    }
+
+
+    /**
+     * Publishes an event, after the commit of the current transaction if there is one.
+     */
+    public void publish(DriverEvent event)
+    {
+        Transactions.afterCommit(() -> deliver(event));
+    }
+
+
+    public int subscriberCount()
+    {
+        return subscriptions.size();
+    }
+
+
+    @PreDestroy
+    public void shutdown()
+    {
+        executor.shutdownNow();
+    }
+
+
+    private void deliver(DriverEvent event)
+    {
+        for (Subscription subscription : subscriptions)
+        {
+            subscription.offer(event);
+        }
+    }
+
+
+    public final class Subscription implements AutoCloseable
+    {
+        private final BoundingBox box;
+        private final Consumer<List<DriverEvent>> sink;
+        private final Map<Long, DriverEvent> locations = new ConcurrentHashMap<>();
+        private final Map<Long, DriverEvent> cars = new ConcurrentHashMap<>();
+        private final Set<Long> visible = ConcurrentHashMap.newKeySet();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+
+
+        private Subscription(BoundingBox box, Consumer<List<DriverEvent>> sink)
+        {
+            this.box = box;
+            this.sink = sink;
+        }
+
+
+        @Override
+        public void close()
+        {
+            if (subscriptions.remove(this))
+            {
+                subscriberSlots.decrementAndGet();
+            }
+        }
+
+
+        void offer(DriverEvent event)
+        {
+            long driverId = event.getDriverId();
+            boolean inside = box.contains(event.getCoordinate());
+            if (event.getType() == DriverEvent.Type.LOCATION)
+            {
+                if (inside)
+                {
+                    visible.add(driverId);
+                }
+                else if (!visible.remove(driverId))
+                {
+                    return;
+                }
+                locations.put(driverId, event);
+            }
+            else
+            {
+                if (!inside && !visible.contains(driverId))
+                {
+                    return;
+                }
+                cars.put(driverId, event);
+            }
+            schedule();
+        }
+
+
+        private void schedule()
+        {
+            if (scheduled.compareAndSet(false, true))
+            {
+                executor.schedule(this::drain, intervalMillis, TimeUnit.MILLISECONDS);
+            }
+        }
+
+
+        private void drain()
+        {
+            List<DriverEvent> events = new ArrayList<>(locations.size() + cars.size());
+            take(locations, events);
+            take(cars, events);
+            try
+            {
+                if (!events.isEmpty() && subscriptions.contains(this))
+                {
+                    sink.accept(events);
+                }
+            }
+            catch (RuntimeException e)
+            {
+                LOG.debug("Driver event subscriber gone: {}", e.getMessage());
+                close();
+            }
+            // events offered while the sink was busy were only coalesced
+            scheduled.set(false);
+            if (!locations.isEmpty() || !cars.isEmpty())
+            {
+                schedule();
+            }
+        }
+
+
+        private void take(Map<Long, DriverEvent> pending, List<DriverEvent> events)
+        {
+            for (Long driverId : pending.keySet())
+            {
+                DriverEvent event = pending.remove(driverId);
+                if (event != null)
+                {
+                    events.add(event);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,270 @@
+package org.poc.service.location;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.poc.domainvalue.GeoCoordinate;
+import org.poc.domainvalue.NearbyDriver;
+import org.poc.exception.InvalidCoordinateException;
+import org.springframework.stereotype.Component;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * In-memory grid index over driver positions answering k-nearest lookups without touching the database.
+ * <p/>
+ * The last known position of every located driver is kept, with the time it was reported when known, but only ONLINE
+ * drivers are placed in the grid.
+ * The grid splits the globe in cells of {@value #CELL_DEGREES} degrees; a lookup only visits the cells overlapping the
+ * bounding box of the searched circle and keeps the closest drivers in a bounded heap.
+ */
+@Component
+public class DriverLocationIndex
+{
+
+    static final double CELL_DEGREES = 0.05;
+    static final double MAX_RADIUS_KM = 100;
+    private static final double EARTH_RADIUS_KM = 6371.0088;
+    private static final double KM_PER_DEGREE_LATITUDE = Math.PI * EARTH_RADIUS_KM / 180;
+    private static final int LONGITUDE_CELLS = (int) Math.round(360 / CELL_DEGREES);
+
+    private final ConcurrentMap<Long, Position> positions = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Long, Set<Position>> cells = new ConcurrentHashMap<>();
+
+
+    /**
+     * Sets the position of a driver, reported at an unknown time, and whether it can be found by {@link #nearest}.
+     */
+    public void update(long driverId, GeoCoordinate coordinate, boolean online)
+    {
+        update(driverId, coordinate, null, online);
+    }
+
+
+    /**
+     * Sets the position of a driver and whether it can be found by {@link #nearest}.
+     *
+     * @param reportedAt time the position was reported, <code>null</code> if unknown
+     */
+    public void update(long driverId, GeoCoordinate coordinate, Instant reportedAt, boolean online)
+    {
+        positions.compute(driverId, (id, previous) -> {
+            Position position = new Position(id, coordinate, reportedAt, online);
+            unlink(previous);
+            link(position);
+            return position;
+        });
+    }
+
+
+    /**
+     * Moves a driver already known to the index, keeping whether it is ONLINE. Unknown drivers and positions reported
+     * before the known one are ignored.
+     *
+     * @return whether the driver was moved
+     */
+    public boolean move(long driverId, GeoCoordinate coordinate, Instant reportedAt)
+    {
+        boolean[] moved = new boolean[1];
+        positions.computeIfPresent(driverId, (id, previous) -> {
+            if (previous.reportedAt != null && reportedAt.isBefore(previous.reportedAt))
+            {
+                return previous;
+            }
+            Position position = new Position(id, coordinate, reportedAt, previous.online);
+            unlink(previous);
+            link(position);
+            moved[0] = true;
+            return position;
+        });
+        return moved[0];
+    }
+
+
+    /**
+     * Adds or takes out a driver from the lookups, keeping its last known position.
+     */
+    public void setOnline(long driverId, boolean online)
+    {
+        positions.computeIfPresent(driverId, (id, previous) -> {
+            if (previous.online == online)
+            {
+                return previous;
+            }
+            Position position = new Position(id, previous.coordinate, previous.reportedAt, online);
+            unlink(previous);
+            link(position);
+            return position;
+        });
+    }
+
+
+    public void remove(long driverId)
+    {
+        positions.computeIfPresent(driverId, (id, previous) -> {
+            unlink(previous);
+            return null;
+        });
+    }
+
+
+    /**
+     * Removes every driver not in the given ids.
+     */
+    public void retain(Set<Long> driverIds)
+    {
+        positions.keySet().stream().filter(driverId -> !driverIds.contains(driverId)).forEach(this::remove);
+    }
+
+
+    public boolean contains(long driverId)
+    {
+        return positions.containsKey(driverId);
+    }
+
+
+    /**
+     * Finds the ONLINE drivers closest to a point.
+     *
+     * @param latitude  of the searched point
+     * @param longitude of the searched point
+     * @param radiusKm  maximum distance, up to {@value #MAX_RADIUS_KM} km
+     * @param limit     maximum number of drivers returned
+     * @return drivers ordered by distance, closest first
+     * @throws InvalidCoordinateException if the point or the radius is out of range
+     */
+    public List<NearbyDriver> nearest(double latitude, double longitude, double radiusKm, int limit)
+    {
+        if (!(Math.abs(latitude) <= 90 && Math.abs(longitude) <= 180))
+        {
+            throw new InvalidCoordinateException("coordinate out of range");
+        }
+        if (!(radiusKm > 0 && radiusKm <= MAX_RADIUS_KM))
+        {
+            throw new InvalidCoordinateException("radiusKm must be in (0, " + MAX_RADIUS_KM + "]");
+        }
+        Preconditions.checkArgument(limit > 0, "limit must be positive");
+
+        double latitudeSpan = radiusKm / KM_PER_DEGREE_LATITUDE;
+        double cosLatitude = Math.cos(Math.toRadians(Math.min(90, Math.abs(latitude) + latitudeSpan)));
+        double longitudeSpan = cosLatitude <= 0 ? 180 : Math.min(180, latitudeSpan / cosLatitude);
+
+        int minLatCell = latitudeCell(Math.max(-90, latitude - latitudeSpan));
+        int maxLatCell = latitudeCell(Math.min(90, latitude + latitudeSpan));
+        int minLonCell = longitudeCell(longitude - longitudeSpan);
+        int lonCells = Math.min(LONGITUDE_CELLS, longitudeCell(longitude + longitudeSpan) - minLonCell + 1);
+
+        PriorityQueue<NearbyDriver> closest = new PriorityQueue<>(limit + 1, Comparator.comparingDouble(NearbyDriver::getDistanceKm).reversed());
+        for (int latCell = minLatCell; latCell <= maxLatCell; latCell++)
+        {
+            for (int i = 0; i < lonCells; i++)
+            {
+                Set<Position> cell = cells.get(cellKey(latCell, Math.floorMod(minLonCell + i, LONGITUDE_CELLS)));
+                if (cell == null)
+                {
+                    continue;
+                }
+                for (Position position : cell)
+                {
+                    double distance = distanceKm(latitude, longitude, position.coordinate.getLatitude(), position.coordinate.getLongitude());
+                    if (distance > radiusKm)
+                    {
+                        continue;
+                    }
+                    if (closest.size() < limit)
+                    {
+                        closest.add(new NearbyDriver(position.driverId, position.coordinate, distance));
+                    }
+                    else if (distance < closest.peek().getDistanceKm())
+                    {
+                        closest.poll();
+                        closest.add(new NearbyDriver(position.driverId, position.coordinate, distance));
+                    }
+                }
+            }
+        }
+
+        List<NearbyDriver> result = new ArrayList<>(closest);
+        result.sort(Comparator.comparingDouble(NearbyDriver::getDistanceKm));
+        return Collections.unmodifiableList(result);
+    }
+
+
+    private void link(Position position)
+    {
+        if (position.online)
+        {
+            cells.computeIfAbsent(position.cell, key -> ConcurrentHashMap.newKeySet()).add(position);
+        }
+    }
+
+
+    private void unlink(Position position)
+    {
+        if (position != null && position.online)
+        {
+            cells.computeIfPresent(position.cell, (key, cell) -> {
+                cell.remove(position);
+                return cell.isEmpty() ? null : cell;
+            });
+        }
+    }
+
+
+    static double distanceKm(double latitude1, double longitude1, double latitude2, double longitude2)
+    {
+        double deltaLatitude = Math.toRadians(latitude2 - latitude1);
+        double deltaLongitude = Math.toRadians(longitude2 - longitude1);
+        double a =
+            Math.sin(deltaLatitude / 2) * Math.sin(deltaLatitude / 2)
+                + Math.cos(Math.toRadians(latitude1)) * Math.cos(Math.toRadians(latitude2)) * Math.sin(deltaLongitude / 2) * Math.sin(deltaLongitude / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+
+    private static int latitudeCell(double latitude)
+    {
+        return (int) Math.floor(latitude / CELL_DEGREES);
+    }
+
+
+    private static int longitudeCell(double longitude)
+    {
+        return (int) Math.floor(longitude / CELL_DEGREES);
+    }
+
+
+    private static long cellKey(int latCell, int lonCell)
+    {
+        return ((long) latCell << 32) | (lonCell & 0xffffffffL);
+    }
+
+    /**
+     * Immutable entry, compared by identity so a moved driver never matches its previous cell entry.
+     */
+    private static final class Position
+    {
+        private final long driverId;
+        private final GeoCoordinate coordinate;
+        private final Instant reportedAt;
+        private final boolean online;
+        private final long cell;
+
+
+        private Position(long driverId, GeoCoordinate coordinate, Instant reportedAt, boolean online)
+        {
+            this.driverId = driverId;
+            this.coordinate = coordinate;
+            this.reportedAt = reportedAt;
+            this.online = online;
+            this.cell = cellKey(latitudeCell(coordinate.getLatitude()), Math.floorMod(longitudeCell(coordinate.getLongitude()), LONGITUDE_CELLS));
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package org.poc.service.location;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.poc.dataaccessobject.DriverLocationRepository;
+import org.poc.domainvalue.OnlineStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Fills the {@link DriverLocationIndex} from the database once the context is ready and before requests are served.
+ * Drivers the database no longer has a position of are taken out, so a repeated load brings the index in line again.
+ */
+@Component
+public class DriverLocationIndexLoader
+{
+
+    private static final Logger LOG = LoggerFactory.getLogger(DriverLocationIndexLoader.class);
+
+    private final DriverLocationRepository driverLocationRepository;
+    private final DriverLocationIndex driverLocationIndex;
+
+
+    public DriverLocationIndexLoader(final DriverLocationRepository driverLocationRepository, final DriverLocationIndex driverLocationIndex)
+    {
+        this.driverLocationRepository = driverLocationRepository;
+        this.driverLocationIndex = driverLocationIndex;
+    }
+
+
+    @EventListener(ContextRefreshedEvent.class)
+    public void load()
+    {
+        Set<Long> loaded = new HashSet<>();
+        driverLocationRepository.forEachLocatedDriver((driverId, coordinate, reportedAt, onlineStatus) -> {
+            driverLocationIndex.update(driverId, coordinate, reportedAt, onlineStatus == OnlineStatus.ONLINE);
+            loaded.add(driverId);
+        });
+        driverLocationIndex.retain(loaded);
+        LOG.info("Loaded {} driver positions into the location index", loaded.size());
+    }
+}
@@ -0,0 +1,148 @@
+package org.poc.service.location;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.Collectors;
+
+import javax.annotation.PreDestroy;
+
+import org.poc.dataaccessobject.DriverLocationRepository;
+import org.poc.domainvalue.DriverEvent;
+import org.poc.domainvalue.LocationUpdate;
+import org.poc.domainvalue.OnlineStatus;
+import org.poc.service.cache.EntityCaches;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Coalesces driver position pings and writes them to the database in JDBC batches.
+ * <p/>
+ * Only the latest ping per driver is kept until the next flush, so the pending set is bounded by the number of drivers
+ * however often they report. Flushes run every <code>driver.location.flush-interval</code> milliseconds and on shutdown.
+ */
+@Component
+public class LocationIngestionQueue
+{
+
+    private static final Logger LOG = LoggerFactory.getLogger(LocationIngestionQueue.class);
+
+    private final ConcurrentMap<Long, LocationUpdate> pending = new ConcurrentHashMap<>();
+    private final DriverLocationRepository driverLocationRepository;
+    private final DriverLocationIndex driverLocationIndex;
+    private final EntityCaches entityCaches;
+    private final DriverEventBroadcaster driverEventBroadcaster;
+    private final int batchSize;
+
+
+    public LocationIngestionQueue(
+        final DriverLocationRepository driverLocationRepository, final DriverLocationIndex driverLocationIndex, final EntityCaches entityCaches,
+        final DriverEventBroadcaster driverEventBroadcaster, @Value("${driver.location.batch-size:500}") final int batchSize)
+    {
+        this.driverLocationRepository = driverLocationRepository;
+        this.driverLocationIndex = driverLocationIndex;
+        this.entityCaches = entityCaches;
+        this.driverEventBroadcaster = driverEventBroadcaster;
+        this.batchSize = batchSize;
+    }
+
+
+    /**
+     * Queues a ping, replacing any pending ping of the same driver unless that one is more recent. Pings newer than the
+     * position in the {@link DriverLocationIndex} are pushed to the driver event subscribers right away, ahead of the
+     * database write. Drivers without a position in the index are only pushed once the flush found them in the
+     * database.
+     */
+    public void offer(LocationUpdate update)
+    {
+        if (pending.merge(update.getDriverId(), update, LocationUpdate::latest) == update
+            && driverLocationIndex.move(update.getDriverId(), update.getCoordinate(), update.getTimestamp().toInstant()))
+        {
+            driverEventBroadcaster.publish(DriverEvent.location(update.getDriverId(), update.getCoordinate()));
+        }
+    }
+
+
+    public int size()
+    {
+        return pending.size();
+    }
+
+
+    @Scheduled(fixedDelayString = "${driver.location.flush-interval:1000}")
+    @PreDestroy
+    public void flush()
+    {
+        List<LocationUpdate> failed = new ArrayList<>();
+        List<LocationUpdate> batch = new ArrayList<>(Math.min(batchSize, pending.size()));
+        Iterator<Long> driverIds = pending.keySet().iterator();
+        while (driverIds.hasNext())
+        {
+            LocationUpdate update = pending.remove(driverIds.next());
+            if (update != null)
+            {
+                batch.add(update);
+            }
+            if (batch.size() == batchSize)
+            {
+                tryWrite(batch, failed);
+                batch = new ArrayList<>(batchSize);
+            }
+        }
+        if (!batch.isEmpty())
+        {
+            tryWrite(batch, failed);
+        }
+        // queued again only after the pass, which would otherwise keep meeting them while the database is away
+        failed.forEach(update -> pending.merge(update.getDriverId(), update, LocationUpdate::latest));
+    }
+
+
+    /**
+     * Writes the batch, or keeps it for the next flush if the database refuses it. A newer ping of the same driver,
+     * received meanwhile, still wins.
+     */
+    private void tryWrite(List<LocationUpdate> batch, List<LocationUpdate> failed)
+    {
+        try
+        {
+            write(batch);
+        }
+        catch (DataAccessException e)
+        {
+            LOG.warn("Flushing {} driver positions failed, retried with the next flush", batch.size(), e);
+            failed.addAll(batch);
+        }
+    }
+
+
+    private void write(List<LocationUpdate> batch)
+    {
+        int updated = driverLocationRepository.updateLocations(batch);
+        LOG.debug("Flushed {} driver positions, {} stored", batch.size(), updated);
+
+        List<Long> driverIds = batch.stream().map(LocationUpdate::getDriverId).collect(Collectors.toList());
+        entityCaches.evictDrivers(driverIds);
+
+        List<Long> untracked = driverIds.stream().filter(id -> !driverLocationIndex.contains(id)).collect(Collectors.toList());
+        if (!untracked.isEmpty())
+        {
+            Map<Long, OnlineStatus> statuses = driverLocationRepository.findOnlineStatus(untracked);
+            batch
+                .stream()
+                .filter(update -> statuses.containsKey(update.getDriverId()))
+                .forEach(update -> {
+                    boolean online = statuses.get(update.getDriverId()) == OnlineStatus.ONLINE;
+                    driverLocationIndex.update(update.getDriverId(), update.getCoordinate(), update.getTimestamp().toInstant(), online);
+                    driverEventBroadcaster.publish(DriverEvent.location(update.getDriverId(), update.getCoordinate()));
+                });
+        }
+    }
+}
@@ -0,0 +1,260 @@
+package org.poc.service.presence;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+import javax.annotation.PreDestroy;
+
+import org.poc.dataaccessobject.DriverRepository;
+import org.poc.domainvalue.OnlineStatus;
+import org.poc.service.cache.DriverSearchResults;
+import org.poc.service.cache.EntityCaches;
+import org.poc.service.location.DriverLocationIndex;
+import org.poc.service.search.DriverSearchIndex;
+import org.poc.util.TimingWheel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Online state of every not deleted driver, kept in memory and written behind to the <code>driver</code> table.
+ * <p/>
+ * A heartbeat puts a driver ONLINE and restarts its timeout on a {@link TimingWheel}; a driver without heartbeat for
+ * <code>driver.presence.timeout</code> milliseconds goes OFFLINE. Drivers that never sent a heartbeat keep the state
+ * they were created or loaded with. Transitions are coalesced per driver and written every
+ * <code>driver.presence.flush-interval</code> milliseconds, one update statement per state and batch, so the table lags
+ * behind by up to one flush. Listings by state are answered from here and never scan the table. The driver search index and
+ * cached searches see the new state once it is written.
+ */
+@Component
+public class DriverPresenceRegistry
+{
+
+    private static final Logger LOG = LoggerFactory.getLogger(DriverPresenceRegistry.class);
+
+    private final ConcurrentMap<Long, OnlineStatus> statuses = new ConcurrentHashMap<>();
+    private final Map<OnlineStatus, NavigableSet<Long>> members = new EnumMap<>(OnlineStatus.class);
+    private final ConcurrentMap<Long, OnlineStatus> pending = new ConcurrentHashMap<>();
+    private final DriverRepository driverRepository;
+    private final DriverLocationIndex driverLocationIndex;
+    private final EntityCaches entityCaches;
+    private final DriverSearchResults driverSearchResults;
+    private final DriverSearchIndex driverSearchIndex;
+    private final TimingWheel heartbeats;
+    private final int batchSize;
+
+
+    public DriverPresenceRegistry(
+        final DriverRepository driverRepository, final DriverLocationIndex driverLocationIndex, final EntityCaches entityCaches,
+        final DriverSearchResults driverSearchResults, final DriverSearchIndex driverSearchIndex,
+        @Value("${driver.presence.timeout:30000}") final long timeoutMillis,
+        @Value("${driver.presence.tick:1000}") final long tickMillis, @Value("${driver.presence.batch-size:500}") final int batchSize)
+    {
+        this.driverRepository = driverRepository;
+        this.driverLocationIndex = driverLocationIndex;
+        this.entityCaches = entityCaches;
+        this.driverSearchResults = driverSearchResults;
+        this.driverSearchIndex = driverSearchIndex;
+        this.heartbeats = new TimingWheel((int) Math.max(1, (timeoutMillis + tickMillis - 1) / tickMillis));
+        this.batchSize = batchSize;
+        for (OnlineStatus onlineStatus : OnlineStatus.values())
+        {
+            members.put(onlineStatus, new ConcurrentSkipListSet<>());
+        }
+    }
+
+
+    /**
+     * Replaces the whole state with the one stored in the database, pending writes and running timeouts are dropped.
+     */
+    @EventListener(ContextRefreshedEvent.class)
+    public synchronized void reload()
+    {
+        statuses.clear();
+        members.values().forEach(NavigableSet::clear);
+        pending.clear();
+        heartbeats.clear();
+        for (OnlineStatus onlineStatus : OnlineStatus.values())
+        {
+            driverRepository.findIdsByOnlineStatus(onlineStatus).forEach(driverId -> register(driverId, onlineStatus));
+        }
+        LOG.info("Loaded {} driver states into the presence registry", statuses.size());
+    }
+
+
+    /**
+     * Starts tracking a driver in the state already stored for it.
+     */
+    public void register(long driverId, OnlineStatus onlineStatus)
+    {
+        statuses.compute(driverId, (id, previous) -> {
+            if (previous != null)
+            {
+                members.get(previous).remove(id);
+            }
+            members.get(onlineStatus).add(id);
+            return onlineStatus;
+        });
+    }
+
+
+    public void remove(long driverId)
+    {
+        statuses.computeIfPresent(driverId, (id, previous) -> {
+            members.get(previous).remove(id);
+            return null;
+        });
+        heartbeats.cancel(driverId);
+        pending.remove(driverId);
+    }
+
+
+    /**
+     * Puts a tracked driver ONLINE and restarts its timeout.
+     *
+     * @return <code>false</code> if the driver is not tracked
+     */
+    public boolean heartbeat(long driverId)
+    {
+        if (!statuses.containsKey(driverId))
+        {
+            return false;
+        }
+        heartbeats.schedule(driverId);
+        transition(driverId, OnlineStatus.ONLINE);
+        return true;
+    }
+
+
+    /**
+     * @return current state of the driver, <code>null</code> if it is not tracked
+     */
+    public OnlineStatus status(long driverId)
+    {
+        return statuses.get(driverId);
+    }
+
+
+    /**
+     * Keyset page of driver ids in the given state.
+     *
+     * @param afterId exclusive lower bound
+     * @param limit   maximum number of ids
+     * @return ids in ascending order
+     */
+    public List<Long> ids(OnlineStatus onlineStatus, long afterId, int limit)
+    {
+        List<Long> ids = new ArrayList<>(Math.min(limit, 1024));
+        Iterator<Long> members = this.members.get(onlineStatus).tailSet(afterId, false).iterator();
+        while (ids.size() < limit && members.hasNext())
+        {
+            ids.add(members.next());
+        }
+        return ids;
+    }
+
+
+    public int pendingWrites()
+    {
+        return pending.size();
+    }
+
+
+    @Scheduled(fixedRateString = "${driver.presence.tick:1000}")
+    public void expire()
+    {
+        List<Long> expired = heartbeats.advance();
+        expired.forEach(driverId -> transition(driverId, OnlineStatus.OFFLINE));
+        if (!expired.isEmpty())
+        {
+            LOG.debug("{} drivers went OFFLINE without heartbeat", expired.size());
+        }
+    }
+
+
+    @Scheduled(fixedDelayString = "${driver.presence.flush-interval:1000}")
+    @PreDestroy
+    public void flush()
+    {
+        Map<Long, OnlineStatus> failed = new HashMap<>();
+        Map<OnlineStatus, List<Long>> batches = new EnumMap<>(OnlineStatus.class);
+        Iterator<Long> driverIds = pending.keySet().iterator();
+        while (driverIds.hasNext())
+        {
+            Long driverId = driverIds.next();
+            OnlineStatus onlineStatus = pending.remove(driverId);
+            if (onlineStatus != null)
+            {
+                List<Long> batch = batches.computeIfAbsent(onlineStatus, status -> new ArrayList<>());
+                batch.add(driverId);
+                if (batch.size() == batchSize)
+                {
+                    tryWrite(onlineStatus, batches.remove(onlineStatus), failed);
+                }
+            }
+        }
+        batches.forEach((onlineStatus, batch) -> tryWrite(onlineStatus, batch, failed));
+        // queued again only after the pass, a transition made meanwhile is newer and a removed driver is not written
+        failed.forEach((driverId, onlineStatus) -> {
+            if (statuses.containsKey(driverId))
+            {
+                pending.putIfAbsent(driverId, onlineStatus);
+            }
+        });
+    }
+
+
+    private void transition(long driverId, OnlineStatus onlineStatus)
+    {
+        statuses.computeIfPresent(driverId, (id, previous) -> {
+            if (previous != onlineStatus)
+            {
+                members.get(previous).remove(id);
+                members.get(onlineStatus).add(id);
+                pending.put(id, onlineStatus);
+                driverLocationIndex.setOnline(id, onlineStatus == OnlineStatus.ONLINE);
+            }
+            return onlineStatus;
+        });
+    }
+
+
+    /**
+     * Writes the batch, or keeps it for the next flush if the database refuses it.
+     */
+    private void tryWrite(OnlineStatus onlineStatus, List<Long> batch, Map<Long, OnlineStatus> failed)
+    {
+        try
+        {
+            write(onlineStatus, batch);
+        }
+        catch (DataAccessException e)
+        {
+            LOG.warn("Flushing {} drivers {} failed, retried with the next flush", batch.size(), onlineStatus, e);
+            batch.forEach(driverId -> failed.put(driverId, onlineStatus));
+        }
+    }
+
+
+    private void write(OnlineStatus onlineStatus, List<Long> batch)
+    {
+        int updated = driverRepository.updateOnlineStatus(onlineStatus, batch);
+        LOG.debug("Flushed {} drivers {}, {} stored", batch.size(), onlineStatus, updated);
+        entityCaches.evictDrivers(batch);
+        driverSearchIndex.onlineStatusChanged(batch, onlineStatus);
+        driverSearchResults.onlineStatusChanged(batch, onlineStatus);
+    }
+}
@@ -0,0 +1,431 @@
+package org.poc.service.search;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import org.poc.dataaccessobject.DriverRepository;
+import org.poc.domainobject.CarDO;
+import org.poc.domainobject.DriverDO;
+import org.poc.domainvalue.DriverAttributes;
+import org.poc.domainvalue.DriverSearchCriteria;
+import org.poc.domainvalue.DriverSearchCriteria.Field;
+import org.poc.domainvalue.DriverSearchCursor;
+import org.poc.domainvalue.OnlineStatus;
+import org.poc.domainvalue.SearchableDriver;
+import org.poc.util.Transactions;
+import org.poc.util.TrigramPostings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.google.common.collect.Ordering;
+
+/**
+ * In-memory index of every not deleted driver with a car, answering the driver search without the database.
+ * <p/>
+ * Each driver gets a dense ordinal, reused after removal, so the postings are compact bit sets. <code>username</code>,
+ * <code>licensePlate</code> and <code>manufacturer</code> have {@link TrigramPostings}; <code>onlineStatus</code>,
+ * <code>engineType</code> and <code>convertible</code> one bit set per value. A search intersects the postings of the
+ * given attributes, any of the values of a list, and checks the remaining candidates against the criteria, which also
+ * covers the ranges of <code>rating</code> and <code>seatCount</code> and strings shorter than a trigram. Only as many
+ * drivers as the limit are sorted.
+ * <p/>
+ * The index is loaded on startup and kept up to date by the write paths, after their commit. Online states follow the
+ * database, i.e. they change when {@link org.poc.service.presence.DriverPresenceRegistry} writes them. Switched off with
+ * <code>driver.search.index.enabled=false</code>, the search then goes to the database.
+ */
+@Component
+public class DriverSearchIndex
+{
+
+    private static final Logger LOG = LoggerFactory.getLogger(DriverSearchIndex.class);
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Integer> ordinalsByDriver = new HashMap<>();
+    private final Map<Long, Integer> ordinalsByCar = new HashMap<>();
+    private final List<SearchableDriver> drivers = new ArrayList<>();
+    private final Deque<Integer> freeOrdinals = new ArrayDeque<>();
+    private final BitSet live = new BitSet();
+    private final Map<Field, TrigramPostings> texts = new EnumMap<>(Field.class);
+    private final Map<Field, Map<Object, BitSet>> values = new EnumMap<>(Field.class);
+    private final DriverRepository driverRepository;
+    private final boolean enabled;
+
+
+    public DriverSearchIndex(final DriverRepository driverRepository, @Value("${driver.search.index.enabled:true}") final boolean enabled)
+    {
+        this.driverRepository = driverRepository;
+        this.enabled = enabled;
+        for (Field field : new Field[] {Field.USERNAME, Field.LICENSE_PLATE, Field.MANUFACTURER})
+        {
+            texts.put(field, new TrigramPostings());
+        }
+        for (Field field : new Field[] {Field.ONLINE_STATUS, Field.ENGINE_TYPE, Field.CONVERTIBLE})
+        {
+            values.put(field, new HashMap<>());
+        }
+    }
+
+
+    public boolean isEnabled()
+    {
+        return enabled;
+    }
+
+
+    /**
+     * Replaces the whole index with the drivers stored in the database.
+     */
+    @EventListener(ContextRefreshedEvent.class)
+    public void reload()
+    {
+        if (!enabled)
+        {
+            return;
+        }
+        List<SearchableDriver> searchable = driverRepository.findSearchable();
+        write(() -> {
+            ordinalsByDriver.clear();
+            ordinalsByCar.clear();
+            drivers.clear();
+            freeOrdinals.clear();
+            live.clear();
+            texts.values().forEach(TrigramPostings::clear);
+            values.values().forEach(Map::clear);
+            searchable.forEach(this::add);
+        });
+        LOG.info("Loaded {} drivers with car into the search index", searchable.size());
+    }
+
+
+    /**
+     * @return ids of the matching drivers in the order of the criteria after its cursor, at most its limit
+     */
+    public List<Long> search(DriverSearchCriteria criteria)
+    {
+        Predicate<SearchableDriver> after = after(criteria);
+        List<SearchableDriver> matching = new ArrayList<>();
+        lock.readLock().lock();
+        try
+        {
+            BitSet candidates = (BitSet) live.clone();
+            retainContaining(candidates, Field.USERNAME, criteria.getUsername());
+            retainContaining(candidates, Field.LICENSE_PLATE, criteria.getLicensePlate());
+            retainContaining(candidates, Field.MANUFACTURER, criteria.getManufacturer());
+            retainAny(candidates, Field.ONLINE_STATUS, criteria.getOnlineStatus());
+            retainAny(candidates, Field.ENGINE_TYPE, criteria.getEngineType());
+            retainAny(candidates, Field.CONVERTIBLE, criteria.getConvertible() == null ? null : Collections.singleton(criteria.getConvertible()));
+            for (int ordinal = candidates.nextSetBit(0); ordinal >= 0; ordinal = candidates.nextSetBit(ordinal + 1))
+            {
+                SearchableDriver driver = drivers.get(ordinal);
+                if (criteria.matches(driver.getAttributes()) && after.test(driver))
+                {
+                    matching.add(driver);
+                }
+            }
+        }
+        finally
+        {
+            lock.readLock().unlock();
+        }
+        Ordering<SearchableDriver> order = order(criteria);
+        List<SearchableDriver> found = criteria.getLimit() == null ? order.sortedCopy(matching) : order.leastOf(matching, criteria.getLimit());
+        return found.stream().map(SearchableDriver::getDriverId).collect(Collectors.toList());
+    }
+
+
+    /**
+     * @return the indexed driver, empty if it is deleted or has no car
+     */
+    public Optional<SearchableDriver> find(long driverId)
+    {
+        lock.readLock().lock();
+        try
+        {
+            Integer ordinal = ordinalsByDriver.get(driverId);
+            return ordinal == null ? Optional.empty() : Optional.of(drivers.get(ordinal));
+        }
+        finally
+        {
+            lock.readLock().unlock();
+        }
+    }
+
+
+    /**
+     * A car was assigned to the driver.
+     */
+    public void carAssigned(DriverDO driverDO, CarDO carDO)
+    {
+        SearchableDriver driver = SearchableDriver.of(driverDO, carDO);
+        update(() -> put(driver));
+    }
+
+
+    /**
+     * A car was stored with a driver, the driver is read again as the car only references it.
+     */
+    public void carAssigned(long driverId)
+    {
+        if (enabled)
+        {
+            Transactions.afterCommit(() -> driverRepository.findSearchableById(driverId).ifPresent(driver -> write(() -> put(driver))));
+        }
+    }
+
+
+    /**
+     * The attributes of a car changed, ignored if the car has no driver.
+     */
+    public void carChanged(CarDO carDO)
+    {
+        Long carId = carDO.getId();
+        update(() -> {
+            Integer ordinal = ordinalsByCar.get(carId);
+            if (ordinal != null)
+            {
+                put(drivers.get(ordinal).withCar(carDO));
+            }
+        });
+    }
+
+
+    public void carRemoved(CarDO carDO)
+    {
+        Long carId = carDO.getId();
+        update(() -> {
+            Integer ordinal = ordinalsByCar.get(carId);
+            if (ordinal != null)
+            {
+                remove(ordinal);
+            }
+        });
+    }
+
+
+    /**
+     * The driver was deleted or its car taken away.
+     */
+    public void driverRemoved(long driverId)
+    {
+        update(() -> {
+            Integer ordinal = ordinalsByDriver.get(driverId);
+            if (ordinal != null)
+            {
+                remove(ordinal);
+            }
+        });
+    }
+
+
+    /**
+     * The online state of the drivers was stored.
+     */
+    public void onlineStatusChanged(Collection<Long> driverIds, OnlineStatus onlineStatus)
+    {
+        update(() -> driverIds.forEach(driverId -> {
+            Integer ordinal = ordinalsByDriver.get(driverId);
+            if (ordinal != null)
+            {
+                put(drivers.get(ordinal).withOnlineStatus(onlineStatus));
+            }
+        }));
+    }
+
+
+    public int size()
+    {
+        lock.readLock().lock();
+        try
+        {
+            return ordinalsByDriver.size();
+        }
+        finally
+        {
+            lock.readLock().unlock();
+        }
+    }
+
+
+    private void retainContaining(BitSet candidates, Field field, String query)
+    {
+        if (query != null)
+        {
+            texts.get(field).retainCandidates(candidates, query);
+        }
+    }
+
+
+    /**
+     * Keeps only the candidates with one of the accepted values.
+     */
+    private void retainAny(BitSet candidates, Field field, Set<?> accepted)
+    {
+        if (accepted == null)
+        {
+            return;
+        }
+        BitSet withAny = new BitSet();
+        for (Object value : accepted)
+        {
+            BitSet withValue = values.get(field).get(value);
+            if (withValue != null)
+            {
+                withAny.or(withValue);
+            }
+        }
+        candidates.and(withAny);
+    }
+
+
+    /**
+     * The order of the query: by the sorted attribute with drivers without value last, then by driver id.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Ordering<SearchableDriver> order(DriverSearchCriteria criteria)
+    {
+        Field field = criteria.getSort().getField();
+        Ordering<SearchableDriver> byId = Ordering.<Long> natural().onResultOf(SearchableDriver::getDriverId);
+        if (field == null)
+        {
+            return criteria.isDescending() ? byId.reverse() : byId;
+        }
+        Ordering<Comparable> values = criteria.isDescending() ? Ordering.natural().reverse() : Ordering.natural();
+        Ordering<SearchableDriver> byValue = values.nullsLast().onResultOf(driver -> (Comparable) driver.getAttributes().get(field));
+        return byValue.compound(byId);
+    }
+
+
+    /**
+     * Drivers ordered after the cursor of the criteria, in the order of {@link #order}.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Predicate<SearchableDriver> after(DriverSearchCriteria criteria)
+    {
+        DriverSearchCursor cursor = criteria.getAfter();
+        if (cursor == null)
+        {
+            return driver -> true;
+        }
+        Field field = criteria.getSort().getField();
+        if (field == null)
+        {
+            return driver -> criteria.isDescending() ? driver.getDriverId() < cursor.getId() : driver.getDriverId() > cursor.getId();
+        }
+        Ordering<Comparable> values = (criteria.isDescending() ? Ordering.natural().reverse() : Ordering.natural()).nullsLast();
+        return driver -> {
+            int byValue = values.compare((Comparable) driver.getAttributes().get(field), (Comparable) cursor.getValue());
+            return byValue > 0 || byValue == 0 && driver.getDriverId() > cursor.getId();
+        };
+    }
+
+
+    private void update(Runnable change)
+    {
+        if (enabled)
+        {
+            Transactions.afterCommit(() -> write(change));
+        }
+    }
+
+
+    private void write(Runnable change)
+    {
+        lock.writeLock().lock();
+        try
+        {
+            change.run();
+        }
+        finally
+        {
+            lock.writeLock().unlock();
+        }
+    }
+
+
+    /**
+     * Indexes the driver, replacing its previous entry and any other driver holding the same car.
+     */
+    private void put(SearchableDriver driver)
+    {
+        Integer previous = ordinalsByDriver.get(driver.getDriverId());
+        if (previous != null)
+        {
+            remove(previous);
+        }
+        Integer previousOfCar = ordinalsByCar.get(driver.getCarId());
+        if (previousOfCar != null)
+        {
+            remove(previousOfCar);
+        }
+        add(driver);
+    }
+
+
+    private void add(SearchableDriver driver)
+    {
+        Integer free = freeOrdinals.poll();
+        int ordinal = free == null ? drivers.size() : free;
+        if (free == null)
+        {
+            drivers.add(driver);
+        }
+        else
+        {
+            drivers.set(ordinal, driver);
+        }
+        live.set(ordinal);
+        ordinalsByDriver.put(driver.getDriverId(), ordinal);
+        ordinalsByCar.put(driver.getCarId(), ordinal);
+        DriverAttributes attributes = driver.getAttributes();
+        texts.forEach((field, postings) -> postings.add(ordinal, (String) attributes.get(field)));
+        values.forEach((field, bitSets) -> {
+            Object value = attributes.get(field);
+            if (value != null)
+            {
+                bitSets.computeIfAbsent(value, key -> new BitSet()).set(ordinal);
+            }
+        });
+    }
+
+
+    private void remove(int ordinal)
+    {
+        SearchableDriver driver = drivers.get(ordinal);
+        drivers.set(ordinal, null);
+        freeOrdinals.push(ordinal);
+        live.clear(ordinal);
+        ordinalsByDriver.remove(driver.getDriverId());
+        ordinalsByCar.remove(driver.getCarId());
+        DriverAttributes attributes = driver.getAttributes();
+        texts.forEach((field, postings) -> postings.remove(ordinal, (String) attributes.get(field)));
+        values.forEach((field, bitSets) -> {
+            BitSet withValue = bitSets.get(attributes.get(field));
+            if (withValue != null)
+            {
+                withValue.clear(ordinal);
+                if (withValue.isEmpty())
+                {
+                    bitSets.remove(attributes.get(field));
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,107 @@
+package org.poc.util;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionStage;
+
+import org.springframework.core.ResolvableType;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.context.request.async.WebAsyncTask;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.ServletInvocableHandlerMethod;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+/**
+ * Runs the handlers of <code>@RestController</code>s as {@link Callable}s on the MVC task executor instead of on the
+ * servlet container thread.
+ * <p/>
+ * Arguments are still resolved and validated on the container thread, only the handler call itself moves. Each call
+ * first takes a permit from the {@link ConcurrencyLimiter}, an overloaded endpoint fails fast with 503 instead of
+ * queueing. The permit is given back when the handler returns or, if the handler never ran because the request timed
+ * out or failed while it was queued, when the asynchronous request completes. Handlers that are asynchronous already (streams, emitters, deferred results) are left as they are.
+ */
+public class AsyncRequestMappingHandlerAdapter extends RequestMappingHandlerAdapter
+{
+
+    private final ConcurrencyLimiter concurrencyLimiter;
+
+
+    public AsyncRequestMappingHandlerAdapter(final ConcurrencyLimiter concurrencyLimiter)
+    {
+        this.concurrencyLimiter = concurrencyLimiter;
+    }
+
+
+    @Override
+    protected ServletInvocableHandlerMethod createInvocableHandlerMethod(HandlerMethod handlerMethod)
+    {
+        if (!isOffloaded(handlerMethod))
+        {
+            return super.createInvocableHandlerMethod(handlerMethod);
+        }
+        String endpoint = endpoint(handlerMethod);
+        return new ServletInvocableHandlerMethod(handlerMethod)
+        {
+            @Override
+            protected Object doInvoke(Object... args) throws Exception
+            {
+                Runnable release = concurrencyLimiter.acquire(endpoint);
+                ServletRequestAttributes attributes = (ServletRequestAttributes) RequestContextHolder.currentRequestAttributes();
+                WebAsyncUtils.getAsyncManager(attributes.getRequest()).registerCallableInterceptor(release, new CallableProcessingInterceptor()
+                {
+                    @Override
+                    public <T> void afterCompletion(NativeWebRequest request, Callable<T> task)
+                    {
+                        release.run();
+                    }
+                });
+                return (Callable<Object>) () -> {
+                    try
+                    {
+                        return super.doInvoke(args);
+                    }
+                    finally
+                    {
+                        release.run();
+                    }
+                };
+            }
+        };
+    }
+
+
+    static String endpoint(HandlerMethod handlerMethod)
+    {
+        return handlerMethod.getBeanType().getSimpleName() + "." + handlerMethod.getMethod().getName();
+    }
+
+
+    static boolean isOffloaded(HandlerMethod handlerMethod)
+    {
+        if (!AnnotatedElementUtils.hasAnnotation(handlerMethod.getBeanType(), RestController.class))
+        {
+            return false;
+        }
+        ResolvableType returnType = ResolvableType.forMethodReturnType(handlerMethod.getMethod());
+        if (ResponseEntity.class.isAssignableFrom(returnType.resolve(Object.class)))
+        {
+            returnType = returnType.getGeneric(0);
+        }
+        Class<?> type = returnType.resolve(Object.class);
+        return !(Callable.class.isAssignableFrom(type)
+            || DeferredResult.class.isAssignableFrom(type)
+            || WebAsyncTask.class.isAssignableFrom(type)
+            || CompletionStage.class.isAssignableFrom(type)
+            || ResponseBodyEmitter.class.isAssignableFrom(type)
+            || StreamingResponseBody.class.isAssignableFrom(type));
+    }
+}
@@ -0,0 +1,62 @@
+package org.poc.util;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.poc.exception.EndpointOverloadedException;
+
+/**
+ * Admission control of the asynchronous handlers: a request either gets a permit of its endpoint and of the whole
+ * application right away or is refused, nothing waits for a permit.
+ */
+public class ConcurrencyLimiter
+{
+
+    private final RequestExecutionProperties properties;
+    private final Semaphore total;
+    private final ConcurrentMap<String, Semaphore> endpoints = new ConcurrentHashMap<>();
+
+
+    public ConcurrencyLimiter(final RequestExecutionProperties properties)
+    {
+        this.properties = properties;
+        this.total = new Semaphore(properties.getMaxConcurrent());
+    }
+
+
+    /**
+     * @param endpoint name of the endpoint, <code>Controller.method</code>
+     * @return releases both permits when the handler is done, only its first run releases them
+     * @throws EndpointOverloadedException if the endpoint or the application is at its limit
+     */
+    public Runnable acquire(String endpoint)
+    {
+        Semaphore permits = endpoints.computeIfAbsent(endpoint, name -> new Semaphore(properties.endpointLimit(name)));
+        if (!permits.tryAcquire())
+        {
+            throw new EndpointOverloadedException("Too many concurrent requests to " + endpoint);
+        }
+        if (!total.tryAcquire())
+        {
+            permits.release();
+            throw new EndpointOverloadedException("Too many concurrent requests");
+        }
+        AtomicBoolean released = new AtomicBoolean();
+        return () -> {
+            if (released.compareAndSet(false, true))
+            {
+                total.release();
+                permits.release();
+            }
+        };
+    }
+
+
+    public int available(String endpoint)
+    {
+        Semaphore permits = endpoints.get(endpoint);
+        return permits == null ? properties.endpointLimit(endpoint) : permits.availablePermits();
+    }
+}
@@ -0,0 +1,85 @@
+package org.poc.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splits and formats a single CSV record: comma separated, fields containing a comma or quote are enclosed in double
+ * quotes and quotes inside are doubled. Records spanning several lines are not supported.
+ */
+public final class CsvLine
+{
+
+    private CsvLine()
+    {}
+
+
+    public static List<String> split(String line)
+    {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++)
+        {
+            char c = line.charAt(i);
+            if (quoted)
+            {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"')
+                {
+                    field.append('"');
+                    i++;
+                }
+                else if (c == '"')
+                {
+                    quoted = false;
+                }
+                else
+                {
+                    field.append(c);
+                }
+            }
+            else if (c == '"')
+            {
+                quoted = true;
+            }
+            else if (c == ',')
+            {
+                fields.add(field.toString().trim());
+                field.setLength(0);
+            }
+            else
+            {
+                field.append(c);
+            }
+        }
+        if (quoted)
+        {
+            throw new IllegalArgumentException("Unterminated quoted field");
+        }
+        fields.add(field.toString().trim());
+        return fields;
+    }
+
+
+    public static String join(Object... values)
+    {
+        StringBuilder line = new StringBuilder();
+        for (int i = 0; i < values.length; i++)
+        {
+            if (i > 0)
+            {
+                line.append(',');
+            }
+            String value = values[i] == null ? "" : values[i].toString();
+            if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0)
+            {
+                line.append('"').append(value.replace("\"", "\"\"")).append('"');
+            }
+            else
+            {
+                line.append(value);
+            }
+        }
+        return line.toString();
+    }
+}
@@ -1,35 +1,64 @@
 package org.poc.util;
 
+import java.util.concurrent.ThreadLocalRandom;
+
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
-import org.apache.juli.logging.Log;
-import org.apache.juli.logging.LogFactory;
+import org.springframework.stereotype.Component;
 import org.springframework.web.servlet.handler.HandlerInterceptorAdapter;
 
+/**
+ * Logs method, uri, status, remote address and duration of sampled requests, see {@link RequestLoggingProperties}.
+ * <p/>
+ * The request thread only records the fields, formatting and writing happen on the {@link RequestLogWriter} thread.
+ */
+@Component
 public class LoggingInterceptor extends HandlerInterceptorAdapter
 {
 
-    private static final Log LOG = LogFactory.getLog(LoggingInterceptor.class);
+    private static final String START_ATTRIBUTE = LoggingInterceptor.class.getName() + ".start";
 
+    private final RequestLogWriter requestLogWriter;
+    private final RequestLoggingProperties properties;
 
-    @Override
-    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex)
+
+    public LoggingInterceptor(final RequestLogWriter requestLogWriter, final RequestLoggingProperties properties)
     {
-        StringBuilder logMessage = new StringBuilder();
-        logMessage.append("method: ").append(request.getMethod()).append("\t");
-        logMessage.append("uri: ").append(request.getRequestURI()).append("\t");
-        logMessage.append("status: ").append(response.getStatus()).append("\t");
-        logMessage.append("remoteAddress: ").append(request.getRemoteAddr()).append("\t");
+        this.requestLogWriter = requestLogWriter;
+        this.properties = properties;
+    }
 
-        if (ex != null)
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
+    {
+        // async dispatches pass here again, keep the start of the original request
+        if (request.getAttribute(START_ATTRIBUTE) == null)
         {
-            LoggingInterceptor.LOG.error(logMessage.toString(), ex);
+            request.setAttribute(START_ATTRIBUTE, System.nanoTime());
         }
-        else
+        return true;
+    }
+
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex)
+    {
+        Object start = request.getAttribute(START_ATTRIBUTE);
+        long durationNanos = start == null ? 0 : System.nanoTime() - (Long) start;
+        int status = response.getStatus();
+        if (ex == null && status < properties.getAlwaysLogStatus() && !sampled(request.getRequestURI()))
         {
-            LoggingInterceptor.LOG.info(logMessage.toString());
+            return;
         }
+        requestLogWriter.write(request.getMethod(), request.getRequestURI(), status, request.getRemoteAddr(), durationNanos, ex);
     }
 
+
+    private boolean sampled(String uri)
+    {
+        double rate = properties.sampleRate(uri);
+        return rate >= 1.0 || (rate > 0 && ThreadLocalRandom.current().nextDouble() < rate);
+    }
 }
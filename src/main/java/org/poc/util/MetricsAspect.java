@@ -0,0 +1,87 @@
+package org.poc.util;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.data.repository.Repository;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Times every public call of the services and repositories.
+ * <p/>
+ * Calls are recorded in the timers <code>service.method</code> and <code>repository.query</code>, tagged by class,
+ * method and the simple name of a thrown exception. Their count is the number of calls.
+ */
+@Aspect
+@Component
+public class MetricsAspect
+{
+
+    private final MeterRegistry meterRegistry;
+
+
+    public MetricsAspect(final MeterRegistry meterRegistry)
+    {
+        this.meterRegistry = meterRegistry;
+    }
+
+
+    @Around("execution(public * org.poc.service..Default*Service.*(..))")
+    public Object timeService(ProceedingJoinPoint joinPoint) throws Throwable
+    {
+        return time("service.method", ClassUtils.getUserClass(joinPoint.getTarget()).getSimpleName(), joinPoint);
+    }
+
+
+    @Around("execution(public * *(..)) && (this(org.springframework.data.repository.Repository) || @within(org.springframework.stereotype.Repository))")
+    public Object timeRepository(ProceedingJoinPoint joinPoint) throws Throwable
+    {
+        return time("repository.query", repositoryName(joinPoint.getTarget()), joinPoint);
+    }
+
+
+    private Object time(String name, String className, ProceedingJoinPoint joinPoint) throws Throwable
+    {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String exception = "none";
+        try
+        {
+            return joinPoint.proceed();
+        }
+        catch (Throwable e)
+        {
+            exception = e.getClass().getSimpleName();
+            throw e;
+        }
+        finally
+        {
+            sample.stop(
+                Timer
+                    .builder(name)
+                    .tag("class", className)
+                    .tag("method", joinPoint.getSignature().getName())
+                    .tag("exception", exception)
+                    .register(meterRegistry));
+        }
+    }
+
+
+    /**
+     * Spring Data repositories are proxies, they are named by their repository interface.
+     */
+    private static String repositoryName(Object target)
+    {
+        for (Class<?> type : ClassUtils.getAllInterfaces(target))
+        {
+            if (Repository.class.isAssignableFrom(type) && type.getName().startsWith("org.poc."))
+            {
+                return type.getSimpleName();
+            }
+        }
+        return ClassUtils.getUserClass(target).getSimpleName();
+    }
+}
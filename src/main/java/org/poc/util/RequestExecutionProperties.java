@@ -0,0 +1,154 @@
+package org.poc.util;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Settings of how controller handlers are run, prefix <code>request.execution</code>.
+ */
+@Component
+@ConfigurationProperties(prefix = "request.execution")
+public class RequestExecutionProperties
+{
+
+    public enum Mode
+    {
+        /**
+         * Handlers run on the servlet container thread.
+         */
+        SYNC,
+        /**
+         * Handlers run on the request executor, the container thread is released while they wait for the database.
+         */
+        ASYNC
+    }
+
+    private Mode mode = Mode.SYNC;
+
+    /**
+     * Platform threads of the request executor, when virtual threads are not used.
+     */
+    private int threads = 50;
+
+    /**
+     * Runs every handler on its own virtual thread when the runtime supports them (Java 21 and later).
+     */
+    private boolean virtualThreads = true;
+
+    /**
+     * Handlers running or waiting for a thread at once over all endpoints; further requests are answered with 503.
+     */
+    private int maxConcurrent = 200;
+
+    /**
+     * Handlers running or waiting at once per endpoint, unless configured in {@link #endpointLimits}.
+     */
+    private int endpointLimit = 50;
+
+    /**
+     * Limits per endpoint named <code>Controller.method</code>, in properties as
+     * <code>request.execution.endpoint-limits[DriverController.search]=20</code>.
+     */
+    private Map<String, Integer> endpointLimits = new HashMap<>();
+
+    /**
+     * Milliseconds before an asynchronous request times out.
+     */
+    private long timeout = 30000;
+
+
+    public Mode getMode()
+    {
+        return mode;
+    }
+
+
+    public void setMode(Mode mode)
+    {
+        this.mode = mode;
+    }
+
+
+    public int getThreads()
+    {
+        return threads;
+    }
+
+
+    public void setThreads(int threads)
+    {
+        this.threads = threads;
+    }
+
+
+    public boolean isVirtualThreads()
+    {
+        return virtualThreads;
+    }
+
+
+    public void setVirtualThreads(boolean virtualThreads)
+    {
+        this.virtualThreads = virtualThreads;
+    }
+
+
+    public int getMaxConcurrent()
+    {
+        return maxConcurrent;
+    }
+
+
+    public void setMaxConcurrent(int maxConcurrent)
+    {
+        this.maxConcurrent = maxConcurrent;
+    }
+
+
+    public int getEndpointLimit()
+    {
+        return endpointLimit;
+    }
+
+
+    public void setEndpointLimit(int endpointLimit)
+    {
+        this.endpointLimit = endpointLimit;
+    }
+
+
+    public Map<String, Integer> getEndpointLimits()
+    {
+        return endpointLimits;
+    }
+
+
+    public void setEndpointLimits(Map<String, Integer> endpointLimits)
+    {
+        this.endpointLimits = endpointLimits;
+    }
+
+
+    public long getTimeout()
+    {
+        return timeout;
+    }
+
+
+    public void setTimeout(long timeout)
+    {
+        this.timeout = timeout;
+    }
+
+
+    /**
+     * Concurrency limit of the endpoint named <code>Controller.method</code>.
+     */
+    public int endpointLimit(String endpoint)
+    {
+        return endpointLimits.getOrDefault(endpoint, endpointLimit);
+    }
+}
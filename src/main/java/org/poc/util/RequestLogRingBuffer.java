@@ -0,0 +1,135 @@
+package org.poc.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded multi producer, single consumer queue of request log entries.
+ * <p/>
+ * The slots are allocated once and reused, producers never block: when the buffer is full the entry is dropped and
+ * counted. Each slot carries a sequence telling whether it is free for the producer of that sequence or filled for the
+ * consumer.
+ */
+public class RequestLogRingBuffer
+{
+
+    private final Slot[] slots;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private long head;
+
+
+    /**
+     * @param capacity rounded up to the next power of two
+     */
+    public RequestLogRingBuffer(int capacity)
+    {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        slots = new Slot[size];
+        for (int i = 0; i < size; i++)
+        {
+            slots[i] = new Slot(i);
+        }
+        mask = size - 1;
+    }
+
+
+    /**
+     * @return <code>false</code> if the buffer is full and the entry was dropped
+     */
+    public boolean offer(String method, String uri, int status, String remoteAddress, long durationNanos, Exception exception)
+    {
+        Slot slot;
+        long sequence;
+        while (true)
+        {
+            sequence = tail.get();
+            slot = slots[(int) (sequence & mask)];
+            long free = slot.sequence - sequence;
+            if (free == 0 && tail.compareAndSet(sequence, sequence + 1))
+            {
+                break;
+            }
+            if (free < 0)
+            {
+                // the consumer has not freed the slot of the previous round yet
+                dropped.incrementAndGet();
+                return false;
+            }
+            // another producer claimed the slot, retry with the new tail
+        }
+
+        slot.method = method;
+        slot.uri = uri;
+        slot.status = status;
+        slot.remoteAddress = remoteAddress;
+        slot.durationNanos = durationNanos;
+        slot.exception = exception;
+        slot.sequence = sequence + 1;
+        return true;
+    }
+
+
+    /**
+     * Hands the oldest entry to the consumer and frees its slot. Must only be called by one thread.
+     *
+     * @return <code>false</code> if the buffer is empty
+     */
+    public boolean poll(Consumer consumer)
+    {
+        Slot slot = slots[(int) (head & mask)];
+        if (slot.sequence != head + 1)
+        {
+            return false;
+        }
+        try
+        {
+            consumer.accept(slot.method, slot.uri, slot.status, slot.remoteAddress, slot.durationNanos, slot.exception);
+        }
+        finally
+        {
+            slot.method = null;
+            slot.uri = null;
+            slot.remoteAddress = null;
+            slot.exception = null;
+            slot.sequence = head + slots.length;
+            head++;
+        }
+        return true;
+    }
+
+
+    public long getDropped()
+    {
+        return dropped.get();
+    }
+
+
+    public int capacity()
+    {
+        return slots.length;
+    }
+
+    @FunctionalInterface
+    public interface Consumer
+    {
+        void accept(String method, String uri, int status, String remoteAddress, long durationNanos, Exception exception);
+    }
+
+    private static final class Slot
+    {
+        private volatile long sequence;
+        private String method;
+        private String uri;
+        private int status;
+        private String remoteAddress;
+        private long durationNanos;
+        private Exception exception;
+
+
+        private Slot(long sequence)
+        {
+            this.sequence = sequence;
+        }
+    }
+}
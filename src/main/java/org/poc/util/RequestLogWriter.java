@@ -0,0 +1,110 @@
+package org.poc.util;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Writes request log entries on its own thread, so request threads only copy their fields into the
+ * {@link RequestLogRingBuffer}. The line is formatted into one reused buffer and logged as
+ * <code>org.poc.util.LoggingInterceptor</code>.
+ */
+@Component
+public class RequestLogWriter
+{
+
+    private static final Logger LOG = LoggerFactory.getLogger(LoggingInterceptor.class);
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private final RequestLogRingBuffer ringBuffer;
+    private final StringBuilder line = new StringBuilder(256);
+    private final Thread thread;
+    private volatile boolean running = true;
+
+
+    public RequestLogWriter(final RequestLoggingProperties properties, final MeterRegistry meterRegistry)
+    {
+        this.ringBuffer = new RequestLogRingBuffer(properties.getBufferSize());
+        this.thread = new Thread(this::run, "request-log-writer");
+        this.thread.setDaemon(true);
+        Gauge.builder("request.logging.dropped", ringBuffer, RequestLogRingBuffer::getDropped).register(meterRegistry);
+    }
+
+
+    @PostConstruct
+    public void start()
+    {
+        thread.start();
+    }
+
+
+    @PreDestroy
+    public void stop() throws InterruptedException
+    {
+        running = false;
+        LockSupport.unpark(thread);
+        thread.join(TimeUnit.SECONDS.toMillis(5));
+    }
+
+
+    /**
+     * @return <code>false</code> if the entry was dropped because the writer is behind
+     */
+    public boolean write(String method, String uri, int status, String remoteAddress, long durationNanos, Exception exception)
+    {
+        return ringBuffer.offer(method, uri, status, remoteAddress, durationNanos, exception);
+    }
+
+
+    private void run()
+    {
+        while (running)
+        {
+            if (!drain())
+            {
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+            }
+        }
+        drain();
+    }
+
+
+    private boolean drain()
+    {
+        boolean any = false;
+        while (ringBuffer.poll(this::log))
+        {
+            any = true;
+        }
+        return any;
+    }
+
+
+    private void log(String method, String uri, int status, String remoteAddress, long durationNanos, Exception exception)
+    {
+        line.setLength(0);
+        line.append("method: ").append(method).append('\t');
+        line.append("uri: ").append(uri).append('\t');
+        line.append("status: ").append(status).append('\t');
+        line.append("remoteAddress: ").append(remoteAddress).append('\t');
+        line.append("durationMs: ").append(durationNanos / 1_000_000).append('.').append(durationNanos / 1_000 % 1_000 / 100);
+
+        if (exception != null)
+        {
+            LOG.error(line.toString(), exception);
+        }
+        else
+        {
+            LOG.info(line.toString());
+        }
+    }
+}
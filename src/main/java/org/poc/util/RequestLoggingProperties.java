@@ -0,0 +1,103 @@
+package org.poc.util;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Settings of the request log, prefix <code>request.logging</code>.
+ */
+@Component
+@ConfigurationProperties(prefix = "request.logging")
+public class RequestLoggingProperties
+{
+
+    /**
+     * Share of requests logged, from 0 to 1.
+     */
+    private double sampleRate = 1.0;
+
+    /**
+     * Share of requests logged by path prefix, the longest matching prefix wins over {@link #sampleRate}.
+     */
+    private Map<String, Double> pathSampleRates = new HashMap<>();
+
+    /**
+     * Responses with this status or higher are always logged.
+     */
+    private int alwaysLogStatus = 500;
+
+    /**
+     * Entries waiting to be written; when the buffer is full further entries are dropped.
+     */
+    private int bufferSize = 8192;
+
+
+    public double getSampleRate()
+    {
+        return sampleRate;
+    }
+
+
+    public void setSampleRate(double sampleRate)
+    {
+        this.sampleRate = sampleRate;
+    }
+
+
+    public Map<String, Double> getPathSampleRates()
+    {
+        return pathSampleRates;
+    }
+
+
+    public void setPathSampleRates(Map<String, Double> pathSampleRates)
+    {
+        this.pathSampleRates = pathSampleRates;
+    }
+
+
+    public int getAlwaysLogStatus()
+    {
+        return alwaysLogStatus;
+    }
+
+
+    public void setAlwaysLogStatus(int alwaysLogStatus)
+    {
+        this.alwaysLogStatus = alwaysLogStatus;
+    }
+
+
+    public int getBufferSize()
+    {
+        return bufferSize;
+    }
+
+
+    public void setBufferSize(int bufferSize)
+    {
+        this.bufferSize = bufferSize;
+    }
+
+
+    /**
+     * Sample rate of the longest configured prefix of the path, {@link #sampleRate} if none matches.
+     */
+    public double sampleRate(String path)
+    {
+        double rate = sampleRate;
+        int matched = -1;
+        for (Map.Entry<String, Double> entry : pathSampleRates.entrySet())
+        {
+            if (entry.getKey().length() > matched && path.startsWith(entry.getKey()))
+            {
+                rate = entry.getValue();
+                matched = entry.getKey().length();
+            }
+        }
+        return rate;
+    }
+}
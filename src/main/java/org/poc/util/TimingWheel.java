@@ -0,0 +1,108 @@
+package org.poc.util;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Hashed timing wheel for one fixed timeout: ids expire a given number of ticks after they were last scheduled.
+ * <p/>
+ * Scheduling is O(1) and never searches for the previous slot of an id, the old entry stays where it is and is dropped
+ * when its slot comes round because the deadline of the id has moved on. As every id expires after the same number of
+ * ticks, one slot per tick of the timeout is enough and an id is never more than one round ahead. {@link #advance()} is
+ * meant to be called from a single thread, {@link #schedule} and {@link #cancel} from any.
+ */
+public class TimingWheel
+{
+
+    private final List<Set<Long>> slots;
+    private final ConcurrentMap<Long, Long> deadlines = new ConcurrentHashMap<>();
+    private final int timeoutTicks;
+    private volatile long tick;
+
+
+    /**
+     * @param timeoutTicks number of ticks from {@link #schedule} to expiry, at least 1
+     */
+    public TimingWheel(int timeoutTicks)
+    {
+        if (timeoutTicks < 1)
+        {
+            throw new IllegalArgumentException("timeoutTicks must be at least 1: " + timeoutTicks);
+        }
+        this.timeoutTicks = timeoutTicks;
+        this.slots = new ArrayList<>(timeoutTicks + 1);
+        for (int i = 0; i <= timeoutTicks; i++)
+        {
+            slots.add(ConcurrentHashMap.newKeySet());
+        }
+    }
+
+
+    /**
+     * (Re)starts the timeout of an id, replacing any earlier deadline.
+     */
+    public void schedule(long id)
+    {
+        long deadline = tick + timeoutTicks;
+        deadlines.put(id, deadline);
+        slot(deadline).add(id);
+    }
+
+
+    public void cancel(long id)
+    {
+        deadlines.remove(id);
+    }
+
+
+    public boolean isScheduled(long id)
+    {
+        return deadlines.containsKey(id);
+    }
+
+
+    /**
+     * Moves the wheel one tick forward.
+     *
+     * @return ids whose timeout ended with this tick, they are no longer scheduled
+     */
+    public synchronized List<Long> advance()
+    {
+        long now = ++tick;
+        List<Long> expired = new ArrayList<>();
+        Iterator<Long> ids = slot(now).iterator();
+        while (ids.hasNext())
+        {
+            Long id = ids.next();
+            ids.remove();
+            if (deadlines.remove(id, now))
+            {
+                expired.add(id);
+            }
+        }
+        return expired;
+    }
+
+
+    public synchronized void clear()
+    {
+        deadlines.clear();
+        slots.forEach(Set::clear);
+    }
+
+
+    public int size()
+    {
+        return deadlines.size();
+    }
+
+
+    private Set<Long> slot(long deadline)
+    {
+        return slots.get((int) (deadline % slots.size()));
+    }
+}
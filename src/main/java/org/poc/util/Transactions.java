@@ -0,0 +1,38 @@
+package org.poc.util;
+
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Helpers for work that must only see committed state.
+ */
+public final class Transactions
+{
+
+    private Transactions()
+    {}
+
+
+    /**
+     * Runs the action once the current transaction has committed, never if it rolls back, or right away without a
+     * transaction. Actions of one transaction run in the order they were registered.
+     */
+    public static void afterCommit(Runnable action)
+    {
+        if (TransactionSynchronizationManager.isSynchronizationActive())
+        {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter()
+            {
+                @Override
+                public void afterCommit()
+                {
+                    action.run();
+                }
+            });
+        }
+        else
+        {
+            action.run();
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package org.poc.util;
+
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Inverted index of the lower case trigrams of one text attribute, each trigram pointing to the bit set of the
+ * documents containing it.
+ * <p/>
+ * A text containing a query contains all trigrams of the query, so intersecting their postings gives the candidates of
+ * a CONTAINING match; candidates still have to be checked, the trigrams may appear in another order. Queries shorter
+ * than three characters have no trigram and are not narrowed down. Not thread-safe.
+ */
+public class TrigramPostings
+{
+
+    static final int GRAM = 3;
+
+    private final Map<String, BitSet> postings = new HashMap<>();
+
+
+    public void add(int document, String text)
+    {
+        if (text != null)
+        {
+            forEachTrigram(text, trigram -> postings.computeIfAbsent(trigram, key -> new BitSet()).set(document));
+        }
+    }
+
+
+    public void remove(int document, String text)
+    {
+        if (text != null)
+        {
+            forEachTrigram(text, trigram -> {
+                BitSet documents = postings.get(trigram);
+                if (documents != null)
+                {
+                    documents.clear(document);
+                    if (documents.isEmpty())
+                    {
+                        postings.remove(trigram);
+                    }
+                }
+            });
+        }
+    }
+
+
+    /**
+     * Keeps only the documents that contain every trigram of the query.
+     *
+     * @param documents narrowed down in place
+     */
+    public void retainCandidates(BitSet documents, String query)
+    {
+        forEachTrigram(query, trigram -> {
+            BitSet containing = postings.get(trigram);
+            if (containing == null)
+            {
+                documents.clear();
+            }
+            else
+            {
+                documents.and(containing);
+            }
+        });
+    }
+
+
+    public int trigramCount()
+    {
+        return postings.size();
+    }
+
+
+    public void clear()
+    {
+        postings.clear();
+    }
+
+
+    private static void forEachTrigram(String text, Consumer<String> consumer)
+    {
+        String lowerCase = text.toLowerCase(Locale.ROOT);
+        for (int i = 0; i + GRAM <= lowerCase.length(); i++)
+        {
+            consumer.accept(lowerCase.substring(i, i + GRAM));
+        }
+    }
+}
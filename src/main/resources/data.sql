@@ -33,17 +33,17 @@ values (6, now(), false, 'ONLINE',
 
 -- Create 1 OFFLINE driver with coordinate(longitude=9.5&latitude=55.954)
 
-insert into driver (id, coordinate, date_coordinate_updated, date_created, deleted, online_status, password, username)
+insert into driver (id, latitude, longitude, date_coordinate_updated, date_created, deleted, online_status, password, username)
 values (7,
-        'aced0005737200226f72672e737072696e676672616d65776f726b2e646174612e67656f2e506f696e7431b9e90ef11a4006020002440001784400017978704023000000000000404bfa1cac083127',
+        55.954, 9.5,
         now(), now(), false, 'OFFLINE',
         'driver07pw', 'driver07');
 
 -- Create 1 ONLINE driver with coordinate(longitude=9.5&latitude=55.954)
 
-insert into driver (id, coordinate, date_coordinate_updated, date_created, deleted, online_status, password, username)
+insert into driver (id, latitude, longitude, date_coordinate_updated, date_created, deleted, online_status, password, username)
 values (8,
-        'aced0005737200226f72672e737072696e676672616d65776f726b2e646174612e67656f2e506f696e7431b9e90ef11a4006020002440001784400017978704023000000000000404bfa1cac083127',
+        55.954, 9.5,
         now(), now(), false, 'ONLINE',
         'driver08pw', 'driver08');
 
@@ -0,0 +1,121 @@
+package org.poc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.poc.datatransferobject.CarDTO;
+import org.poc.domainobject.CarDO;
+import org.poc.domainobject.ManufacturerDO;
+import org.poc.util.ConcurrencyLimiter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.web.client.DefaultResponseErrorHandler;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * The REST endpoints with <code>request.execution.mode=async</code>.
+ */
+@RunWith(SpringRunner.class)
+@Sql({"classpath:drop_schema.sql", "classpath:schema.sql", "classpath:data.sql"})
+@Import(InMemoryStateReset.class)
+@SpringBootTest(
+    classes = ServerApplicantTestApplication.class, webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:async;DB_CLOSE_DELAY=-1",
+        "request.execution.mode=async",
+        "request.execution.endpoint-limits[CarController.deleteCar]=0"})
+public class AsyncExecutionTest
+{
+
+    @Autowired
+    private InMemoryStateReset inMemoryStateReset;
+
+    @Autowired
+    private RestTemplateBuilder restTemplateBuilder;
+
+    @Autowired
+    private ConcurrencyLimiter concurrencyLimiter;
+
+    @LocalServerPort
+    private int port;
+
+    private RestTemplate restTemplate;
+    private String urlCars;
+
+
+    @Before
+    public void init()
+    {
+        restTemplate =
+            restTemplateBuilder
+                .basicAuthorization("user", "password")
+                .errorHandler(new DefaultResponseErrorHandler()
+                {
+                    protected boolean hasError(HttpStatus statusCode)
+                    {
+                        return false;
+                    }
+                }).build();
+        urlCars = "http://localhost:" + port + "/v1/cars/";
+        inMemoryStateReset.reset();
+    }
+
+
+    @Test
+    public void getCar_answeredAndPermitReleased()
+    {
+        ResponseEntity<CarDTO> responseEntity = restTemplate.getForEntity(urlCars + "{carId}", CarDTO.class, 1);
+
+        assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(responseEntity.getBody().getLicensePlate()).isEqualTo("EU-001");
+        assertThat(concurrencyLimiter.available("CarController.getCar")).isEqualTo(50);
+    }
+
+
+    @Test
+    public void createCar_responseStatusKept()
+    {
+        CarDTO carDTO = new CarDTO(Boolean.FALSE, CarDO.EngineType.GAS, "licensePlate_async", new ManufacturerDO("Manufacturer"), 3.0F, (short) 4);
+
+        assertThat(restTemplate.postForEntity(urlCars, carDTO, CarDTO.class).getStatusCode()).isEqualTo(HttpStatus.CREATED);
+    }
+
+
+    @Test
+    public void getCar_notFound_exceptionHandlerApplied()
+    {
+        ResponseEntity<String> responseEntity = restTemplate.getForEntity(urlCars + "{carId}", String.class, Integer.MAX_VALUE);
+
+        assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+    }
+
+
+    @Test
+    public void deleteCar_noPermits_serviceUnavailable()
+    {
+        ResponseEntity<String> responseEntity = restTemplate.exchange(urlCars + "{carId}", HttpMethod.DELETE, null, String.class, 2);
+
+        assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        assertThat(responseEntity.getBody()).contains("CarController.deleteCar");
+        assertThat(restTemplate.getForEntity(urlCars + "{carId}", CarDTO.class, 2).getStatusCode()).isEqualTo(HttpStatus.OK);
+    }
+
+
+    @Test
+    public void listDrivers_andStream()
+    {
+        String urlDrivers = "http://localhost:" + port + "/v1/drivers/";
+
+        assertThat(restTemplate.getForObject(urlDrivers + "?onlineStatus=ONLINE", String.class)).contains("driver-40", "driver-41");
+        assertThat(restTemplate.getForObject(urlDrivers + "stream?onlineStatus=ONLINE", String.class)).contains("driver-40", "driver-41");
+    }
+}
@@ -0,0 +1,85 @@
+package org.poc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+
+public class CachingAuthenticationProviderTest
+{
+    private final AuthenticationProvider delegate = mock(AuthenticationProvider.class);
+    private final AtomicLong nanos = new AtomicLong();
+    private final CachingAuthenticationProvider provider = new CachingAuthenticationProvider(delegate, Duration.ofMinutes(5), 100, nanos::get);
+
+
+    @Before
+    public void init()
+    {
+        when(delegate.authenticate(any())).thenAnswer(invocation -> {
+            Authentication request = invocation.getArgument(0);
+            if (!"password".equals(request.getCredentials()))
+            {
+                throw new BadCredentialsException("Bad credentials");
+            }
+            return new UsernamePasswordAuthenticationToken(request.getName(), null, AuthorityUtils.createAuthorityList("ROLE_USER"));
+        });
+    }
+
+
+    @Test
+    public void authenticate_sameCredentials_delegateCalledOnce()
+    {
+        Authentication first = provider.authenticate(request("user", "password"));
+        Authentication second = provider.authenticate(request("user", "password"));
+
+        verify(delegate, times(1)).authenticate(any());
+        assertThat(second.isAuthenticated()).isTrue();
+        assertThat(second.getName()).isEqualTo("user");
+        assertThat(second.getCredentials()).isNull();
+        assertThat(second.getAuthorities()).extracting(Object::toString).containsExactly("ROLE_USER");
+        assertThat(second).isNotSameAs(first);
+    }
+
+
+    @Test
+    public void authenticate_badCredentials_notCached()
+    {
+        provider.authenticate(request("user", "password"));
+
+        assertThatThrownBy(() -> provider.authenticate(request("user", "wrong"))).isInstanceOf(BadCredentialsException.class);
+        assertThatThrownBy(() -> provider.authenticate(request("user", "wrong"))).isInstanceOf(BadCredentialsException.class);
+        verify(delegate, times(3)).authenticate(any());
+    }
+
+
+    @Test
+    public void authenticate_afterTimeToLive_delegateCalledAgain()
+    {
+        provider.authenticate(request("user", "password"));
+        nanos.addAndGet(TimeUnit.MINUTES.toNanos(6));
+        provider.authenticate(request("user", "password"));
+
+        verify(delegate, times(2)).authenticate(any());
+    }
+
+
+    private static Authentication request(String username, String password)
+    {
+        return new UsernamePasswordAuthenticationToken(username, password);
+    }
+}
@@ -0,0 +1,45 @@
+package org.poc;
+
+import org.poc.service.cache.DriverSearchResults;
+import org.poc.service.cache.EntityCaches;
+import org.poc.service.location.DriverLocationIndexLoader;
+import org.poc.service.presence.DriverPresenceRegistry;
+import org.poc.service.search.DriverSearchIndex;
+import org.springframework.boot.test.context.TestComponent;
+
+/**
+ * Brings the caches and in-memory indexes in line with the database again after a test reloaded it, to be imported by
+ * the tests sharing a context.
+ */
+@TestComponent
+public class InMemoryStateReset
+{
+
+    private final EntityCaches entityCaches;
+    private final DriverSearchResults driverSearchResults;
+    private final DriverPresenceRegistry driverPresenceRegistry;
+    private final DriverSearchIndex driverSearchIndex;
+    private final DriverLocationIndexLoader driverLocationIndexLoader;
+
+
+    public InMemoryStateReset(
+        final EntityCaches entityCaches, final DriverSearchResults driverSearchResults, final DriverPresenceRegistry driverPresenceRegistry,
+        final DriverSearchIndex driverSearchIndex, final DriverLocationIndexLoader driverLocationIndexLoader)
+    {
+        this.entityCaches = entityCaches;
+        this.driverSearchResults = driverSearchResults;
+        this.driverPresenceRegistry = driverPresenceRegistry;
+        this.driverSearchIndex = driverSearchIndex;
+        this.driverLocationIndexLoader = driverLocationIndexLoader;
+    }
+
+
+    public void reset()
+    {
+        entityCaches.clear();
+        driverSearchResults.clear();
+        driverPresenceRegistry.reload();
+        driverSearchIndex.reload();
+        driverLocationIndexLoader.load();
+    }
+}
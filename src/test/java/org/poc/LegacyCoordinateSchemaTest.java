@@ -0,0 +1,44 @@
+package org.poc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.poc.domainvalue.GeoCoordinate;
+import org.poc.service.driver.DriverService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+
+/**
+ * Starts the application with the prod profile against a database still storing driver positions as a serialized
+ * Point, so <code>ddl-auto=validate</code> only passes if the coordinate migration ran before it.
+ */
+@RunWith(SpringRunner.class)
+@ActiveProfiles("prod")
+@SpringBootTest(
+    classes = ServerApplicantTestApplication.class, webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "spring.datasource.url=jdbc:h2:mem:legacy;DB_CLOSE_DELAY=-1",
+        "spring.datasource.initialization-mode=always",
+        "spring.datasource.schema=classpath:schema.sql",
+        "spring.datasource.data=classpath:data.sql,classpath:legacy_coordinate.sql"})
+public class LegacyCoordinateSchemaTest
+{
+
+    @Autowired
+    private DriverService driverService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+
+    @Test
+    public void serializedCoordinates_migratedBeforeValidation() throws Exception
+    {
+        assertThat(jdbcTemplate.queryForObject("select count(*) from information_schema.columns where column_name = 'COORDINATE'", Integer.class))
+            .isZero();
+        assertThat(driverService.find(40L).getCoordinate()).isEqualTo(new GeoCoordinate(55.954, 9.5));
+    }
+}
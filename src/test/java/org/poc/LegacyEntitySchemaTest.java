@@ -0,0 +1,62 @@
+package org.poc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.poc.domainobject.CarDO;
+import org.poc.domainobject.DriverDO;
+import org.poc.domainobject.ManufacturerDO;
+import org.poc.service.car.CarService;
+import org.poc.service.driver.DriverService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+
+/**
+ * Starts the application with the prod profile against a database still incrementing <code>car_seq</code> by one,
+ * without <code>driver_seq</code> and without the car version column, so <code>ddl-auto=validate</code> only passes if the
+ * entity schema migration ran before it.
+ */
+@RunWith(SpringRunner.class)
+@ActiveProfiles("prod")
+@SpringBootTest(
+    classes = ServerApplicantTestApplication.class, webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "spring.datasource.url=jdbc:h2:mem:legacy-entity;DB_CLOSE_DELAY=-1",
+        "spring.datasource.initialization-mode=always",
+        "spring.datasource.schema=classpath:schema.sql",
+        "spring.datasource.data=classpath:data.sql,classpath:legacy_entity_schema.sql"})
+public class LegacyEntitySchemaTest
+{
+
+    @Autowired
+    private CarService carService;
+
+    @Autowired
+    private DriverService driverService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+
+    @Test
+    public void legacySchema_migratedBeforeValidation() throws Exception
+    {
+        assertThat(jdbcTemplate.queryForObject(
+            "select increment from information_schema.sequences where sequence_name = 'CAR_SEQ'", Long.class)).isEqualTo(50L);
+
+        List<CarDO> cars = new ArrayList<>();
+        for (int i = 0; i < 60; i++)
+        {
+            cars.add(new CarDO(false, CarDO.EngineType.GAS, "LEGACY-" + i, new ManufacturerDO("MANUFACTURER-X"), 4.0f, (short) 4));
+        }
+        assertThat(carService.createAll(cars)).extracting(CarDO::getId).allMatch(id -> id > 150).doesNotHaveDuplicates();
+        assertThat(driverService.create(new DriverDO("driver-new", "password")).getId()).isGreaterThan(120L);
+        assertThat(jdbcTemplate.queryForObject("select version from car where id = 150", Long.class)).isZero();
+    }
+}
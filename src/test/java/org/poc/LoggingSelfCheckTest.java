@@ -0,0 +1,49 @@
+package org.poc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.After;
+import org.junit.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.mock.env.MockEnvironment;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+
+public class LoggingSelfCheckTest
+{
+    private final Logger typeLogger = (Logger) LoggerFactory.getLogger("org.hibernate.type");
+    private final Logger sqlLogger = (Logger) LoggerFactory.getLogger("org.hibernate.SQL");
+    private final Level typeLevel = typeLogger.getLevel();
+    private final Level sqlLevel = sqlLogger.getLevel();
+
+
+    @After
+    public void restoreLevels()
+    {
+        typeLogger.setLevel(typeLevel);
+        sqlLogger.setLevel(sqlLevel);
+    }
+
+
+    @Test
+    public void check_traceSqlLogging_warns()
+    {
+        typeLogger.setLevel(Level.TRACE);
+        sqlLogger.setLevel(Level.DEBUG);
+
+        assertThat(new LoggingSelfCheck(new MockEnvironment().withProperty("spring.jpa.show-sql", "true")).check())
+            .hasSize(3)
+            .anyMatch(warning -> warning.contains("org.hibernate.type"));
+    }
+
+
+    @Test
+    public void check_quietLogging_noWarning()
+    {
+        typeLogger.setLevel(Level.WARN);
+        sqlLogger.setLevel(Level.WARN);
+
+        assertThat(new LoggingSelfCheck(new MockEnvironment()).check()).isEmpty();
+    }
+}
@@ -0,0 +1,83 @@
+package org.poc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.poc.dataaccessobject.SearchIndexMigration;
+import org.poc.service.car.CarService;
+import org.poc.service.driver.DriverService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+
+/**
+ * Starts the application with the prod profile against the test schema, so <code>ddl-auto=validate</code> checks that
+ * the entities match it. Without a web request there is no open session either, as with <code>open-in-view=false</code>.
+ */
+@RunWith(SpringRunner.class)
+@ActiveProfiles("prod")
+@SpringBootTest(
+    classes = ServerApplicantTestApplication.class, webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "spring.datasource.url=jdbc:h2:mem:prod;DB_CLOSE_DELAY=-1",
+        "spring.datasource.initialization-mode=always",
+        "spring.datasource.schema=classpath:schema.sql",
+        "spring.datasource.data=classpath:data.sql"})
+public class ProdProfileTest
+{
+
+    @Autowired
+    private LoggingSelfCheck loggingSelfCheck;
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    @Autowired
+    private Environment environment;
+
+    @Autowired
+    private DriverService driverService;
+
+    @Autowired
+    private CarService carService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+
+    @Test
+    public void schemaValidatedAndLoggingQuiet()
+    {
+        assertThat(environment.getProperty("spring.jpa.hibernate.ddl-auto")).isEqualTo("validate");
+        assertThat(loggingSelfCheck.check()).isEmpty();
+        assertThat(applicationContext.getBeanNamesForType(SearchIndexMigration.class)).isEmpty();
+    }
+
+
+    @Test
+    public void selectAndDeselectCar_storedWithoutOpenSession() throws Exception
+    {
+        assertThat(environment.getProperty("spring.jpa.open-in-view")).isEqualTo("false");
+
+        driverService.deselectCarByDriver(40L);
+        assertThat(driverOfCar(1L)).isNull();
+
+        driverService.selectCarByDriver(41L, 1L);
+        assertThat(driverOfCar(1L)).isEqualTo(41L);
+        assertThat(carService.find(1L).getDriver().getUsername()).isEqualTo("driver-41");
+        assertThat(driverService.find(41L).getCar().getLicensePlate()).isEqualTo("EU-001");
+
+        driverService.deselectCarByDriver(41L);
+        assertThat(driverOfCar(1L)).isNull();
+    }
+
+
+    private Long driverOfCar(long carId)
+    {
+        return jdbcTemplate.queryForObject("select driver_fk from car where id = ?", Long.class, carId);
+    }
+}
@@ -0,0 +1,134 @@
+package org.poc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.function.Supplier;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.poc.datatransferobject.DriverPageDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.web.client.RestTemplate;
+
+import com.google.common.collect.ImmutableMap;
+
+/**
+ * Counts the SQL statements of the list, stream, search and export endpoints, which must not grow with the number of
+ * drivers and cars returned. Driver listings are read into projections and must not load entities at all.
+ */
+@RunWith(SpringRunner.class)
+@Sql({"classpath:drop_schema.sql", "classpath:schema.sql", "classpath:data.sql"})
+@Import(InMemoryStateReset.class)
+@SpringBootTest(
+    classes = ServerApplicantTestApplication.class, webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        // the context of ServerApplicantTestApplicationTests
+        "driver.presence.flush-interval=3600000"})
+public class QueryCountTest
+{
+
+    @Autowired
+    private InMemoryStateReset inMemoryStateReset;
+
+    @Autowired
+    private RestTemplateBuilder restTemplateBuilder;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @LocalServerPort
+    private int port;
+
+    private RestTemplate restTemplate;
+    private String urlDrivers;
+    private Statistics statistics;
+
+
+    @Before
+    public void init()
+    {
+        restTemplate = restTemplateBuilder.basicAuthorization("user", "password").build();
+        urlDrivers = "http://localhost:" + port + "/v1/drivers/";
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        // 60 more ONLINE drivers, each with an electric car
+        jdbcTemplate.update(
+            "insert into driver (id, date_created, deleted, online_status, password, username) "
+                + "select x, now(), false, 'ONLINE', 'password', 'bulk-' || x from system_range(1000, 1059)");
+        jdbcTemplate.update(
+            "insert into car (id, convertible, date_created, engine_type, license_plate, manufacturer, rating, seat_count, driver_fk) "
+                + "select x, false, now(), 'ELECTRIC', 'BULK-' || x, 'MANUFACTURER-B', 4.0, 4, x from system_range(1000, 1059)");
+        inMemoryStateReset.reset();
+    }
+
+
+    @Test
+    public void listDrivers_constantStatements()
+    {
+        long small = statements(() -> restTemplate.getForObject(urlDrivers + "?onlineStatus=ONLINE&limit=2", DriverPageDTO.class));
+        long large = statements(() -> restTemplate.getForObject(urlDrivers + "?onlineStatus=ONLINE&limit=60", DriverPageDTO.class));
+
+        assertThat(small).isEqualTo(1);
+        assertThat(large).isEqualTo(small);
+    }
+
+
+    @Test
+    public void streamDrivers_constantStatements()
+    {
+        assertThat(statements(() -> restTemplate.getForObject(urlDrivers + "stream?onlineStatus=ONLINE", String.class))).isEqualTo(1);
+    }
+
+
+    @Test
+    public void searchDrivers_constantStatements()
+    {
+        long one = statements(() -> restTemplate.postForObject(urlDrivers + "search", ImmutableMap.of("licensePlate", "EU-001"), String.class));
+        long all = statements(() -> restTemplate.postForObject(urlDrivers + "search", ImmutableMap.of("engineType", "ELECTRIC"), String.class));
+
+        assertThat(one).isEqualTo(1);
+        assertThat(all).isEqualTo(one);
+    }
+
+
+    @Test
+    public void listStreamAndSearch_noEntitiesLoaded()
+    {
+        statistics.clear();
+        restTemplate.getForObject(urlDrivers + "?onlineStatus=ONLINE&limit=60", DriverPageDTO.class);
+        restTemplate.getForObject(urlDrivers + "stream?onlineStatus=ONLINE", String.class);
+        restTemplate.postForObject(urlDrivers + "search", ImmutableMap.of("engineType", "ELECTRIC"), String.class);
+
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+
+    @Test
+    public void exportCars_constantStatements()
+    {
+        // one keyset page, shorter than 500 cars
+        assertThat(statements(() -> restTemplate.getForObject("http://localhost:" + port + "/v1/cars/export", String.class))).isEqualTo(1);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+
+    private long statements(Supplier<?> request)
+    {
+        statistics.clear();
+        request.get();
+        return statistics.getPrepareStatementCount();
+    }
+}
@@ -3,12 +3,25 @@ package org.poc;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.collect.ImmutableMap;
+import org.poc.dataaccessobject.DriverRepository;
+import org.poc.datatransferobject.CacheStatisticsDTO;
 import org.poc.datatransferobject.CarDTO;
+import org.poc.datatransferobject.CarImportReportDTO;
 import org.poc.datatransferobject.DriverDTO;
+import org.poc.datatransferobject.DriverPageDTO;
+import org.poc.datatransferobject.DriverSearchCursorDTO;
+import org.poc.datatransferobject.DriverSearchPageDTO;
+import org.poc.datatransferobject.NearbyDriverDTO;
 import org.poc.domainobject.CarDO;
 import org.poc.domainobject.DriverDO;
 import org.poc.domainobject.ManufacturerDO;
+import org.poc.domainvalue.DriverSearchCriteria;
+import org.poc.domainvalue.DriverSearchCursor;
 import org.poc.domainvalue.OnlineStatus;
+import org.poc.service.car.CarService;
+import org.poc.service.location.LocationIngestionQueue;
+import org.poc.service.presence.DriverPresenceRegistry;
+import org.poc.service.search.DriverSearchIndex;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -16,6 +29,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.context.annotation.Import;
 import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.*;
 import org.springframework.test.context.jdbc.Sql;
@@ -24,20 +38,58 @@ import org.springframework.web.client.DefaultResponseErrorHandler;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.util.UriComponentsBuilder;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
 @RunWith(SpringRunner.class)
 @Sql({"classpath:drop_schema.sql", "classpath:schema.sql", "classpath:data.sql"})
-@SpringBootTest(classes = ServerApplicantTestApplication.class, webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@Import(InMemoryStateReset.class)
+@SpringBootTest(
+    classes = ServerApplicantTestApplication.class, webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        // written behind only when a test flushes
+        "driver.presence.flush-interval=3600000"})
 public class ServerApplicantTestApplicationTests
 {
 
+    @Autowired
+    private InMemoryStateReset inMemoryStateReset;
+
     @Autowired
     private RestTemplateBuilder restTemplateBuilder;
 
+    @Autowired
+    private LocationIngestionQueue locationIngestionQueue;
+
+    @Autowired
+    private DriverSearchIndex driverSearchIndex;
+
+    @Autowired
+    private DriverRepository driverRepository;
+
+    @Autowired
+    private DriverPresenceRegistry driverPresenceRegistry;
+
+    @Autowired
+    private CarService carService;
+
     @LocalServerPort
     private int port;
 
@@ -49,18 +101,11 @@ public class ServerApplicantTestApplicationTests
     @Before
     public void init()
     {
-        restTemplate =
-            restTemplateBuilder
-                .basicAuthorization("user", "password")
-                .errorHandler(new DefaultResponseErrorHandler()
-                {
-                    protected boolean hasError(HttpStatus statusCode)
-                    {
-                        return false;
-                    }
-                }).build();
+        restTemplate = restTemplate("user", "password");
         urlCars = "http://localhost:" + port + "/v1/cars/";
         urlDrivers = "http://localhost:" + port + "/v1/drivers/";
+        // every test reloads the database
+        inMemoryStateReset.reset();
     }
 
 
@@ -87,6 +132,40 @@ public class ServerApplicantTestApplicationTests
     }
 
 
+    @Test
+    public void getCar_Anonymous_Unauthorized()
+    {
+        ResponseEntity<String> responseEntity = restTemplate("user", null).getForEntity(urlCars + "{carId}", String.class, "1");
+
+        assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
+    }
+
+
+    @Test
+    public void getCar_WrongPasswordAfterCachedLogin_Unauthorized()
+    {
+        assertThat(restTemplate.getForEntity(urlCars + "{carId}", String.class, "1").getStatusCode()).isEqualTo(HttpStatus.OK);
+
+        ResponseEntity<String> responseEntity = restTemplate("user", "wrong").getForEntity(urlCars + "{carId}", String.class, "1");
+
+        assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
+    }
+
+
+    @Test
+    public void actuatorAndCaches_Anonymous_UnauthorizedButHealth()
+    {
+        RestTemplate anonymous = restTemplate("user", null);
+        String url = "http://localhost:" + port;
+
+        assertThat(anonymous.getForEntity(url + "/actuator/metrics", String.class).getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
+        assertThat(anonymous.getForEntity(url + "/actuator/prometheus", String.class).getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
+        assertThat(anonymous.getForEntity(url + "/v1/caches", String.class).getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
+        assertThat(anonymous.getForEntity(url + "/actuator/health", String.class).getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(restTemplate.getForEntity(url + "/actuator/metrics", String.class).getStatusCode()).isEqualTo(HttpStatus.OK);
+    }
+
+
     @Test
     public void createCar()
     {
@@ -96,7 +175,91 @@ public class ServerApplicantTestApplicationTests
         assertThat(postResponse).isNotNull();
         assertThat(postResponse.getBody()).isNotNull();
         assertThat(carDTO).isEqualToIgnoringGivenFields(postResponse.getBody(), "id");
-        assertThat(postResponse.getBody().getId()).isEqualTo(100L); //initial value is 100
+        assertThat(postResponse.getBody().getId()).isGreaterThanOrEqualTo(100L); //initial value is 100
+    }
+
+
+    @Test
+    public void createCars_batch()
+    {
+        List<CarDTO> carDTOs = Arrays.asList(createCarDTO("licensePlate_batch1"), createCarDTO("licensePlate_batch2"), createCarDTO("licensePlate_batch3"));
+        ResponseEntity<List<CarDTO>> postResponse =
+            restTemplate.exchange(urlCars + "batch", HttpMethod.POST, new HttpEntity<>(carDTOs), new ParameterizedTypeReference<List<CarDTO>>()
+            {});
+
+        assertThat(postResponse.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        assertThat(postResponse.getBody()).extracting("licensePlate").containsExactly("licensePlate_batch1", "licensePlate_batch2", "licensePlate_batch3");
+        assertThat(postResponse.getBody()).extracting("id").doesNotContainNull().doesNotHaveDuplicates();
+
+        CarDTO stored = restTemplate.getForObject(urlCars + "{carId}", CarDTO.class, postResponse.getBody().get(2).getId());
+        assertThat(stored.getLicensePlate()).isEqualTo("licensePlate_batch3");
+    }
+
+
+    @Test
+    public void createCars_batchWithDuplicate_noneStored()
+    {
+        List<CarDTO> carDTOs = Arrays.asList(createCarDTO("licensePlate_batchDuplicate"), createCarDTO("EU-001"));
+        ResponseEntity<String> postResponse = restTemplate.postForEntity(urlCars + "batch", carDTOs, String.class);
+
+        assertThat(postResponse.getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+        ResponseEntity<List<DriverDTO>> search =
+            restTemplate.exchange(
+                urlDrivers + "search", HttpMethod.POST, new HttpEntity<>(ImmutableMap.of("licensePlate", "licensePlate_batchDuplicate")),
+                new ParameterizedTypeReference<List<DriverDTO>>()
+                {});
+        assertThat(search.getBody()).isEmpty();
+    }
+
+
+    @Test
+    public void importCars_ndjson_reportsFailedLines()
+    {
+        String body =
+            "{\"licensePlate\": \"IMPORT-1\", \"seatCount\": 4, \"convertible\": false, \"engineType\": \"GAS\"}\n"
+                + "{\"licensePlate\": \"EU-001\", \"seatCount\": 4, \"convertible\": false}\n"
+                + "\n"
+                + "{\"licensePlate\": \"IMPORT-2\", \"seatCount\": \n"
+                + "{\"seatCount\": 2, \"convertible\": true}\n"
+                + "{\"licensePlate\": \"IMPORT-3\", \"seatCount\": 2, \"convertible\": true, \"manufacturer\": {\"manufacturer\": \"audi\"}}\n";
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.valueOf("application/x-ndjson"));
+
+        ResponseEntity<CarImportReportDTO> responseEntity =
+            restTemplate.postForEntity(urlCars + "import", new HttpEntity<>(body, headers), CarImportReportDTO.class);
+
+        assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.OK);
+        CarImportReportDTO report = responseEntity.getBody();
+        assertThat(report.getImported()).isEqualTo(2);
+        assertThat(report.getFailed()).isEqualTo(3);
+        assertThat(report.getErrors()).extracting("line").containsExactly(4L, 5L, 2L);
+        assertThat(report.getErrors().get(2).getMessage()).containsIgnoringCase("uc_licenseplate");
+    }
+
+
+    @Test
+    public void importCars_csv_thenExport()
+    {
+        String body =
+            "licensePlate,seatCount,convertible,engineType,manufacturer\n"
+                + "CSV-1,4,false,ELECTRIC,\"Tesla, Inc.\"\n"
+                + "CSV-2,x,false,GAS,audi\n";
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.valueOf("text/csv"));
+
+        CarImportReportDTO report = restTemplate.postForObject(urlCars + "import", new HttpEntity<>(body, headers), CarImportReportDTO.class);
+        assertThat(report.getImported()).isEqualTo(1);
+        assertThat(report.getErrors()).extracting("line").containsExactly(3L);
+
+        String csv = restTemplate.getForObject(urlCars + "export?format=csv", String.class);
+        String[] lines = csv.split("\n");
+        assertThat(lines[0]).isEqualTo("id,licensePlate,convertible,engineType,rating,seatCount,manufacturer");
+        assertThat(lines).hasSize(7);
+        assertThat(lines[6]).endsWith(",CSV-1,false,ELECTRIC,,4,\"Tesla, Inc.\"");
+
+        String ndjson = restTemplate.getForObject(urlCars + "export", String.class);
+        assertThat(ndjson.split("\n")).hasSize(6);
+        assertThat(ndjson.split("\n")[0]).contains("\"licensePlate\":\"EU-001\"");
     }
 
 
@@ -224,6 +387,39 @@ public class ServerApplicantTestApplicationTests
     }
 
 
+    @Test
+    public void selectCarByDriver_concurrently_onlyOneSucceeds() throws Exception
+    {
+        // Data loaded from data.sql: car 2 is free, drivers 40 and 41 are ONLINE
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try
+        {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<HttpStatus>> responses = new ArrayList<>();
+            for (long driverId : new long[] {40, 41})
+            {
+                String url = UriComponentsBuilder.fromHttpUrl(urlDrivers + "select").queryParam("driverId", driverId).queryParam("carId", 2).toUriString();
+                responses.add(executor.submit(() -> {
+                    start.await();
+                    return restTemplate.exchange(url, HttpMethod.POST, null, String.class).getStatusCode();
+                }));
+            }
+            start.countDown();
+
+            List<HttpStatus> statuses = new ArrayList<>();
+            for (Future<HttpStatus> response : responses)
+            {
+                statuses.add(response.get(10, TimeUnit.SECONDS));
+            }
+            assertThat(statuses).containsExactlyInAnyOrder(HttpStatus.OK, HttpStatus.CONFLICT);
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+    }
+
+
     @Test
     public void selectCarByDriver_parameterCarIdNotSent()
     {
@@ -332,7 +528,7 @@ public class ServerApplicantTestApplicationTests
                     String.class);
 
         assertThat(responseEntity2.getStatusCode()).isEqualTo(HttpStatus.FORBIDDEN);
-        assertThat(responseEntity2.getBody()).isEqualTo("Driver '2' not ONLINE");
+        assertThat(responseEntity2.getBody()).isEqualTo("Driver '" + driverResponse2.getBody().getId() + "' not ONLINE");
     }
 
 
@@ -477,6 +673,400 @@ public class ServerApplicantTestApplicationTests
     }
 
 
+    @Test
+    public void findDrivers_keysetPages()
+    {
+        // Data loaded from data.sql: drivers 40 and 41 are ONLINE
+        UriComponentsBuilder firstPage = UriComponentsBuilder.fromHttpUrl(urlDrivers).queryParam("onlineStatus", "ONLINE").queryParam("limit", 1);
+        DriverPageDTO page1 = restTemplate.getForObject(firstPage.toUriString(), DriverPageDTO.class);
+
+        assertThat(page1).isNotNull();
+        assertThat(page1.getDrivers()).extracting("id").containsExactly(40L);
+        assertThat(page1.getNext()).isEqualTo(40L);
+
+        UriComponentsBuilder secondPage = firstPage.cloneBuilder().queryParam("after", page1.getNext());
+        DriverPageDTO page2 = restTemplate.getForObject(secondPage.toUriString(), DriverPageDTO.class);
+
+        assertThat(page2).isNotNull();
+        assertThat(page2.getDrivers()).extracting("id").containsExactly(41L);
+        assertThat(page2.getNext()).isNull();
+    }
+
+
+    @Test
+    public void streamDrivers()
+    {
+        // Data loaded from data.sql
+        UriComponentsBuilder builder = UriComponentsBuilder.fromHttpUrl(urlDrivers + "stream").queryParam("onlineStatus", "ONLINE");
+        ResponseEntity<String> responseEntity = restTemplate.getForEntity(builder.toUriString(), String.class);
+
+        assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(responseEntity.getBody()).isNotNull();
+        String[] lines = responseEntity.getBody().split("\n");
+        assertThat(lines).hasSize(2);
+        assertThat(lines[0]).contains("\"username\":\"driver-40\"");
+        assertThat(lines[1]).contains("\"username\":\"driver-41\"");
+    }
+
+
+    @Test
+    public void heartbeat_offlineDriver_onlineAndWrittenBehind()
+    {
+        // Data loaded from data.sql: driver 42 is OFFLINE
+        ResponseEntity<Void> responseEntity = restTemplate.postForEntity(urlDrivers + "{driverId}/heartbeat", null, Void.class, 42);
+        assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.OK);
+
+        DriverPageDTO page = restTemplate.getForObject(urlDrivers + "?onlineStatus=ONLINE", DriverPageDTO.class);
+        assertThat(page.getDrivers()).extracting("id").containsExactly(40L, 41L, 42L);
+        assertThat(page.getDrivers()).extracting("onlinestatus").containsOnly(OnlineStatus.ONLINE);
+        assertThat(restTemplate.getForObject(urlDrivers + "?onlineStatus=OFFLINE", DriverPageDTO.class).getDrivers()).isEmpty();
+        assertThat(driverPresenceRegistry.pendingWrites()).isEqualTo(1);
+
+        driverPresenceRegistry.flush();
+
+        assertThat(driverPresenceRegistry.pendingWrites()).isZero();
+        assertThat(restTemplate.getForObject(urlDrivers + "{driverId}", DriverDTO.class, 42).getOnlinestatus()).isEqualTo(OnlineStatus.ONLINE);
+    }
+
+
+    @Test
+    public void getCar_cachedDriverFollowsFlushedHeartbeat()
+    {
+        // Data loaded from data.sql: car 5 is assigned to driver 42, who is OFFLINE
+        assertThat(carService.find(5L).getDriver().getOnlineStatus()).isEqualTo(OnlineStatus.OFFLINE);
+
+        restTemplate.postForEntity(urlDrivers + "{driverId}/heartbeat", null, Void.class, 42);
+        driverPresenceRegistry.flush();
+
+        assertThat(carService.find(5L).getDriver().getOnlineStatus()).isEqualTo(OnlineStatus.ONLINE);
+    }
+
+
+    @Test
+    public void heartbeat_unknownDriver()
+    {
+        ResponseEntity<String> responseEntity = restTemplate.postForEntity(urlDrivers + "{driverId}/heartbeat", null, String.class, Integer.MAX_VALUE);
+
+        assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+    }
+
+
+    @Test
+    public void findNearbyDrivers()
+    {
+        // Data loaded from data.sql: driver 41 is ONLINE, driver 42 OFFLINE
+        restTemplate.put(urlDrivers + "{driverId}?longitude={longitude}&latitude={latitude}", null, 41, 13.405, 52.52);
+        restTemplate.put(urlDrivers + "{driverId}?longitude={longitude}&latitude={latitude}", null, 42, 13.405, 52.52);
+
+        UriComponentsBuilder builder =
+            UriComponentsBuilder.fromHttpUrl(urlDrivers + "nearby").queryParam("lat", 52.53).queryParam("lon", 13.405).queryParam("radiusKm", 5);
+        ResponseEntity<List<NearbyDriverDTO>> responseEntity =
+            restTemplate.exchange(builder.toUriString(), HttpMethod.GET, null, new ParameterizedTypeReference<List<NearbyDriverDTO>>()
+            {});
+
+        assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(responseEntity.getBody()).extracting("id").containsExactly(41L);
+        assertThat(responseEntity.getBody().get(0).getCoordinate().getLatitude()).isEqualTo(52.52);
+        assertThat(responseEntity.getBody().get(0).getDistanceKm()).isBetween(1.0, 1.2);
+    }
+
+
+    @Test
+    public void findNearbyDrivers_invalidRadius()
+    {
+        UriComponentsBuilder builder =
+            UriComponentsBuilder.fromHttpUrl(urlDrivers + "nearby").queryParam("lat", 52.53).queryParam("lon", 13.405).queryParam("radiusKm", -1);
+        ResponseEntity<String> responseEntity = restTemplate.getForEntity(builder.toUriString(), String.class);
+
+        assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(responseEntity.getBody()).contains("radiusKm");
+    }
+
+
+    @Test
+    public void updateLocation_invalidLatitude()
+    {
+        UriComponentsBuilder builder = UriComponentsBuilder.fromHttpUrl(urlDrivers + "41").queryParam("longitude", 13.405).queryParam("latitude", 91);
+        ResponseEntity<String> responseEntity = restTemplate.exchange(builder.toUriString(), HttpMethod.PUT, null, String.class);
+
+        assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+
+    @Test
+    public void ingestLocations_coalescedAndFlushed()
+    {
+        String body =
+            "[{\"driverId\": 41, \"latitude\": 52.52, \"longitude\": 13.405, \"timestamp\": \"2018-01-01T10:00:04Z\"},"
+                + "{\"driverId\": 41, \"latitude\": 48.13, \"longitude\": 11.58, \"timestamp\": \"2018-01-01T10:00:00Z\"},"
+                + "{\"driverId\": 999, \"latitude\": 48.13, \"longitude\": 11.58}]";
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+
+        ResponseEntity<String> responseEntity = restTemplate.postForEntity(urlDrivers + "locations", new HttpEntity<>(body, headers), String.class);
+        assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.ACCEPTED);
+
+        locationIngestionQueue.flush();
+
+        DriverDTO driverDTO = restTemplate.getForObject(urlDrivers + "{driverId}", DriverDTO.class, 41);
+        assertThat(driverDTO.getCoordinate().getLatitude()).isEqualTo(52.52);
+        assertThat(driverDTO.getCoordinate().getLongitude()).isEqualTo(13.405);
+    }
+
+
+    @Test
+    public void ingestLocations_futureTimestampTakenAsReceived()
+    {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+
+        restTemplate.postForEntity(
+            urlDrivers + "locations", new HttpEntity<>("[{\"driverId\": 41, \"latitude\": 1, \"longitude\": 1, \"timestamp\": \"2999-01-01T00:00:00Z\"}]", headers),
+            String.class);
+        restTemplate.postForEntity(urlDrivers + "locations", new HttpEntity<>("[{\"driverId\": 41, \"latitude\": 52.52, \"longitude\": 13.405}]", headers), String.class);
+        locationIngestionQueue.flush();
+
+        assertThat(restTemplate.getForObject(urlDrivers + "{driverId}", DriverDTO.class, 41).getCoordinate().getLatitude()).isEqualTo(52.52);
+    }
+
+
+    @Test
+    public void ingestLocations_invalidCoordinate()
+    {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+
+        ResponseEntity<String> responseEntity =
+            restTemplate.postForEntity(urlDrivers + "locations", new HttpEntity<>("[{\"driverId\": 41, \"latitude\": 91, \"longitude\": 0}]", headers), String.class);
+        assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+
+        responseEntity = restTemplate.postForEntity(urlDrivers + "locations", new HttpEntity<>("[]", headers), String.class);
+        assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+
+    @Test
+    public void driverEvents_locationUpdateInsideBoxPushed() throws IOException
+    {
+        HttpURLConnection connection =
+            (HttpURLConnection) new URL(urlDrivers + "events?minLat=52&minLon=13&maxLat=53&maxLon=14").openConnection();
+        connection.setRequestProperty(HttpHeaders.AUTHORIZATION, "Basic " + Base64.getEncoder().encodeToString("user:password".getBytes(StandardCharsets.UTF_8)));
+        connection.setReadTimeout(10000);
+        try (BufferedReader events = new BufferedReader(new InputStreamReader(connection.getInputStream(), StandardCharsets.UTF_8)))
+        {
+            assertThat(connection.getContentType()).startsWith(MediaType.TEXT_EVENT_STREAM_VALUE);
+            assertThat(events.readLine()).isEqualTo(":subscribed");
+
+            restTemplate.put(urlDrivers + "{driverId}?longitude={longitude}&latitude={latitude}", null, 40, 11.58, 48.13);
+            restTemplate.put(urlDrivers + "{driverId}?longitude={longitude}&latitude={latitude}", null, 41, 13.405, 52.52);
+
+            String line = events.readLine();
+            while (!line.startsWith("data:"))
+            {
+                assertThat(line).isIn("", "event:drivers");
+                line = events.readLine();
+            }
+            assertThat(line).contains("\"type\":\"LOCATION\"", "\"id\":41", "\"latitude\":52.52").doesNotContain("\"id\":40");
+        }
+        finally
+        {
+            connection.disconnect();
+        }
+    }
+
+
+    @Test
+    public void driverEvents_invertedBox_badRequest()
+    {
+        ResponseEntity<String> responseEntity = restTemplate.getForEntity(urlDrivers + "events?minLat=10&maxLat=5", String.class);
+
+        assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+
+    @Test
+    public void getDriver_cachedUntilLocationUpdated()
+    {
+        restTemplate.getForObject(urlDrivers + "{driverId}", DriverDTO.class, 41);
+        restTemplate.getForObject(urlDrivers + "{driverId}", DriverDTO.class, 41);
+        restTemplate.put(urlDrivers + "{driverId}?longitude={longitude}&latitude={latitude}", null, 41, 13.405, 52.52);
+
+        DriverDTO driverDTO = restTemplate.getForObject(urlDrivers + "{driverId}", DriverDTO.class, 41);
+        assertThat(driverDTO.getCoordinate().getLatitude()).isEqualTo(52.52);
+
+        Map<String, CacheStatisticsDTO> statistics =
+            restTemplate.exchange("http://localhost:" + port + "/v1/caches", HttpMethod.GET, null, new ParameterizedTypeReference<Map<String, CacheStatisticsDTO>>()
+            {}).getBody();
+        assertThat(statistics).containsKeys("cars", "drivers");
+        assertThat(statistics.get("drivers").getHitCount()).isPositive();
+        assertThat(statistics.get("drivers").getMissCount()).isPositive();
+    }
+
+
+    @Test
+    public void searchDrivers_answeredByIndex()
+    {
+        CacheStatisticsDTO before = cacheStatistics().get("searchPlans");
+
+        List<DriverDTO> gas = searchDrivers(ImmutableMap.of("engineType", "GAS", "onlineStatus", "ONLINE"));
+        List<DriverDTO> hybrid = searchDrivers(ImmutableMap.of("onlineStatus", "OFFLINE", "engineType", "HYBRID"));
+        List<DriverDTO> containing = searchDrivers(ImmutableMap.of("username", "VER-4", "licensePlate", "u-0"));
+
+        CacheStatisticsDTO after = cacheStatistics().get("searchPlans");
+        assertThat(gas).extracting("id").containsExactly(40L);
+        assertThat(hybrid).extracting("id").containsExactly(42L);
+        assertThat(containing).extracting("id").containsExactly(40L, 42L);
+        // no query was prepared
+        assertThat(after.getHitCount() + after.getMissCount()).isEqualTo(before.getHitCount() + before.getMissCount());
+    }
+
+
+    @Test
+    public void searchDrivers_indexFollowsCarUpdate()
+    {
+        CarDTO car = restTemplate.getForObject(urlCars + "{carId}", CarDTO.class, "1");
+        CarDTO updated = new CarDTO(car.getConvertible(), car.getEngineType(), "B-INDEX-1", car.getManufacturer(), car.getRating(), car.getSeatCount());
+        updated.setId(car.getId());
+
+        restTemplate.exchange(urlCars + "{carId}", HttpMethod.PUT, new HttpEntity<>(updated), Void.class, "1");
+
+        assertThat(searchDrivers(ImmutableMap.of("licensePlate", "index-1"))).extracting("id").containsExactly(40L);
+        assertThat(searchDrivers(ImmutableMap.of("licensePlate", "EU-001"))).isEmpty();
+    }
+
+
+    @Test
+    public void searchDrivers_repeatedFromCacheUntilCarAssigned()
+    {
+        Map<String, String> electric = ImmutableMap.of("engineType", "ELECTRIC", "onlineStatus", "ONLINE");
+        CacheStatisticsDTO before = cacheStatistics().get("driverSearches");
+
+        assertThat(searchDrivers(electric)).isEmpty();
+        assertThat(searchDrivers(ImmutableMap.of("onlineStatus", "ONLINE", "engineType", "ELECTRIC"))).isEmpty();
+        assertThat(cacheStatistics().get("driverSearches").getHitCount() - before.getHitCount()).isEqualTo(1);
+
+        restTemplate.postForEntity(
+            UriComponentsBuilder.fromHttpUrl(urlDrivers + "select").queryParam("driverId", 41).queryParam("carId", 3).toUriString(), null, Void.class);
+
+        assertThat(searchDrivers(electric)).extracting("id").containsExactly(41L);
+        assertThat(cacheStatistics().get("driverSearches").getMissCount() - before.getMissCount()).isEqualTo(2);
+    }
+
+
+    @Test
+    public void queryDrivers_listsRangesOrderAndLimit()
+    {
+        Map<String, Object> gasOrHybridByRating =
+            ImmutableMap.of("engineType", Arrays.asList("GAS", "HYBRID"), "minRating", 2.0, "sort", "RATING", "descending", true);
+
+        assertThat(queryDrivers(gasOrHybridByRating).getBody().getDrivers()).extracting("id").containsExactly(40L, 42L);
+        assertThat(queryDrivers(ImmutableMap.of("onlineStatus", Arrays.asList("ONLINE", "OFFLINE"), "minSeatCount", 4)).getBody().getDrivers())
+            .extracting("id")
+            .containsExactly(40L);
+        assertThat(queryDrivers(ImmutableMap.of("sort", "SEAT_COUNT", "limit", 1)).getBody().getDrivers()).extracting("id").containsExactly(42L);
+        assertThat(queryDrivers(ImmutableMap.of("limit", 0)).getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+
+    @Test
+    public void queryDrivers_pagedWithCursor_sameDriversAsOnePage()
+    {
+        for (String sort : Arrays.asList("ID", "RATING", "SEAT_COUNT", "MANUFACTURER"))
+        {
+            for (boolean descending : Arrays.asList(false, true))
+            {
+                Map<String, Object> query = new HashMap<>();
+                query.put("sort", sort);
+                query.put("descending", descending);
+                List<DriverDTO> expected = queryDrivers(query).getBody().getDrivers();
+
+                query.put("limit", 1);
+                List<DriverDTO> paged = new ArrayList<>();
+                DriverSearchPageDTO page = queryDrivers(query).getBody();
+                paged.addAll(page.getDrivers());
+                while (page.getNext() != null)
+                {
+                    query.put("after", page.getNext());
+                    page = queryDrivers(query).getBody();
+                    paged.addAll(page.getDrivers());
+                }
+
+                assertThat(paged.stream().map(DriverDTO::getId).collect(Collectors.toList()))
+                    .as(sort + (descending ? " descending" : ""))
+                    .containsExactlyElementsOf(expected.stream().map(DriverDTO::getId).collect(Collectors.toList()));
+            }
+        }
+        ResponseEntity<String> invalidCursor =
+            restTemplate.postForEntity(urlDrivers + "query", ImmutableMap.of("sort", "RATING", "after", new DriverSearchCursorDTO("high", 40L)), String.class);
+        assertThat(invalidCursor.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+
+    @Test
+    public void queryDrivers_databaseAnswersLikeIndex()
+    {
+        restTemplate.delete(urlDrivers + "{driverId}", 40);
+
+        List<DriverSearchCriteria> searches =
+            Arrays.asList(
+                DriverSearchCriteria.newBuilder().setOnlineStatus(Arrays.asList(OnlineStatus.values())).setMaxRating(5.0F).createDriverSearchCriteria(),
+                DriverSearchCriteria.newBuilder().setEngineType(CarDO.EngineType.HYBRID).setMinSeatCount((short) 3).createDriverSearchCriteria(),
+                DriverSearchCriteria.newBuilder().setSort(DriverSearchCriteria.Sort.MANUFACTURER).setDescending(true).setLimit(1).createDriverSearchCriteria(),
+                DriverSearchCriteria.newBuilder().setUsername("driver").setSort(DriverSearchCriteria.Sort.RATING).createDriverSearchCriteria(),
+                DriverSearchCriteria.newBuilder().setSort(DriverSearchCriteria.Sort.RATING).setDescending(true).setAfter(new DriverSearchCursor(5.0F, 40L))
+                    .createDriverSearchCriteria(),
+                DriverSearchCriteria.newBuilder().setSort(DriverSearchCriteria.Sort.MANUFACTURER).setAfter(new DriverSearchCursor(null, 40L))
+                    .createDriverSearchCriteria(),
+                DriverSearchCriteria.newBuilder().setDescending(true).setAfter(new DriverSearchCursor(null, 42L)).createDriverSearchCriteria());
+
+        for (DriverSearchCriteria criteria : searches)
+        {
+            assertThat(driverRepository.findByCriteria(criteria)).extracting("id").containsExactlyElementsOf(driverSearchIndex.search(criteria));
+        }
+        assertThat(driverRepository.findByCriteria(DriverSearchCriteria.newBuilder().createDriverSearchCriteria())).extracting("id").doesNotContain(40L);
+    }
+
+
+    @Test
+    public void prometheusMetrics()
+    {
+        restTemplate.getForObject(urlCars + "{carId}", CarDTO.class, 1);
+        restTemplate.postForEntity(urlDrivers + "search", ImmutableMap.of("username", "driver"), String.class);
+
+        ResponseEntity<String> responseEntity = restTemplate.getForEntity("http://localhost:" + port + "/actuator/prometheus", String.class);
+
+        assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(responseEntity.getBody())
+            .contains("http_server_requests_seconds{exception=\"None\",method=\"POST\",status=\"200\",uri=\"/v1/drivers/search\",quantile=\"0.99\",}")
+            .contains("service_method_seconds_count{class=\"DefaultDriverService\",exception=\"none\",method=\"searchByFieldsOfCarAndDriver\",}")
+            .contains("repository_query_seconds_count{class=\"DriverRepository\",exception=\"none\",method=\"findSummariesByIdIn\",}")
+            .contains("cache_gets_total{cache=\"searchPlans\",cacheManager=\"driverSearchPlans\",name=\"searchPlans\",result=\"miss\",}")
+            .contains("cache_gets_total{cache=\"driverSearches\",cacheManager=\"driverSearchResults\",name=\"driverSearches\",result=\"miss\",}")
+            .contains("hibernate_statements_total")
+            .contains("hikaricp_connections_active");
+    }
+
+
+    private Map<String, CacheStatisticsDTO> cacheStatistics()
+    {
+        return restTemplate.exchange("http://localhost:" + port + "/v1/caches", HttpMethod.GET, null, new ParameterizedTypeReference<Map<String, CacheStatisticsDTO>>()
+        {}).getBody();
+    }
+
+
+    private ResponseEntity<DriverSearchPageDTO> queryDrivers(Map<String, Object> query)
+    {
+        return restTemplate.postForEntity(urlDrivers + "query", query, DriverSearchPageDTO.class);
+    }
+
+
+    private List<DriverDTO> searchDrivers(Map<String, String> criteria)
+    {
+        return restTemplate.exchange(urlDrivers + "search", HttpMethod.POST, new HttpEntity<>(criteria), new ParameterizedTypeReference<List<DriverDTO>>()
+        {}).getBody();
+    }
+
+
     private CarDTO createCarDTO(String licensePlate_selectCar)
     {
         return new CarDTO(Boolean.FALSE, CarDO.EngineType.ELECTRIC, licensePlate_selectCar, new ManufacturerDO("Manufacturer"), 1.0F, (short) 5);
@@ -721,4 +1311,17 @@ public class ServerApplicantTestApplicationTests
         assertThat(cars).extracting("id").containsExactlyInAnyOrder(40L);
     }
 
+
+    private RestTemplate restTemplate(String username, String password)
+    {
+        RestTemplateBuilder builder = password == null ? restTemplateBuilder : restTemplateBuilder.basicAuthorization(username, password);
+        return builder
+            .errorHandler(new DefaultResponseErrorHandler()
+            {
+                protected boolean hasError(HttpStatus statusCode)
+                {
+                    return false;
+                }
+            }).build();
+    }
 }
@@ -0,0 +1,132 @@
+package org.poc.dataaccessobject;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+
+import javax.persistence.TypedQuery;
+
+import org.junit.Test;
+import org.poc.domainobject.CarDO;
+import org.poc.domainvalue.DriverSearchCriteria;
+import org.poc.domainvalue.DriverSearchCursor;
+import org.poc.domainvalue.DriverSummary;
+import org.poc.domainvalue.OnlineStatus;
+
+public class DriverSearchPlansTest
+{
+
+    private final DriverSearchPlans driverSearchPlans = new DriverSearchPlans();
+
+
+    @Test
+    public void plan_sameFields_preparedOnce()
+    {
+        DriverSearchPlans.SearchPlan gas =
+            driverSearchPlans.plan(DriverSearchCriteria.newBuilder().setEngineType(CarDO.EngineType.GAS).setOnlineStatus(OnlineStatus.ONLINE).createDriverSearchCriteria());
+        DriverSearchPlans.SearchPlan electric =
+            driverSearchPlans.plan(DriverSearchCriteria.newBuilder().setOnlineStatus(OnlineStatus.OFFLINE).setEngineType(CarDO.EngineType.ELECTRIC).createDriverSearchCriteria());
+        DriverSearchPlans.SearchPlan username = driverSearchPlans.plan(DriverSearchCriteria.newBuilder().setUsername("driver").createDriverSearchCriteria());
+
+        assertThat(electric).isSameAs(gas);
+        assertThat(username).isNotSameAs(gas);
+        assertThat(gas.getJpql())
+            .endsWith("from DriverDO d join d.car c where d.deleted = false and d.onlineStatus in :onlineStatus and c.engineType in :engineType order by d.id");
+        assertThat(driverSearchPlans.statistics().hitCount()).isEqualTo(1);
+        assertThat(driverSearchPlans.statistics().missCount()).isEqualTo(2);
+    }
+
+
+    @Test
+    public void plan_noFields_noRestriction()
+    {
+        assertThat(driverSearchPlans.plan(DriverSearchCriteria.newBuilder().createDriverSearchCriteria()).getJpql())
+            .endsWith("from DriverDO d join d.car c where d.deleted = false order by d.id");
+    }
+
+
+    @Test
+    public void plan_sorted_onePlanPerOrder()
+    {
+        DriverSearchCriteria.DriverSearchCriteriaBuilder byRating = DriverSearchCriteria.newBuilder().setMinRating(4.0F).setSort(DriverSearchCriteria.Sort.RATING);
+
+        DriverSearchPlans.SearchPlan ascending = driverSearchPlans.plan(byRating.createDriverSearchCriteria());
+        DriverSearchPlans.SearchPlan descending = driverSearchPlans.plan(byRating.setDescending(true).createDriverSearchCriteria());
+        DriverSearchPlans.SearchPlan other = driverSearchPlans.plan(byRating.setMaxRating(5.0F).setMinRating(null).createDriverSearchCriteria());
+
+        assertThat(ascending).isNotSameAs(descending);
+        assertThat(other).isSameAs(descending);
+        assertThat(descending.getJpql()).endsWith("where d.deleted = false and c.rating between :minRating and :maxRating order by c.rating desc nulls last, d.id");
+    }
+
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void plan_afterCursor_onePlanPerKindOfCursor()
+    {
+        DriverSearchCriteria.DriverSearchCriteriaBuilder byRating = DriverSearchCriteria.newBuilder().setSort(DriverSearchCriteria.Sort.RATING).setDescending(true);
+
+        DriverSearchPlans.SearchPlan start = driverSearchPlans.plan(byRating.createDriverSearchCriteria());
+        DriverSearchCriteria afterValue = byRating.setAfter(new DriverSearchCursor(4.5F, 7L)).createDriverSearchCriteria();
+        DriverSearchPlans.SearchPlan value = driverSearchPlans.plan(afterValue);
+        DriverSearchPlans.SearchPlan noValue = driverSearchPlans.plan(byRating.setAfter(new DriverSearchCursor(null, 7L)).createDriverSearchCriteria());
+        DriverSearchPlans.SearchPlan byId =
+            driverSearchPlans.plan(DriverSearchCriteria.newBuilder().setAfter(new DriverSearchCursor(null, 7L)).createDriverSearchCriteria());
+
+        assertThat(value).isNotSameAs(start).isNotSameAs(noValue);
+        assertThat(value.getJpql())
+            .endsWith("where d.deleted = false and (c.rating < :afterValue or c.rating is null or (c.rating = :afterValue and d.id > :afterId)) order by c.rating desc nulls last, d.id");
+        assertThat(noValue.getJpql()).endsWith("where d.deleted = false and (c.rating is null and d.id > :afterId) order by c.rating desc nulls last, d.id");
+        assertThat(byId.getJpql()).endsWith("where d.deleted = false and d.id > :afterId order by d.id");
+
+        TypedQuery<DriverSummary> query = mock(TypedQuery.class);
+        value.bind(query, afterValue);
+
+        verify(query).setParameter("afterId", 7L);
+        verify(query).setParameter("afterValue", 4.5F);
+        verifyNoMoreInteractions(query);
+    }
+
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void bind_valuesOnly_containingLowerCased()
+    {
+        DriverSearchCriteria criteria = DriverSearchCriteria.newBuilder().setManufacturer("Tesla").setSeatCount((short) 4).createDriverSearchCriteria();
+        TypedQuery<DriverSummary> query = mock(TypedQuery.class);
+
+        driverSearchPlans.plan(criteria).bind(query, criteria);
+
+        verify(query).setParameter("manufacturer", "%tesla%");
+        verify(query).setParameter("minSeatCount", (short) 4);
+        verify(query).setParameter("maxSeatCount", (short) 4);
+        verifyNoMoreInteractions(query);
+    }
+
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void bind_openRangeAndListAndLimit()
+    {
+        DriverSearchCriteria criteria =
+            DriverSearchCriteria
+                .newBuilder()
+                .setMinRating(4.0F)
+                .setEngineType(Arrays.asList(CarDO.EngineType.HYBRID, CarDO.EngineType.ELECTRIC))
+                .setLimit(10)
+                .createDriverSearchCriteria();
+        TypedQuery<DriverSummary> query = mock(TypedQuery.class);
+
+        driverSearchPlans.plan(criteria).bind(query, criteria);
+
+        verify(query).setParameter("engineType", EnumSet.of(CarDO.EngineType.ELECTRIC, CarDO.EngineType.HYBRID));
+        verify(query).setParameter("minRating", 4.0F);
+        verify(query).setParameter("maxRating", Float.MAX_VALUE);
+        verify(query).setMaxResults(10);
+        verifyNoMoreInteractions(query);
+    }
+}
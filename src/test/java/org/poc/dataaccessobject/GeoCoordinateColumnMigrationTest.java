@@ -0,0 +1,65 @@
+package org.poc.dataaccessobject;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+public class GeoCoordinateColumnMigrationTest
+{
+    // Point(x=9.5, y=55.954) as written by the previous mapping
+    private static final String SERIALIZED_POINT =
+        "aced0005737200226f72672e737072696e676672616d65776f726b2e646174612e67656f2e506f696e7431b9e90ef11a4006020002440001784400017978704023000000000000404bfa1cac083127";
+
+    private EmbeddedDatabase database;
+    private JdbcTemplate jdbcTemplate;
+
+
+    @Before
+    public void init()
+    {
+        database = new EmbeddedDatabaseBuilder().setType(EmbeddedDatabaseType.H2).generateUniqueName(true).build();
+        jdbcTemplate = new JdbcTemplate(database);
+        jdbcTemplate.execute("create table driver (id bigint not null, coordinate binary(255), primary key (id))");
+        jdbcTemplate.update("insert into driver (id, coordinate) values (1, '" + SERIALIZED_POINT + "')");
+        jdbcTemplate.update("insert into driver (id, coordinate) values (2, null)");
+    }
+
+
+    @After
+    public void shutdown()
+    {
+        database.shutdown();
+    }
+
+
+    @Test
+    public void migrate_blobToNumericColumns()
+    {
+        new GeoCoordinateColumnMigration(jdbcTemplate).afterPropertiesSet();
+
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList("select * from driver order by id");
+        assertThat(rows).hasSize(2);
+        assertThat(rows.get(0)).containsEntry("LATITUDE", 55.954).containsEntry("LONGITUDE", 9.5).doesNotContainKey("COORDINATE");
+        assertThat(rows.get(1)).containsEntry("LATITUDE", null).containsEntry("LONGITUDE", null);
+    }
+
+
+    @Test
+    public void migrate_alreadyMigrated_noop()
+    {
+        GeoCoordinateColumnMigration migration = new GeoCoordinateColumnMigration(jdbcTemplate);
+        migration.afterPropertiesSet();
+        migration.afterPropertiesSet();
+
+        assertThat(jdbcTemplate.queryForObject("select latitude from driver where id = 1", Double.class)).isEqualTo(55.954);
+    }
+}
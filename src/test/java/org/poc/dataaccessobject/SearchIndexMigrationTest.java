@@ -0,0 +1,118 @@
+package org.poc.dataaccessobject;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+/**
+ * Checks with <code>EXPLAIN</code> that the hot driver and car queries are answered from an index.
+ */
+public class SearchIndexMigrationTest
+{
+    private EmbeddedDatabase database;
+    private JdbcTemplate jdbcTemplate;
+
+
+    @Before
+    public void init()
+    {
+        database = new EmbeddedDatabaseBuilder().setType(EmbeddedDatabaseType.H2).generateUniqueName(true).build();
+        jdbcTemplate = new JdbcTemplate(database);
+        jdbcTemplate.execute("create table driver (id bigint not null, online_status varchar(255) not null, username varchar(255) not null, primary key (id))");
+        jdbcTemplate.execute("create table car (id bigint not null, driver_fk bigint, manufacturer varchar(255), primary key (id))");
+        jdbcTemplate.execute("insert into driver select x, case when mod(x, 10) = 0 then 'ONLINE' else 'OFFLINE' end, 'driver' || x from system_range(1, 2000)");
+        jdbcTemplate.execute("insert into car select x, x, 'MANUFACTURER-' || mod(x, 50) from system_range(1, 2000)");
+    }
+
+
+    @After
+    public void shutdown()
+    {
+        database.shutdown();
+    }
+
+
+    @Test
+    public void explain_withoutMigration_tableScan()
+    {
+        assertThat(explain("select * from driver where online_status = 'ONLINE'")).contains("tableScan");
+        assertThat(explain("select * from car where driver_fk = 40")).contains("tableScan");
+    }
+
+
+    @Test
+    public void explain_findByOnlineStatus_usesIndex()
+    {
+        new SearchIndexMigration(jdbcTemplate).afterPropertiesSet();
+        jdbcTemplate.execute("analyze");
+
+        assertThat(explain("select * from driver where online_status = 'ONLINE'")).contains("IDX_DRIVER_ONLINE_STATUS").doesNotContain("tableScan");
+        // keyset page: either the status index or an id range walked in order, never the whole table
+        assertThat(explain("select * from driver where online_status = 'ONLINE' and id > 100 order by id limit 100")).doesNotContain("tableScan");
+    }
+
+
+    @Test
+    public void explain_findByCar_usesIndex()
+    {
+        new SearchIndexMigration(jdbcTemplate).afterPropertiesSet();
+
+        assertThat(explain("select * from car where driver_fk = 40")).contains("IDX_CAR_DRIVER").doesNotContain("tableScan");
+        assertThat(explain("select d.* from driver d left outer join car c on d.id = c.driver_fk where d.id = 40")).contains("IDX_CAR_DRIVER");
+    }
+
+
+    @Test
+    public void explain_manufacturer_usesIndex()
+    {
+        new SearchIndexMigration(jdbcTemplate).afterPropertiesSet();
+
+        assertThat(explain("select * from car where manufacturer = 'MANUFACTURER-X'")).contains("IDX_CAR_MANUFACTURER").doesNotContain("tableScan");
+    }
+
+
+    @Test
+    public void migrate_repeated_noop()
+    {
+        SearchIndexMigration migration = new SearchIndexMigration(jdbcTemplate);
+        migration.afterPropertiesSet();
+        migration.afterPropertiesSet();
+
+        assertThat(jdbcTemplate.queryForObject("select count(distinct index_name) from information_schema.indexes where index_name like 'IDX_%'", Integer.class))
+            .isEqualTo(3);
+    }
+
+
+    @Test
+    public void migrate_missingTables_skipped()
+    {
+        jdbcTemplate.execute("drop table car");
+
+        new SearchIndexMigration(jdbcTemplate).afterPropertiesSet();
+
+        assertThat(explain("select * from driver where online_status = 'ONLINE'")).contains("tableScan");
+    }
+
+
+    @Test
+    public void trigramIndexes_failing_loggedAndSkipped()
+    {
+        // no pg_trgm on H2, every statement fails
+        new SearchIndexMigration(jdbcTemplate).createTrigramIndexes();
+
+        assertThat(jdbcTemplate.queryForObject("select count(distinct index_name) from information_schema.indexes where index_name like 'IDX_%'", Integer.class))
+            .isZero();
+    }
+
+
+    private String explain(String sql)
+    {
+        return jdbcTemplate.queryForObject("explain " + sql, String.class);
+    }
+}
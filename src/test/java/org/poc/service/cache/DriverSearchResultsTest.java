@@ -0,0 +1,163 @@
+package org.poc.service.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+import org.poc.domainobject.CarDO;
+import org.poc.domainobject.DriverDO;
+import org.poc.domainobject.ManufacturerDO;
+import org.poc.domainvalue.DriverSearchCriteria;
+import org.poc.domainvalue.DriverSummary;
+import org.poc.domainvalue.OnlineStatus;
+
+public class DriverSearchResultsTest
+{
+
+    private static final DriverSearchCriteria GAS = DriverSearchCriteria.newBuilder().setEngineType(CarDO.EngineType.GAS).createDriverSearchCriteria();
+    private static final DriverSearchCriteria OFFLINE = DriverSearchCriteria.newBuilder().setOnlineStatus(OnlineStatus.OFFLINE).createDriverSearchCriteria();
+    private static final DriverSearchCriteria TESLA = DriverSearchCriteria.newBuilder().setManufacturer("tesla").createDriverSearchCriteria();
+
+    private final DriverSearchResults driverSearchResults = new DriverSearchResults(60000, 100);
+    private final AtomicInteger searches = new AtomicInteger();
+
+
+    @Test
+    public void get_equalCriteria_searchedOnce()
+    {
+        List<DriverSummary> first = search(GAS, driver(1L, 11L));
+        List<DriverSummary> second = search(DriverSearchCriteria.newBuilder().setEngineType(CarDO.EngineType.GAS).createDriverSearchCriteria(), driver(2L, 12L));
+
+        assertThat(second).isEqualTo(first);
+        assertThat(searches.get()).isEqualTo(1);
+        assertThat(driverSearchResults.statistics().hitCount()).isEqualTo(1);
+    }
+
+
+    @Test
+    public void driverChanged_onlyResultsListingTheDriverDropped()
+    {
+        search(GAS, driver(1L, 11L));
+        search(OFFLINE, driver(2L, 12L));
+
+        driverSearchResults.driverChanged(1L);
+
+        assertThat(searchAgain(GAS)).isTrue();
+        assertThat(searchAgain(OFFLINE)).isFalse();
+    }
+
+
+    @Test
+    public void carChanged_resultsListingTheCarOrMatchedByItDropped()
+    {
+        search(GAS, driver(1L, 11L));
+        search(OFFLINE);
+        search(TESLA);
+        CarDO carDO = new CarDO(false, CarDO.EngineType.ELECTRIC, "B-1", new ManufacturerDO("Tesla"), 4.5F, (short) 4);
+        carDO.setId(13L);
+        carDO.setDriver(driverDO(3L, OnlineStatus.ONLINE));
+
+        driverSearchResults.carChanged(carDO);
+
+        assertThat(searchAgain(GAS)).isFalse();
+        // the driver is only known by id, its online state could match
+        assertThat(searchAgain(OFFLINE)).isTrue();
+        assertThat(searchAgain(TESLA)).isTrue();
+    }
+
+
+    @Test
+    public void carChanged_noDriver_onlyResultsListingTheCarDropped()
+    {
+        search(GAS, driver(1L, 11L));
+        search(TESLA);
+        CarDO carDO = new CarDO(false, CarDO.EngineType.ELECTRIC, "B-1", new ManufacturerDO("Tesla"), 4.5F, (short) 4);
+        carDO.setId(11L);
+
+        driverSearchResults.carChanged(carDO);
+
+        assertThat(searchAgain(GAS)).isTrue();
+        assertThat(searchAgain(TESLA)).isFalse();
+    }
+
+
+    @Test
+    public void carAssigned_resultsMatchedByDriverAndCarDropped()
+    {
+        search(TESLA);
+        search(OFFLINE);
+        search(DriverSearchCriteria.newBuilder().setManufacturer("tesla").setUsername("other").createDriverSearchCriteria());
+        CarDO carDO = new CarDO(false, CarDO.EngineType.ELECTRIC, "B-1", new ManufacturerDO("Tesla"), 4.5F, (short) 4);
+        carDO.setId(13L);
+
+        driverSearchResults.carAssigned(3L, driverDO(3L, OnlineStatus.ONLINE), carDO);
+
+        assertThat(searchAgain(TESLA)).isTrue();
+        assertThat(searchAgain(OFFLINE)).isFalse();
+        assertThat(searchAgain(DriverSearchCriteria.newBuilder().setUsername("other").setManufacturer("tesla").createDriverSearchCriteria())).isFalse();
+    }
+
+
+    @Test
+    public void onlineStatusChanged_resultsListingTheDriversOrOfTheStateDropped()
+    {
+        search(GAS, driver(1L, 11L));
+        search(TESLA, driver(2L, 12L));
+        search(OFFLINE);
+
+        driverSearchResults.onlineStatusChanged(Arrays.asList(5L, 2L), OnlineStatus.OFFLINE);
+
+        assertThat(searchAgain(GAS)).isFalse();
+        assertThat(searchAgain(TESLA)).isTrue();
+        assertThat(searchAgain(OFFLINE)).isTrue();
+    }
+
+
+    @Test
+    public void get_invalidatedWhileSearching_resultNotKept()
+    {
+        driverSearchResults.get(GAS, () -> {
+            searches.incrementAndGet();
+            driverSearchResults.driverChanged(7L);
+            return Collections.singletonList(driver(1L, 11L));
+        });
+
+        assertThat(searchAgain(GAS)).isTrue();
+    }
+
+
+    private List<DriverSummary> search(DriverSearchCriteria criteria, DriverSummary... drivers)
+    {
+        return driverSearchResults.get(criteria, () -> {
+            searches.incrementAndGet();
+            return Arrays.asList(drivers);
+        });
+    }
+
+
+    private boolean searchAgain(DriverSearchCriteria criteria)
+    {
+        int before = searches.get();
+        search(criteria);
+        return searches.get() > before;
+    }
+
+
+    private static DriverSummary driver(long driverId, long carId)
+    {
+        return new DriverSummary(driverId, "driver" + driverId, "password", OnlineStatus.ONLINE, null, null, carId);
+    }
+
+
+    private static DriverDO driverDO(long driverId, OnlineStatus onlineStatus)
+    {
+        DriverDO driverDO = new DriverDO("driver" + driverId, "password");
+        driverDO.setId(driverId);
+        driverDO.setOnlineStatus(onlineStatus);
+        return driverDO;
+    }
+}
@@ -0,0 +1,115 @@
+package org.poc.service.car;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Supplier;
+
+import javax.validation.Validation;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.poc.domainobject.CarDO;
+import org.poc.domainobject.ManufacturerDO;
+import org.poc.domainvalue.CarImportReport;
+import org.poc.exception.ConstraintsViolationException;
+
+@RunWith(MockitoJUnitRunner.class)
+public class CarImporterTest
+{
+
+    @Mock
+    private CarService carService;
+
+    private CarImporter carImporter;
+
+
+    @Before
+    public void init()
+    {
+        carImporter = new CarImporter(carService, Validation.buildDefaultValidatorFactory().getValidator());
+    }
+
+
+    @Test
+    public void importCars_invalidLines_reportedAndOthersStored() throws Exception
+    {
+        CarImportReport report =
+            carImporter.importCars(lines(() -> car("EU-001"), () -> {
+                throw new IllegalArgumentException("Expected 7 fields but found 2");
+            }, () -> car(null), () -> car("EU-004")));
+
+        assertThat(report.getImported()).isEqualTo(2);
+        assertThat(report.getFailed()).isEqualTo(2);
+        assertThat(report.getErrors()).extracting("line").containsExactly(2L, 3L);
+        assertThat(report.getErrors()).extracting("message").containsExactly("Expected 7 fields but found 2", "License can not be null!");
+    }
+
+
+    @Test
+    public void importCars_chunkRejected_storedOneByOne() throws Exception
+    {
+        when(carService.createAll(any())).thenThrow(new ConstraintsViolationException("duplicate"));
+        when(carService.create(any())).thenAnswer(invocation -> invocation.getArgument(0)).thenThrow(new ConstraintsViolationException("EU-001 exists"));
+
+        CarImportReport report = carImporter.importCars(lines(() -> car("EU-002"), () -> car("EU-001")));
+
+        assertThat(report.getImported()).isEqualTo(1);
+        assertThat(report.getErrors()).extracting("line").containsExactly(2L);
+        assertThat(report.getErrors()).extracting("message").containsExactly("EU-001 exists");
+    }
+
+
+    private static CarDO car(String licensePlate)
+    {
+        return new CarDO(false, CarDO.EngineType.GAS, licensePlate, new ManufacturerDO("Tesla"), 4.5F, (short) 4);
+    }
+
+
+    @SafeVarargs
+    private static CarLines lines(Supplier<CarDO>... cars)
+    {
+        List<Supplier<CarDO>> list = Arrays.asList(cars);
+        Iterator<Supplier<CarDO>> iterator = list.iterator();
+        return new CarLines()
+        {
+            private Supplier<CarDO> current;
+            private long lineNumber;
+
+
+            @Override
+            public boolean next()
+            {
+                if (!iterator.hasNext())
+                {
+                    return false;
+                }
+                current = iterator.next();
+                lineNumber++;
+                return true;
+            }
+
+
+            @Override
+            public long getLineNumber()
+            {
+                return lineNumber;
+            }
+
+
+            @Override
+            public CarDO parse() throws IOException
+            {
+                return current.get();
+            }
+        };
+    }
+}
@@ -1,9 +1,12 @@
 package org.poc.service.car;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
+import java.util.Arrays;
+import java.util.List;
 import java.util.Optional;
 
 import org.junit.BeforeClass;
@@ -19,6 +22,9 @@ import org.poc.exception.ConstraintsViolationException;
 import org.springframework.dao.DataIntegrityViolationException;
 
 import org.poc.exception.EntityNotFoundException;
+import org.poc.service.cache.DriverSearchResults;
+import org.poc.service.cache.EntityCaches;
+import org.poc.service.search.DriverSearchIndex;
 
 @RunWith(MockitoJUnitRunner.class)
 public class DefaultCarServiceTest
@@ -27,6 +33,15 @@ public class DefaultCarServiceTest
     @Mock
     private CarRepository carRepository;
 
+    @Mock
+    private EntityCaches entityCaches;
+
+    @Mock
+    private DriverSearchResults driverSearchResults;
+
+    @Mock
+    private DriverSearchIndex driverSearchIndex;
+
     @InjectMocks
     private DefaultCarService carService;
 
@@ -45,6 +60,7 @@ public class DefaultCarServiceTest
         when(carRepository.save(any(CarDO.class))).thenReturn(car);
         carService.create(car);
         verify(carRepository, times(1)).save(car);
+        verify(driverSearchResults, never()).carChanged(any());
     }
 
 
@@ -60,6 +76,30 @@ public class DefaultCarServiceTest
     }
 
 
+    @Test
+    public void createAll() throws ConstraintsViolationException
+    {
+        List<CarDO> cars = Arrays.asList(new CarDO(), new CarDO());
+        when(carRepository.saveAll(cars)).thenReturn(cars);
+
+        assertThat(carService.createAll(cars)).isEqualTo(cars);
+        verify(carRepository, times(1)).saveAll(cars);
+        verify(carRepository, times(1)).flush();
+    }
+
+
+    @Test
+    public void createAll_constraintViolated()
+    {
+        List<CarDO> cars = Arrays.asList(new CarDO(), new CarDO());
+        doThrow(new DataIntegrityViolationException("Exception thrown")).when(carRepository).flush();
+
+        assertThatThrownBy(() -> carService.createAll(cars))
+            .isInstanceOf(ConstraintsViolationException.class)
+            .hasMessageContaining("Cars could not be created with error: Exception thrown");
+    }
+
+
     @Test
     public void find() throws EntityNotFoundException
     {
@@ -93,6 +133,9 @@ public class DefaultCarServiceTest
 
         verify(carRepository, times(1)).findById(car.getId());
         verify(carRepository, times(1)).delete(car);
+        verify(entityCaches, times(1)).evictCar(car);
+        verify(driverSearchIndex, times(1)).carRemoved(car);
+        verify(driverSearchResults, times(1)).carChanged(car);
     }
 
 
@@ -118,6 +161,9 @@ public class DefaultCarServiceTest
 
         verify(carRepository, times(1)).findById(car.getId());
         verify(carRepository, times(1)).save(car);
+        verify(entityCaches, times(1)).evictCar(car);
+        verify(driverSearchIndex, times(1)).carChanged(car);
+        verify(driverSearchResults, times(1)).carChanged(car);
     }
 
 
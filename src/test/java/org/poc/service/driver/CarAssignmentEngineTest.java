@@ -0,0 +1,122 @@
+package org.poc.service.driver;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.poc.domainobject.CarDO;
+import org.poc.exception.CarAlreadyInUseException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+public class CarAssignmentEngineTest
+{
+    private static final long CAR_ID = 1L;
+
+    private CarAssignmentEngine engine;
+    private ExecutorService executor;
+
+
+    @Before
+    public void init()
+    {
+        engine = new CarAssignmentEngine(mock(PlatformTransactionManager.class), 65536, 50);
+        executor = Executors.newSingleThreadExecutor();
+    }
+
+
+    @After
+    public void shutdown()
+    {
+        executor.shutdownNow();
+    }
+
+
+    @Test
+    public void assign_sameCarConcurrently_secondFailsFast() throws Exception
+    {
+        CountDownLatch assigning = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<?> first = executor.submit(() -> engine.assign(CAR_ID, () -> {
+            assigning.countDown();
+            awaitQuietly(release);
+        }));
+        assertThat(assigning.await(5, TimeUnit.SECONDS)).isTrue();
+
+        assertThatThrownBy(() -> engine.assign(CAR_ID, () -> {}))
+            .isInstanceOf(CarAlreadyInUseException.class)
+            .hasMessageContaining("Car with Id '" + CAR_ID + "' is being assigned to another driver");
+
+        release.countDown();
+        first.get(5, TimeUnit.SECONDS);
+    }
+
+
+    @Test
+    public void assign_otherCarConcurrently_runs() throws Exception
+    {
+        CountDownLatch assigning = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<?> first = executor.submit(() -> engine.assign(CAR_ID, () -> {
+            assigning.countDown();
+            awaitQuietly(release);
+        }));
+        assertThat(assigning.await(5, TimeUnit.SECONDS)).isTrue();
+
+        AtomicInteger assignments = new AtomicInteger();
+        for (long carId = CAR_ID + 1; carId <= CAR_ID + 64; carId++)
+        {
+            engine.assign(carId, assignments::incrementAndGet);
+        }
+        assertThat(assignments).hasValue(64);
+
+        release.countDown();
+        first.get(5, TimeUnit.SECONDS);
+    }
+
+
+    @Test
+    public void assign_afterPreviousFinished_runs()
+    {
+        AtomicInteger assignments = new AtomicInteger();
+
+        engine.assign(CAR_ID, assignments::incrementAndGet);
+        engine.assign(CAR_ID, assignments::incrementAndGet);
+
+        assertThat(assignments).hasValue(2);
+    }
+
+
+    @Test
+    public void assign_optimisticLockFailure_carAlreadyInUse()
+    {
+        assertThatThrownBy(() -> engine.assign(CAR_ID, () -> {
+            throw new ObjectOptimisticLockingFailureException(CarDO.class, CAR_ID);
+        }))
+            .isInstanceOf(CarAlreadyInUseException.class)
+            .hasMessageContaining("Car with Id '" + CAR_ID + "' was assigned to another driver concurrently");
+    }
+
+
+    private static void awaitQuietly(CountDownLatch latch)
+    {
+        try
+        {
+            latch.await(5, TimeUnit.SECONDS);
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -5,6 +5,9 @@ import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -19,13 +22,28 @@ import org.poc.domainobject.CarDO;
 import org.poc.domainvalue.OnlineStatus;
 import org.poc.exception.AssignedDriverNotOnlineException;
 import org.poc.exception.CarAlreadyInUseException;
-import org.springframework.data.domain.Example;
 
 import com.google.common.collect.ImmutableMap;
 import org.poc.dataaccessobject.CarRepository;
 import org.poc.domainobject.DriverDO;
 import org.poc.domainobject.ManufacturerDO;
+import org.poc.domainvalue.DriverSearchCriteria;
+import org.poc.domainvalue.DriverSearchCriteria.Field;
+import org.poc.domainvalue.DriverSearchCursor;
+import org.poc.domainvalue.DriverSearchPage;
+import org.poc.domainvalue.DriverSummary;
+import org.poc.domainvalue.GeoCoordinate;
+import org.poc.domainvalue.SearchableDriver;
 import org.poc.exception.EntityNotFoundException;
+import org.poc.service.cache.DriverSearchResults;
+import org.poc.service.cache.EntityCaches;
+import org.poc.service.location.DriverEventBroadcaster;
+import org.poc.service.location.DriverLocationIndex;
+import org.poc.service.presence.DriverPresenceRegistry;
+import org.poc.service.search.DriverSearchIndex;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 @RunWith(MockitoJUnitRunner.class)
 
@@ -38,6 +56,27 @@ public class DefaultDriverServiceTest
     @Mock
     private CarRepository carRepository;
 
+    @Mock
+    private EntityCaches entityCaches;
+
+    @Mock
+    private DriverEventBroadcaster driverEventBroadcaster;
+
+    @Mock
+    private DriverPresenceRegistry driverPresenceRegistry;
+
+    @Mock
+    private DriverSearchIndex driverSearchIndex;
+
+    @Mock
+    private DriverLocationIndex driverLocationIndex;
+
+    @Spy
+    private DriverSearchResults driverSearchResults = new DriverSearchResults(60000, 100);
+
+    @Spy
+    private CarAssignmentEngine carAssignmentEngine = new CarAssignmentEngine(mock(PlatformTransactionManager.class), 4, 100);
+
     @InjectMocks
     private DefaultDriverService driverService;
     private static final Long DRIVER_ID = 10L;
@@ -46,9 +85,7 @@ public class DefaultDriverServiceTest
     private static final String PASSWORD = "password";
 
     @Captor
-    ArgumentCaptor<Example<DriverDO>> argumentExampleDriver;
-    @Captor
-    ArgumentCaptor<Example<CarDO>> argumentExampleCar;
+    ArgumentCaptor<DriverSearchCriteria> argumentCriteria;
 
 
     @BeforeClass
@@ -131,6 +168,27 @@ public class DefaultDriverServiceTest
     }
 
 
+    @Test
+    public void selectCarByDriver_alreadyAssigned_sameIdOtherInstance() throws CarAlreadyInUseException, EntityNotFoundException, AssignedDriverNotOnlineException
+    {
+        DriverDO driverDO = new DriverDO(USERNAME, PASSWORD);
+        driverDO.setId(DRIVER_ID);
+        driverDO.setOnlineStatus(OnlineStatus.ONLINE);
+        DriverDO sameDriver = new DriverDO(USERNAME + 2, PASSWORD + 2);
+        sameDriver.setId(DRIVER_ID);
+        CarDO carDO = new CarDO();
+        carDO.setId(CAR_ID);
+        when(driverRepository.findById(DRIVER_ID)).thenReturn(Optional.of(driverDO));
+        when(carRepository.findById(CAR_ID)).thenReturn(Optional.of(carDO));
+        when(driverRepository.findByCar(carDO)).thenReturn(sameDriver);
+
+        driverService.selectCarByDriver(DRIVER_ID, CAR_ID);
+
+        assertThat(driverDO).isEqualTo(sameDriver).hasSameHashCodeAs(new DriverDO(USERNAME, PASSWORD));
+        verify(carRepository).save(carDO);
+    }
+
+
     @Test
     public void selectCarByDriver() throws CarAlreadyInUseException, EntityNotFoundException, AssignedDriverNotOnlineException
     {
@@ -173,6 +231,7 @@ public class DefaultDriverServiceTest
 
         ArgumentCaptor<DriverDO> argument = ArgumentCaptor.forClass(DriverDO.class);
         verify(driverRepository, times(1)).save(argument.capture());
+        verify(entityCaches, times(1)).evictDriver(any(DriverDO.class));
         assertThat(argument.getValue().getCar()).isNull();
     }
 
@@ -185,9 +244,9 @@ public class DefaultDriverServiceTest
 
         driverService.searchByFieldsOfCarAndDriver(parameters);
 
-        verify(driverRepository, times(1)).findAll(argumentExampleDriver.capture());
-        assertThat(argumentExampleDriver.getValue().getProbe().getUsername()).isEqualTo(username);
-        assertThat(argumentExampleDriver.getValue().getProbe().getId()).isNull();
+        verify(driverRepository, times(1)).findByCriteria(argumentCriteria.capture());
+        assertThat(argumentCriteria.getValue().getUsername()).isEqualTo(username);
+        assertThat(argumentCriteria.getValue().fields()).isEqualTo(Field.USERNAME.bit());
     }
 
 
@@ -212,10 +271,10 @@ public class DefaultDriverServiceTest
 
         driverService.searchByFieldsOfCarAndDriver(parameters);
 
-        verify(driverRepository, times(1)).findAll(argumentExampleDriver.capture());
-        assertThat(argumentExampleDriver.getValue().getProbe().getUsername()).isEqualTo(username);
-        assertThat(argumentExampleDriver.getValue().getProbe().getOnlineStatus()).isEqualTo(OnlineStatus.OFFLINE);
-        assertThat(argumentExampleDriver.getValue().getProbe().getId()).isNull();
+        verify(driverRepository, times(1)).findByCriteria(argumentCriteria.capture());
+        assertThat(argumentCriteria.getValue().getUsername()).isEqualTo(username);
+        assertThat(argumentCriteria.getValue().getOnlineStatus()).containsExactly(OnlineStatus.OFFLINE);
+        assertThat(argumentCriteria.getValue().fields()).isEqualTo(Field.USERNAME.bit() | Field.ONLINE_STATUS.bit());
     }
 
 
@@ -227,9 +286,9 @@ public class DefaultDriverServiceTest
         Map<String, String> parameters = ImmutableMap.of("manufacturer", manufacturer.getManufacturer());
         driverService.searchByFieldsOfCarAndDriver(parameters);
 
-        verify(carRepository, times(1)).findAll(argumentExampleCar.capture());
-        assertThat(argumentExampleCar.getValue().getProbe().getManufacturer().getManufacturer()).isEqualTo(manufactureName);
-        assertThat(argumentExampleCar.getValue().getProbe().getId()).isNull();
+        verify(driverRepository, times(1)).findByCriteria(argumentCriteria.capture());
+        assertThat(argumentCriteria.getValue().getManufacturer()).isEqualTo(manufactureName);
+        assertThat(argumentCriteria.getValue().getUsername()).isNull();
     }
 
 
@@ -240,9 +299,10 @@ public class DefaultDriverServiceTest
         Map<String, String> parameters = ImmutableMap.of("rating", rating.toString());
         driverService.searchByFieldsOfCarAndDriver(parameters);
 
-        verify(carRepository, times(1)).findAll(argumentExampleCar.capture());
-        assertThat(argumentExampleCar.getValue().getProbe().getRating()).isEqualTo(rating);
-        assertThat(argumentExampleCar.getValue().getProbe().getId()).isNull();
+        verify(driverRepository, times(1)).findByCriteria(argumentCriteria.capture());
+        assertThat(argumentCriteria.getValue().getMinRating()).isEqualTo(rating);
+        assertThat(argumentCriteria.getValue().getMaxRating()).isEqualTo(rating);
+        assertThat(argumentCriteria.getValue().getUsername()).isNull();
     }
 
 
@@ -256,10 +316,11 @@ public class DefaultDriverServiceTest
 
         driverService.searchByFieldsOfCarAndDriver(parameters);
 
-        verify(carRepository, times(1)).findAll(argumentExampleCar.capture());
-        assertThat(argumentExampleCar.getValue().getProbe().getRating()).isEqualTo(rating);
-        assertThat(argumentExampleCar.getValue().getProbe().getManufacturer().getManufacturer()).isEqualTo(manufactureName);
-        assertThat(argumentExampleCar.getValue().getProbe().getId()).isNull();
+        verify(driverRepository, times(1)).findByCriteria(argumentCriteria.capture());
+        assertThat(argumentCriteria.getValue().getMinRating()).isEqualTo(rating);
+        assertThat(argumentCriteria.getValue().getMaxRating()).isEqualTo(rating);
+        assertThat(argumentCriteria.getValue().getManufacturer()).isEqualTo(manufactureName);
+        assertThat(argumentCriteria.getValue().getUsername()).isNull();
     }
 
 
@@ -276,11 +337,133 @@ public class DefaultDriverServiceTest
 
         driverService.searchByFieldsOfCarAndDriver(parameters);
 
-        verify(carRepository, times(1)).findAll(argumentExampleCar.capture());
-        assertThat(argumentExampleCar.getValue().getProbe().getRating()).isEqualTo(rating);
-        assertThat(argumentExampleCar.getValue().getProbe().getManufacturer().getManufacturer()).isEqualTo(manufactureName);
-        verify(driverRepository, times(1)).findAll(argumentExampleDriver.capture());
-        assertThat(argumentExampleDriver.getValue().getProbe().getUsername()).isEqualTo(username);
-        assertThat(argumentExampleDriver.getValue().getProbe().getOnlineStatus()).isEqualTo(OnlineStatus.OFFLINE);
+        verify(driverRepository, times(1)).findByCriteria(argumentCriteria.capture());
+        assertThat(argumentCriteria.getValue().getMinRating()).isEqualTo(rating);
+        assertThat(argumentCriteria.getValue().getMaxRating()).isEqualTo(rating);
+        assertThat(argumentCriteria.getValue().getManufacturer()).isEqualTo(manufactureName);
+        assertThat(argumentCriteria.getValue().getUsername()).isEqualTo(username);
+        assertThat(argumentCriteria.getValue().getOnlineStatus()).containsExactly(OnlineStatus.OFFLINE);
+    }
+
+
+    @Test
+    public void search_repeated_answeredFromCache()
+    {
+        DriverSummary driver = new DriverSummary(DRIVER_ID, USERNAME, PASSWORD, OnlineStatus.ONLINE, null, null, CAR_ID);
+        when(driverRepository.findByCriteria(any())).thenReturn(Collections.singletonList(driver));
+
+        driverService.searchByFieldsOfCarAndDriver(ImmutableMap.of("username", USERNAME, "onlineStatus", "ONLINE"));
+        List<DriverSummary> repeated = driverService.searchByFieldsOfCarAndDriver(ImmutableMap.of("onlineStatus", "ONLINE", "username", USERNAME));
+
+        assertThat(repeated).containsExactly(driver);
+        verify(driverRepository, times(1)).findByCriteria(any());
+    }
+
+
+    @Test
+    public void search_afterDeselectOfListedDriver_searchedAgain() throws EntityNotFoundException
+    {
+        DriverSummary driver = new DriverSummary(DRIVER_ID, USERNAME, PASSWORD, OnlineStatus.ONLINE, null, null, CAR_ID);
+        when(driverRepository.findByCriteria(any())).thenReturn(Collections.singletonList(driver), Collections.emptyList());
+        DriverDO driverDO = new DriverDO(USERNAME, PASSWORD);
+        CarDO carDO = new CarDO();
+        driverDO.setCar(carDO);
+        when(driverRepository.findById(DRIVER_ID)).thenReturn(Optional.of(driverDO));
+        Map<String, String> parameters = ImmutableMap.of("username", USERNAME);
+
+        driverService.searchByFieldsOfCarAndDriver(parameters);
+        driverService.deselectCarByDriver(DRIVER_ID);
+
+        assertThat(driverService.searchByFieldsOfCarAndDriver(parameters)).isEmpty();
+        verify(driverSearchResults).driverChanged(DRIVER_ID);
+    }
+
+
+    @Test
+    public void search_index_driversReadByIdOnly()
+    {
+        DriverSummary driver = new DriverSummary(DRIVER_ID, USERNAME, PASSWORD, OnlineStatus.ONLINE, null, null, CAR_ID);
+        when(driverSearchIndex.isEnabled()).thenReturn(true);
+        when(driverSearchIndex.search(argumentCriteria.capture())).thenReturn(Arrays.asList(DRIVER_ID));
+        when(driverRepository.findSummariesByIdIn(Arrays.asList(DRIVER_ID))).thenReturn(Collections.singletonList(driver));
+
+        List<DriverSummary> drivers = driverService.searchByFieldsOfCarAndDriver(ImmutableMap.of("engineType", "GAS"));
+
+        assertThat(drivers).containsExactly(driver);
+        assertThat(argumentCriteria.getValue().getEngineType()).containsExactly(CarDO.EngineType.GAS);
+        verify(driverRepository, never()).findByCriteria(any());
+    }
+
+
+    @Test
+    public void search_index_driversInOrderOfIndex()
+    {
+        DriverSummary first = new DriverSummary(DRIVER_ID, USERNAME, PASSWORD, OnlineStatus.ONLINE, null, null, CAR_ID);
+        DriverSummary second = new DriverSummary(DRIVER_ID + 1, USERNAME, PASSWORD, OnlineStatus.ONLINE, null, null, CAR_ID + 1);
+        DriverSearchCriteria criteria =
+            DriverSearchCriteria.newBuilder().setMinRating(4.0F).setSort(DriverSearchCriteria.Sort.RATING).setDescending(true).setLimit(2).createDriverSearchCriteria();
+        when(driverSearchIndex.isEnabled()).thenReturn(true);
+        when(driverSearchIndex.search(criteria)).thenReturn(Arrays.asList(DRIVER_ID + 1, DRIVER_ID));
+        when(driverRepository.findSummariesByIdIn(Arrays.asList(DRIVER_ID + 1, DRIVER_ID))).thenReturn(Arrays.asList(first, second));
+
+        assertThat(driverService.search(criteria)).containsExactly(second, first);
+    }
+
+
+    @Test
+    public void updateLocationAndDelete_inTransaction_indexChangedAfterCommit() throws EntityNotFoundException
+    {
+        DriverDO driver = new DriverDO(USERNAME, PASSWORD);
+        driver.setId(DRIVER_ID);
+        driver.setOnlineStatus(OnlineStatus.ONLINE);
+        when(driverRepository.findById(DRIVER_ID)).thenReturn(Optional.of(driver));
+        TransactionSynchronizationManager.initSynchronization();
+        try
+        {
+            driverService.updateLocation(DRIVER_ID, 13.40, 52.50);
+            driverService.delete(DRIVER_ID);
+            verifyZeroInteractions(driverLocationIndex);
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        }
+        finally
+        {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        verify(driverLocationIndex).update(eq(DRIVER_ID), eq(new GeoCoordinate(52.50, 13.40)), any(Instant.class), eq(true));
+        verify(driverLocationIndex).remove(DRIVER_ID);
+    }
+
+
+    @Test
+    public void searchPage_moreDrivers_cursorOfLastDriverOnPage()
+    {
+        DriverSummary first = new DriverSummary(DRIVER_ID, USERNAME, PASSWORD, OnlineStatus.ONLINE, null, null, CAR_ID);
+        DriverSummary second = new DriverSummary(DRIVER_ID + 1, USERNAME, PASSWORD, OnlineStatus.ONLINE, null, null, CAR_ID + 1);
+        DriverSearchCriteria.DriverSearchCriteriaBuilder criteria = DriverSearchCriteria.newBuilder().setSort(DriverSearchCriteria.Sort.RATING).setDescending(true);
+        when(driverSearchIndex.isEnabled()).thenReturn(true);
+        when(driverSearchIndex.search(criteria.setLimit(2).createDriverSearchCriteria())).thenReturn(Arrays.asList(DRIVER_ID + 1, DRIVER_ID));
+        when(driverSearchIndex.find(DRIVER_ID + 1)).thenReturn(Optional.of(
+            new SearchableDriver(DRIVER_ID + 1, USERNAME, OnlineStatus.ONLINE, CAR_ID + 1, "EU-001", null, false, CarDO.EngineType.GAS, 4.5F, (short) 4)));
+        when(driverRepository.findSummariesByIdIn(Arrays.asList(DRIVER_ID + 1, DRIVER_ID))).thenReturn(Arrays.asList(first, second));
+
+        DriverSearchPage page = driverService.searchPage(criteria.setLimit(1).createDriverSearchCriteria());
+
+        assertThat(page.getDrivers()).containsExactly(second);
+        assertThat(page.getNext()).isEqualTo(new DriverSearchCursor(4.5F, DRIVER_ID + 1));
+    }
+
+
+    @Test
+    public void searchPage_lastPage_withoutCursor()
+    {
+        DriverSearchCriteria criteria = DriverSearchCriteria.newBuilder().setAfter(new DriverSearchCursor(null, DRIVER_ID)).setLimit(1).createDriverSearchCriteria();
+        when(driverSearchIndex.isEnabled()).thenReturn(true);
+        when(driverSearchIndex.search(criteria.withLimit(2))).thenReturn(Collections.emptyList());
+
+        DriverSearchPage page = driverService.searchPage(criteria);
+
+        assertThat(page.getDrivers()).isEmpty();
+        assertThat(page.getNext()).isNull();
     }
 }
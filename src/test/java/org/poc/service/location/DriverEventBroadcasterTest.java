@@ -0,0 +1,186 @@
+package org.poc.service.location;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Test;
+import org.poc.domainvalue.BoundingBox;
+import org.poc.domainvalue.DriverEvent;
+import org.poc.domainvalue.GeoCoordinate;
+import org.poc.exception.SubscriberLimitExceededException;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+public class DriverEventBroadcasterTest
+{
+    private static final BoundingBox BERLIN = new BoundingBox(52.3, 13.0, 52.7, 13.8);
+
+    private final DriverEventBroadcaster broadcaster = new DriverEventBroadcaster(100, 2, 1);
+    private final BlockingQueue<List<DriverEvent>> received = new LinkedBlockingQueue<>();
+
+
+    @After
+    public void shutdown()
+    {
+        broadcaster.shutdown();
+    }
+
+
+    @Test
+    public void publish_sameDriverTwice_coalescedToLatest() throws InterruptedException
+    {
+        broadcaster.subscribe(BoundingBox.world(), received::add);
+
+        broadcaster.publish(DriverEvent.location(1L, new GeoCoordinate(52.50, 13.40)));
+        broadcaster.publish(DriverEvent.location(1L, new GeoCoordinate(52.51, 13.41)));
+        broadcaster.publish(DriverEvent.location(2L, new GeoCoordinate(48.13, 11.58)));
+        broadcaster.publish(DriverEvent.car(1L, new GeoCoordinate(52.51, 13.41), 7L));
+
+        List<DriverEvent> events = received.poll(5, TimeUnit.SECONDS);
+        assertThat(events).extracting(DriverEvent::getDriverId, DriverEvent::getType, DriverEvent::getCoordinate).containsExactlyInAnyOrder(
+            tuple(1L, DriverEvent.Type.LOCATION, new GeoCoordinate(52.51, 13.41)),
+            tuple(2L, DriverEvent.Type.LOCATION, new GeoCoordinate(48.13, 11.58)),
+            tuple(1L, DriverEvent.Type.CAR, new GeoCoordinate(52.51, 13.41)));
+        assertThat(received.poll(300, TimeUnit.MILLISECONDS)).isNull();
+    }
+
+
+    @Test
+    public void publish_boundingBox_onlyInsideAndLeavingOnce() throws InterruptedException
+    {
+        broadcaster.subscribe(BERLIN, received::add);
+
+        broadcaster.publish(DriverEvent.location(2L, new GeoCoordinate(48.13, 11.58)));
+        broadcaster.publish(DriverEvent.car(2L, null, 7L));
+        broadcaster.publish(DriverEvent.location(1L, new GeoCoordinate(52.50, 13.40)));
+        assertThat(received.poll(5, TimeUnit.SECONDS)).extracting(DriverEvent::getDriverId).containsExactly(1L);
+
+        broadcaster.publish(DriverEvent.location(1L, new GeoCoordinate(48.13, 11.58)));
+        assertThat(received.poll(5, TimeUnit.SECONDS)).extracting(DriverEvent::getCoordinate).containsExactly(new GeoCoordinate(48.13, 11.58));
+
+        broadcaster.publish(DriverEvent.location(1L, new GeoCoordinate(48.14, 11.59)));
+        assertThat(received.poll(300, TimeUnit.MILLISECONDS)).isNull();
+    }
+
+
+    @Test
+    public void publish_failingSink_subscriptionClosed() throws InterruptedException
+    {
+        broadcaster.subscribe(BoundingBox.world(), events -> {
+            received.add(events);
+            throw new IllegalStateException("client gone");
+        });
+
+        broadcaster.publish(DriverEvent.location(1L, new GeoCoordinate(52.50, 13.40)));
+
+        assertThat(received.poll(5, TimeUnit.SECONDS)).hasSize(1);
+        // the sink throws before the drain closes the subscription
+        long deadline = System.currentTimeMillis() + 5000;
+        while (broadcaster.subscriberCount() > 0 && System.currentTimeMillis() < deadline)
+        {
+            Thread.sleep(10);
+        }
+        assertThat(broadcaster.subscriberCount()).isZero();
+    }
+
+
+    @Test
+    public void publish_inTransaction_deliveredAfterCommit() throws InterruptedException
+    {
+        broadcaster.subscribe(BoundingBox.world(), received::add);
+        TransactionSynchronizationManager.initSynchronization();
+        try
+        {
+            broadcaster.publish(DriverEvent.location(1L, new GeoCoordinate(52.50, 13.40)));
+            assertThat(received.poll(300, TimeUnit.MILLISECONDS)).isNull();
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        }
+        finally
+        {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        assertThat(received.poll(5, TimeUnit.SECONDS)).extracting(DriverEvent::getDriverId).containsExactly(1L);
+    }
+
+
+    @Test
+    public void subscribe_limitReached_throws()
+    {
+        broadcaster.subscribe(BoundingBox.world(), received::add);
+        DriverEventBroadcaster.Subscription second = broadcaster.subscribe(BoundingBox.world(), received::add);
+
+        assertThatThrownBy(() -> broadcaster.subscribe(BERLIN, received::add)).isInstanceOf(SubscriberLimitExceededException.class);
+
+        second.close();
+        broadcaster.subscribe(BERLIN, received::add);
+        assertThat(broadcaster.subscriberCount()).isEqualTo(2);
+    }
+
+
+    @Test
+    public void subscribe_concurrently_limitHolds() throws Exception
+    {
+        int threads = 16;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try
+        {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Boolean>> subscribed = new ArrayList<>();
+            for (int i = 0; i < threads; i++)
+            {
+                subscribed.add(executor.submit(() -> {
+                    start.await();
+                    try
+                    {
+                        broadcaster.subscribe(BoundingBox.world(), received::add);
+                        return true;
+                    }
+                    catch (SubscriberLimitExceededException e)
+                    {
+                        return false;
+                    }
+                }));
+            }
+            start.countDown();
+
+            int accepted = 0;
+            for (Future<Boolean> future : subscribed)
+            {
+                accepted += future.get(5, TimeUnit.SECONDS) ? 1 : 0;
+            }
+            assertThat(accepted).isEqualTo(2);
+            assertThat(broadcaster.subscriberCount()).isEqualTo(2);
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+    }
+
+
+    @Test
+    public void close_twice_freesOneSlot()
+    {
+        DriverEventBroadcaster.Subscription first = broadcaster.subscribe(BoundingBox.world(), received::add);
+        broadcaster.subscribe(BoundingBox.world(), received::add);
+
+        first.close();
+        first.close();
+
+        broadcaster.subscribe(BERLIN, received::add);
+        assertThatThrownBy(() -> broadcaster.subscribe(BERLIN, received::add)).isInstanceOf(SubscriberLimitExceededException.class);
+    }
+}
@@ -0,0 +1,152 @@
+package org.poc.service.location;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Instant;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.poc.domainvalue.GeoCoordinate;
+import org.poc.domainvalue.NearbyDriver;
+import org.poc.exception.InvalidCoordinateException;
+
+public class DriverLocationIndexTest
+{
+    private static final double LATITUDE = 52.52;
+    private static final double LONGITUDE = 13.405;
+
+    private DriverLocationIndex index;
+
+
+    @Before
+    public void init()
+    {
+        index = new DriverLocationIndex();
+    }
+
+
+    @Test
+    public void nearest_orderedByDistanceAndBoundedByLimit()
+    {
+        index.update(1L, new GeoCoordinate(LATITUDE + 0.03, LONGITUDE), true);
+        index.update(2L, new GeoCoordinate(LATITUDE + 0.01, LONGITUDE), true);
+        index.update(3L, new GeoCoordinate(LATITUDE + 0.02, LONGITUDE), true);
+
+        List<NearbyDriver> nearby = index.nearest(LATITUDE, LONGITUDE, 10, 2);
+
+        assertThat(nearby).extracting(NearbyDriver::getDriverId).containsExactly(2L, 3L);
+        assertThat(nearby.get(0).getDistanceKm()).isBetween(1.0, 1.2);
+    }
+
+
+    @Test
+    public void nearest_outsideRadiusOrOffline_excluded()
+    {
+        index.update(1L, new GeoCoordinate(LATITUDE + 1, LONGITUDE), true);
+        index.update(2L, new GeoCoordinate(LATITUDE, LONGITUDE), false);
+
+        assertThat(index.nearest(LATITUDE, LONGITUDE, 50, 10)).isEmpty();
+
+        index.setOnline(2L, true);
+        assertThat(index.nearest(LATITUDE, LONGITUDE, 50, 10)).extracting(NearbyDriver::getDriverId).containsExactly(2L);
+    }
+
+
+    @Test
+    public void update_movesDriverAcrossCells()
+    {
+        index.update(1L, new GeoCoordinate(LATITUDE, LONGITUDE), true);
+        index.update(1L, new GeoCoordinate(-LATITUDE, -LONGITUDE), true);
+
+        assertThat(index.nearest(LATITUDE, LONGITUDE, 50, 10)).isEmpty();
+        assertThat(index.nearest(-LATITUDE, -LONGITUDE, 1, 10)).extracting(NearbyDriver::getDriverId).containsExactly(1L);
+    }
+
+
+    @Test
+    public void move_olderThanKnownPositionOrUnknownDriver_ignored()
+    {
+        Instant reportedAt = Instant.now();
+        index.update(1L, new GeoCoordinate(LATITUDE, LONGITUDE), reportedAt, true);
+
+        assertThat(index.move(1L, new GeoCoordinate(-LATITUDE, -LONGITUDE), reportedAt.minusSeconds(1))).isFalse();
+        assertThat(index.move(2L, new GeoCoordinate(LATITUDE, LONGITUDE), reportedAt)).isFalse();
+        assertThat(index.nearest(LATITUDE, LONGITUDE, 1, 10)).extracting(NearbyDriver::getDriverId).containsExactly(1L);
+
+        assertThat(index.move(1L, new GeoCoordinate(-LATITUDE, -LONGITUDE), reportedAt)).isTrue();
+        assertThat(index.nearest(-LATITUDE, -LONGITUDE, 1, 10)).extracting(NearbyDriver::getDriverId).containsExactly(1L);
+    }
+
+
+    @Test
+    public void retain_otherDriversRemoved()
+    {
+        index.update(1L, new GeoCoordinate(LATITUDE, LONGITUDE), true);
+        index.update(2L, new GeoCoordinate(LATITUDE, LONGITUDE), true);
+
+        index.retain(Collections.singleton(2L));
+
+        assertThat(index.contains(1L)).isFalse();
+        assertThat(index.nearest(LATITUDE, LONGITUDE, 1, 10)).extracting(NearbyDriver::getDriverId).containsExactly(2L);
+    }
+
+
+    @Test
+    public void remove()
+    {
+        index.update(1L, new GeoCoordinate(LATITUDE, LONGITUDE), true);
+        index.remove(1L);
+
+        assertThat(index.contains(1L)).isFalse();
+        assertThat(index.nearest(LATITUDE, LONGITUDE, 1, 10)).isEmpty();
+    }
+
+
+    @Test
+    public void nearest_acrossAntimeridian()
+    {
+        index.update(1L, new GeoCoordinate(0, -179.99), true);
+
+        assertThat(index.nearest(0, 179.99, 5, 10)).extracting(NearbyDriver::getDriverId).containsExactly(1L);
+    }
+
+
+    @Test
+    public void nearest_invalidRadius()
+    {
+        assertThatThrownBy(() -> index.nearest(LATITUDE, LONGITUDE, DriverLocationIndex.MAX_RADIUS_KM + 1, 10))
+            .isInstanceOf(InvalidCoordinateException.class)
+            .hasMessageContaining("radiusKm");
+    }
+
+
+    @Test
+    public void nearest_matchesBruteForce()
+    {
+        Random random = new Random(7);
+        for (long id = 0; id < 10_000; id++)
+        {
+            index.update(id, new GeoCoordinate(LATITUDE + random.nextGaussian() * 0.2, LONGITUDE + random.nextGaussian() * 0.2), id % 3 != 0);
+        }
+
+        List<NearbyDriver> nearby = index.nearest(LATITUDE, LONGITUDE, 5, 20);
+
+        assertThat(nearby).hasSize(20);
+        double farthest = nearby.get(nearby.size() - 1).getDistanceKm();
+        random = new Random(7);
+        int closer = 0;
+        for (long id = 0; id < 10_000; id++)
+        {
+            double distance = DriverLocationIndex.distanceKm(LATITUDE, LONGITUDE, LATITUDE + random.nextGaussian() * 0.2, LONGITUDE + random.nextGaussian() * 0.2);
+            if (id % 3 != 0 && distance < farthest)
+            {
+                closer++;
+            }
+        }
+        assertThat(closer).isEqualTo(19);
+    }
+}
@@ -0,0 +1,156 @@
+package org.poc.service.location;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.ZonedDateTime;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.poc.dataaccessobject.DriverLocationRepository;
+import org.poc.domainvalue.DriverEvent;
+import org.poc.domainvalue.GeoCoordinate;
+import org.poc.domainvalue.LocationUpdate;
+import org.poc.domainvalue.NearbyDriver;
+import org.poc.domainvalue.OnlineStatus;
+import org.poc.service.cache.EntityCaches;
+import org.springframework.dao.QueryTimeoutException;
+
+@RunWith(MockitoJUnitRunner.class)
+public class LocationIngestionQueueTest
+{
+    private static final ZonedDateTime NOW = ZonedDateTime.now();
+
+    @Mock
+    private DriverLocationRepository driverLocationRepository;
+
+    @Mock
+    private EntityCaches entityCaches;
+
+    @Mock
+    private DriverEventBroadcaster driverEventBroadcaster;
+
+    @Captor
+    private ArgumentCaptor<List<LocationUpdate>> batchCaptor;
+
+    private DriverLocationIndex driverLocationIndex;
+
+    private LocationIngestionQueue queue;
+
+
+    @Before
+    public void init()
+    {
+        driverLocationIndex = new DriverLocationIndex();
+        queue = new LocationIngestionQueue(driverLocationRepository, driverLocationIndex, entityCaches, driverEventBroadcaster, 2);
+    }
+
+
+    @Test
+    public void offer_coalescesPerDriver_latestTimestampWins()
+    {
+        driverLocationIndex.update(1L, new GeoCoordinate(0, 0), true);
+
+        queue.offer(new LocationUpdate(1L, new GeoCoordinate(52.52, 13.40), NOW));
+        queue.offer(new LocationUpdate(1L, new GeoCoordinate(10, 10), NOW.minusSeconds(4)));
+        queue.flush();
+
+        verify(driverLocationRepository).updateLocations(batchCaptor.capture());
+        assertThat(batchCaptor.getValue()).extracting(LocationUpdate::getCoordinate).containsExactly(new GeoCoordinate(52.52, 13.40));
+        assertThat(driverLocationIndex.nearest(52.52, 13.40, 1, 10)).extracting(NearbyDriver::getDriverId).containsExactly(1L);
+        verify(driverLocationRepository, never()).findOnlineStatus(anyCollection());
+        assertThat(queue.size()).isZero();
+    }
+
+
+    @Test
+    public void offer_olderThanIndexedPosition_notPublished()
+    {
+        driverLocationIndex.update(1L, new GeoCoordinate(52.52, 13.40), NOW.toInstant(), true);
+
+        queue.offer(new LocationUpdate(1L, new GeoCoordinate(10, 10), NOW.minusSeconds(4)));
+
+        verify(driverEventBroadcaster, never()).publish(any(DriverEvent.class));
+        assertThat(driverLocationIndex.nearest(52.52, 13.40, 1, 10)).extracting(NearbyDriver::getDriverId).containsExactly(1L);
+    }
+
+
+    @Test
+    public void flush_writesInBatchesOfConfiguredSize()
+    {
+        for (long driverId = 1; driverId <= 5; driverId++)
+        {
+            driverLocationIndex.update(driverId, new GeoCoordinate(0, 0), true);
+            queue.offer(new LocationUpdate(driverId, new GeoCoordinate(1, 1), NOW));
+        }
+
+        queue.flush();
+
+        verify(driverLocationRepository, times(3)).updateLocations(anyList());
+        queue.flush();
+        verify(driverLocationRepository, times(3)).updateLocations(anyList());
+    }
+
+
+    @Test
+    public void flush_failedBatch_keptForNextFlush()
+    {
+        when(driverLocationRepository.updateLocations(anyList())).thenThrow(new QueryTimeoutException("timeout")).thenReturn(2);
+        for (long driverId = 1; driverId <= 3; driverId++)
+        {
+            driverLocationIndex.update(driverId, new GeoCoordinate(0, 0), true);
+            queue.offer(new LocationUpdate(driverId, new GeoCoordinate(1, 1), NOW));
+        }
+
+        queue.flush();
+
+        verify(driverLocationRepository, times(2)).updateLocations(anyList());
+        assertThat(queue.size()).isEqualTo(2);
+
+        queue.offer(new LocationUpdate(1L, new GeoCoordinate(2, 2), NOW.minusSeconds(1)));
+        queue.flush();
+
+        verify(driverLocationRepository, times(3)).updateLocations(batchCaptor.capture());
+        assertThat(batchCaptor.getValue()).extracting(LocationUpdate::getCoordinate).containsOnly(new GeoCoordinate(1, 1));
+        assertThat(queue.size()).isZero();
+    }
+
+
+    @Test
+    public void flush_untrackedDriver_addedToIndexWithStoredStatus()
+    {
+        when(driverLocationRepository.findOnlineStatus(Collections.singletonList(7L))).thenReturn(Collections.singletonMap(7L, OnlineStatus.ONLINE));
+
+        queue.offer(new LocationUpdate(7L, new GeoCoordinate(52.52, 13.40), NOW));
+        assertThat(driverLocationIndex.contains(7L)).isFalse();
+        verify(driverEventBroadcaster, never()).publish(any(DriverEvent.class));
+        queue.flush();
+
+        assertThat(driverLocationIndex.nearest(52.52, 13.40, 1, 10)).extracting(NearbyDriver::getDriverId).containsExactly(7L);
+        verify(driverEventBroadcaster).publish(any(DriverEvent.class));
+    }
+
+
+    @Test
+    public void flush_unknownDriver_neitherIndexedNorPublished()
+    {
+        queue.offer(new LocationUpdate(8L, new GeoCoordinate(52.52, 13.40), NOW));
+        queue.flush();
+
+        assertThat(driverLocationIndex.contains(8L)).isFalse();
+        verify(driverEventBroadcaster, never()).publish(any(DriverEvent.class));
+    }
+}
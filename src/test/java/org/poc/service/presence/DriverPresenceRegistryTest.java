@@ -0,0 +1,146 @@
+package org.poc.service.presence;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.poc.dataaccessobject.DriverRepository;
+import org.poc.domainvalue.OnlineStatus;
+import org.poc.service.cache.DriverSearchResults;
+import org.poc.service.cache.EntityCaches;
+import org.poc.service.location.DriverLocationIndex;
+import org.poc.service.search.DriverSearchIndex;
+import org.springframework.dao.QueryTimeoutException;
+
+@RunWith(MockitoJUnitRunner.class)
+public class DriverPresenceRegistryTest
+{
+
+    @Mock
+    private DriverRepository driverRepository;
+
+    @Mock
+    private DriverLocationIndex driverLocationIndex;
+
+    @Mock
+    private EntityCaches entityCaches;
+
+    @Mock
+    private DriverSearchResults driverSearchResults;
+
+    @Mock
+    private DriverSearchIndex driverSearchIndex;
+
+    private DriverPresenceRegistry registry;
+
+
+    @Before
+    public void init()
+    {
+        when(driverRepository.findIdsByOnlineStatus(OnlineStatus.ONLINE)).thenReturn(Arrays.asList(1L, 2L));
+        when(driverRepository.findIdsByOnlineStatus(OnlineStatus.OFFLINE)).thenReturn(Collections.singletonList(3L));
+        // timeout of two ticks
+        registry = new DriverPresenceRegistry(driverRepository, driverLocationIndex, entityCaches, driverSearchResults, driverSearchIndex, 2000, 1000, 500);
+        registry.reload();
+    }
+
+
+    @Test
+    public void ids_keysetPages()
+    {
+        assertThat(registry.ids(OnlineStatus.ONLINE, Long.MIN_VALUE, 1)).containsExactly(1L);
+        assertThat(registry.ids(OnlineStatus.ONLINE, 1L, 10)).containsExactly(2L);
+        assertThat(registry.ids(OnlineStatus.OFFLINE, Long.MIN_VALUE, 10)).containsExactly(3L);
+    }
+
+
+    @Test
+    public void heartbeat_offlineDriver_onlineUntilTimeout()
+    {
+        assertThat(registry.heartbeat(3L)).isTrue();
+
+        assertThat(registry.status(3L)).isEqualTo(OnlineStatus.ONLINE);
+        assertThat(registry.ids(OnlineStatus.ONLINE, Long.MIN_VALUE, 10)).containsExactly(1L, 2L, 3L);
+        verify(driverLocationIndex).setOnline(3L, true);
+
+        registry.expire();
+        assertThat(registry.status(3L)).isEqualTo(OnlineStatus.ONLINE);
+        registry.expire();
+        assertThat(registry.status(3L)).isEqualTo(OnlineStatus.OFFLINE);
+        assertThat(registry.ids(OnlineStatus.OFFLINE, Long.MIN_VALUE, 10)).containsExactly(3L);
+        verify(driverLocationIndex).setOnline(3L, false);
+    }
+
+
+    @Test
+    public void expire_driverWithoutHeartbeat_keepsState()
+    {
+        registry.expire();
+        registry.expire();
+        registry.expire();
+
+        assertThat(registry.status(1L)).isEqualTo(OnlineStatus.ONLINE);
+        assertThat(registry.pendingWrites()).isZero();
+    }
+
+
+    @Test
+    public void heartbeat_unknownDriver()
+    {
+        assertThat(registry.heartbeat(4L)).isFalse();
+        assertThat(registry.status(4L)).isNull();
+    }
+
+
+    @Test
+    public void flush_transitionsCoalescedPerState()
+    {
+        // 3 goes ONLINE and back OFFLINE, 1 was ONLINE already and times out, 2 is deleted
+        registry.heartbeat(3L);
+        registry.heartbeat(1L);
+        registry.remove(2L);
+        registry.expire();
+        registry.expire();
+
+        registry.flush();
+
+        verify(driverRepository).updateOnlineStatus(OnlineStatus.OFFLINE, Arrays.asList(1L, 3L));
+        verify(driverRepository, never()).updateOnlineStatus(OnlineStatus.ONLINE, Collections.singletonList(3L));
+        verify(entityCaches).evictDrivers(Arrays.asList(1L, 3L));
+        verify(driverSearchIndex).onlineStatusChanged(Arrays.asList(1L, 3L), OnlineStatus.OFFLINE);
+        verify(driverSearchResults).onlineStatusChanged(Arrays.asList(1L, 3L), OnlineStatus.OFFLINE);
+        assertThat(registry.pendingWrites()).isZero();
+        assertThat(registry.ids(OnlineStatus.ONLINE, Long.MIN_VALUE, 10)).isEmpty();
+    }
+
+
+    @Test
+    public void flush_failedBatch_keptForNextFlush()
+    {
+        when(driverRepository.updateOnlineStatus(OnlineStatus.ONLINE, Collections.singletonList(3L)))
+            .thenThrow(new QueryTimeoutException("timeout"))
+            .thenReturn(1);
+        registry.heartbeat(3L);
+
+        registry.flush();
+
+        assertThat(registry.pendingWrites()).isEqualTo(1);
+        verify(entityCaches, never()).evictDrivers(Collections.singletonList(3L));
+
+        registry.flush();
+
+        verify(driverRepository, times(2)).updateOnlineStatus(OnlineStatus.ONLINE, Collections.singletonList(3L));
+        verify(driverSearchIndex).onlineStatusChanged(Collections.singletonList(3L), OnlineStatus.ONLINE);
+        assertThat(registry.pendingWrites()).isZero();
+    }
+}
@@ -0,0 +1,225 @@
+package org.poc.service.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Optional;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.poc.dataaccessobject.DriverRepository;
+import org.poc.domainobject.CarDO;
+import org.poc.domainobject.DriverDO;
+import org.poc.domainobject.ManufacturerDO;
+import org.poc.domainvalue.DriverSearchCriteria;
+import org.poc.domainvalue.DriverSearchCriteria.Sort;
+import org.poc.domainvalue.DriverSearchCursor;
+import org.poc.domainvalue.OnlineStatus;
+import org.poc.domainvalue.SearchableDriver;
+
+@RunWith(MockitoJUnitRunner.class)
+public class DriverSearchIndexTest
+{
+
+    @Mock
+    private DriverRepository driverRepository;
+
+    private DriverSearchIndex index;
+
+
+    @Before
+    public void init()
+    {
+        when(driverRepository.findSearchable()).thenReturn(
+            Arrays.asList(
+                new SearchableDriver(1L, "driver-1", OnlineStatus.ONLINE, 11L, "EU-001", "Tesla", true, CarDO.EngineType.ELECTRIC, 4.5F, (short) 4),
+                new SearchableDriver(2L, "driver-2", OnlineStatus.OFFLINE, 12L, "EU-002", "Volkswagen", false, CarDO.EngineType.GAS, null, (short) 5),
+                new SearchableDriver(3L, "other-3", OnlineStatus.ONLINE, 13L, "B-003", null, false, CarDO.EngineType.GAS, 4.5F, (short) 2)));
+        index = new DriverSearchIndex(driverRepository, true);
+        index.reload();
+    }
+
+
+    @Test
+    public void search_textAndValueAttributes()
+    {
+        assertThat(index.search(criteria().setUsername("DRIVER").createDriverSearchCriteria())).containsExactly(1L, 2L);
+        assertThat(index.search(criteria().setLicensePlate("eu-").setOnlineStatus(OnlineStatus.ONLINE).createDriverSearchCriteria())).containsExactly(1L);
+        assertThat(index.search(criteria().setEngineType(CarDO.EngineType.GAS).setConvertible(false).createDriverSearchCriteria())).containsExactly(2L, 3L);
+        assertThat(index.search(criteria().setManufacturer("wagen").createDriverSearchCriteria())).containsExactly(2L);
+        assertThat(index.search(criteria().createDriverSearchCriteria())).containsExactly(1L, 2L, 3L);
+    }
+
+
+    @Test
+    public void search_allTrigramsButNotContaining_checked()
+    {
+        CarDO carDO = new CarDO(false, CarDO.EngineType.GAS, "ABC-BCD", null, null, (short) 4);
+        carDO.setId(16L);
+        index.carAssigned(driverDO(6L), carDO);
+
+        assertThat(index.search(criteria().setLicensePlate("abcd").createDriverSearchCriteria())).isEmpty();
+        assertThat(index.search(criteria().setLicensePlate("c-b").createDriverSearchCriteria())).containsExactly(6L);
+    }
+
+
+    @Test
+    public void search_attributesWithoutPostings_checked()
+    {
+        assertThat(index.search(criteria().setRating(4.5F).createDriverSearchCriteria())).containsExactly(1L, 3L);
+        assertThat(index.search(criteria().setSeatCount((short) 5).createDriverSearchCriteria())).containsExactly(2L);
+        assertThat(index.search(criteria().setUsername("r-").createDriverSearchCriteria())).containsExactly(1L, 2L, 3L);
+        assertThat(index.search(criteria().setManufacturer("a").createDriverSearchCriteria())).containsExactly(1L, 2L);
+    }
+
+
+    @Test
+    public void search_listsAndRanges()
+    {
+        DriverSearchCriteria electricOrGas =
+            criteria().setEngineType(Arrays.asList(CarDO.EngineType.ELECTRIC, CarDO.EngineType.GAS)).setMinSeatCount((short) 3).createDriverSearchCriteria();
+
+        assertThat(index.search(electricOrGas)).containsExactly(1L, 2L);
+        assertThat(index.search(criteria().setOnlineStatus(Arrays.asList(OnlineStatus.values())).createDriverSearchCriteria())).containsExactly(1L, 2L, 3L);
+        assertThat(index.search(criteria().setEngineType(Collections.singleton(CarDO.EngineType.HYBRID)).createDriverSearchCriteria())).isEmpty();
+        assertThat(index.search(criteria().setMinRating(4.0F).setMaxRating(4.5F).setMaxSeatCount((short) 3).createDriverSearchCriteria())).containsExactly(3L);
+    }
+
+
+    @Test
+    public void search_sorted_withoutValueLastThenById()
+    {
+        assertThat(index.search(criteria().setSort(Sort.MANUFACTURER).createDriverSearchCriteria())).containsExactly(1L, 2L, 3L);
+        assertThat(index.search(criteria().setSort(Sort.MANUFACTURER).setDescending(true).createDriverSearchCriteria())).containsExactly(2L, 1L, 3L);
+        assertThat(index.search(criteria().setSort(Sort.RATING).setDescending(true).createDriverSearchCriteria())).containsExactly(1L, 3L, 2L);
+        assertThat(index.search(criteria().setSort(Sort.SEAT_COUNT).setDescending(true).createDriverSearchCriteria())).containsExactly(2L, 1L, 3L);
+        assertThat(index.search(criteria().setDescending(true).createDriverSearchCriteria())).containsExactly(3L, 2L, 1L);
+    }
+
+
+    @Test
+    public void search_limited_firstInOrder()
+    {
+        assertThat(index.search(criteria().setSort(Sort.USERNAME).setDescending(true).setLimit(2).createDriverSearchCriteria())).containsExactly(3L, 2L);
+        assertThat(index.search(criteria().setEngineType(CarDO.EngineType.GAS).setLimit(1).createDriverSearchCriteria())).containsExactly(2L);
+    }
+
+
+    @Test
+    public void search_afterCursor_followingDriversInOrder()
+    {
+        assertThat(index.search(criteria().setAfter(new DriverSearchCursor(null, 1L)).createDriverSearchCriteria())).containsExactly(2L, 3L);
+        assertThat(index.search(criteria().setDescending(true).setAfter(new DriverSearchCursor(null, 3L)).createDriverSearchCriteria())).containsExactly(2L, 1L);
+        assertThat(index.search(criteria().setSort(Sort.RATING).setDescending(true).setAfter(new DriverSearchCursor(4.5F, 1L)).createDriverSearchCriteria()))
+            .containsExactly(3L, 2L);
+        assertThat(index.search(criteria().setSort(Sort.RATING).setAfter(new DriverSearchCursor(4.5F, 3L)).createDriverSearchCriteria())).containsExactly(2L);
+        assertThat(index.search(criteria().setSort(Sort.RATING).setAfter(new DriverSearchCursor(null, 2L)).createDriverSearchCriteria())).isEmpty();
+        assertThat(index.search(criteria().setSort(Sort.SEAT_COUNT).setAfter(new DriverSearchCursor((short) 2, 3L)).setLimit(1).createDriverSearchCriteria()))
+            .containsExactly(1L);
+    }
+
+
+    @Test
+    public void carAssigned_replacesPreviousCarAndDriver()
+    {
+        DriverDO driverDO = new DriverDO("driver-1", "password");
+        driverDO.setId(1L);
+        driverDO.setOnlineStatus(OnlineStatus.ONLINE);
+        CarDO carDO = new CarDO(false, CarDO.EngineType.HYBRID, "EU-012", new ManufacturerDO("Toyota"), 3.0F, (short) 4);
+        carDO.setId(12L);
+
+        index.carAssigned(driverDO, carDO);
+
+        assertThat(index.search(criteria().setEngineType(CarDO.EngineType.HYBRID).createDriverSearchCriteria())).containsExactly(1L);
+        assertThat(index.search(criteria().setManufacturer("tesla").createDriverSearchCriteria())).isEmpty();
+        // the car was taken from driver 2
+        assertThat(index.search(criteria().setUsername("driver-2").createDriverSearchCriteria())).isEmpty();
+        assertThat(index.size()).isEqualTo(2);
+    }
+
+
+    @Test
+    public void carAssigned_byId_readFromRepository()
+    {
+        when(driverRepository.findSearchableById(4L)).thenReturn(
+            Optional.of(new SearchableDriver(4L, "driver-4", OnlineStatus.ONLINE, 14L, "EU-004", null, true, null, null, (short) 4)));
+
+        index.carAssigned(4L);
+
+        assertThat(index.search(criteria().setUsername("driver-4").createDriverSearchCriteria())).containsExactly(4L);
+    }
+
+
+    @Test
+    public void carChanged_onlyCarAttributesReplaced()
+    {
+        CarDO carDO = new CarDO(true, CarDO.EngineType.ELECTRIC, "B-XYZ", new ManufacturerDO("Tesla"), 4.5F, (short) 4);
+        carDO.setId(11L);
+
+        index.carChanged(carDO);
+
+        assertThat(index.search(criteria().setLicensePlate("xyz").setUsername("driver-1").createDriverSearchCriteria())).containsExactly(1L);
+        assertThat(index.search(criteria().setLicensePlate("EU-001").createDriverSearchCriteria())).isEmpty();
+    }
+
+
+    @Test
+    public void removed_ordinalReused()
+    {
+        CarDO carDO = new CarDO();
+        carDO.setId(12L);
+
+        index.carRemoved(carDO);
+        index.driverRemoved(3L);
+        CarDO fiat = new CarDO(false, CarDO.EngineType.GAS, "EU-005", new ManufacturerDO("Fiat"), null, (short) 4);
+        fiat.setId(15L);
+        index.carAssigned(driverDO(5L), fiat);
+
+        assertThat(index.search(criteria().setEngineType(CarDO.EngineType.GAS).createDriverSearchCriteria())).containsExactly(5L);
+        assertThat(index.search(criteria().setUsername("driver").createDriverSearchCriteria())).containsExactly(1L, 5L);
+        assertThat(index.size()).isEqualTo(2);
+    }
+
+
+    @Test
+    public void onlineStatusChanged_unknownDriversIgnored()
+    {
+        index.onlineStatusChanged(Arrays.asList(1L, 99L), OnlineStatus.OFFLINE);
+
+        assertThat(index.search(criteria().setOnlineStatus(OnlineStatus.OFFLINE).createDriverSearchCriteria())).containsExactly(1L, 2L);
+        assertThat(index.search(criteria().setOnlineStatus(OnlineStatus.ONLINE).createDriverSearchCriteria())).containsExactly(3L);
+    }
+
+
+    @Test
+    public void disabled_nothingLoaded()
+    {
+        DriverSearchIndex disabled = new DriverSearchIndex(driverRepository, false);
+
+        disabled.reload();
+        disabled.onlineStatusChanged(Collections.singletonList(1L), OnlineStatus.OFFLINE);
+
+        assertThat(disabled.isEnabled()).isFalse();
+        assertThat(disabled.size()).isZero();
+    }
+
+
+    private static DriverSearchCriteria.DriverSearchCriteriaBuilder criteria()
+    {
+        return DriverSearchCriteria.newBuilder();
+    }
+
+
+    private static DriverDO driverDO(long driverId)
+    {
+        DriverDO driverDO = new DriverDO("driver-" + driverId, "password");
+        driverDO.setId(driverId);
+        driverDO.setOnlineStatus(OnlineStatus.ONLINE);
+        return driverDO;
+    }
+}
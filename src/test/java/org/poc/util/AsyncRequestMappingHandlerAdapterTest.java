@@ -0,0 +1,85 @@
+package org.poc.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+
+import javax.servlet.AsyncEvent;
+
+import org.junit.After;
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.scheduling.concurrent.ConcurrentTaskExecutor;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.async.StandardServletAsyncWebRequest;
+import org.springframework.web.context.request.async.WebAsyncManager;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.method.support.ModelAndViewContainer;
+import org.springframework.web.servlet.mvc.method.annotation.ServletInvocableHandlerMethod;
+
+public class AsyncRequestMappingHandlerAdapterTest
+{
+
+    private static final String ENDPOINT = "PingController.ping";
+
+
+    @After
+    public void clearRequest()
+    {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+
+    @Test
+    public void invoke_queuedHandlerTimesOut_permitsGivenBack() throws Exception
+    {
+        RequestExecutionProperties properties = new RequestExecutionProperties();
+        properties.setMaxConcurrent(1);
+        properties.getEndpointLimits().put(ENDPOINT, 1);
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(properties);
+        AsyncRequestMappingHandlerAdapter adapter = new AsyncRequestMappingHandlerAdapter(limiter);
+        ServletInvocableHandlerMethod handler =
+            adapter.createInvocableHandlerMethod(new HandlerMethod(new PingController(), PingController.class.getMethod("ping")));
+
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setAsyncSupported(true);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request, response));
+        StandardServletAsyncWebRequest asyncWebRequest = new StandardServletAsyncWebRequest(request, response);
+        List<Runnable> queued = new ArrayList<>();
+        WebAsyncManager asyncManager = WebAsyncUtils.getAsyncManager(request);
+        asyncManager.setAsyncWebRequest(asyncWebRequest);
+        asyncManager.setTaskExecutor(new ConcurrentTaskExecutor(queued::add));
+
+        Object callable = handler.invokeForRequest(new ServletWebRequest(request, response), new ModelAndViewContainer());
+        asyncManager.startCallableProcessing((Callable<?>) callable);
+        assertThat(queued).hasSize(1);
+        assertThat(limiter.available(ENDPOINT)).isZero();
+
+        AsyncEvent event = new AsyncEvent(request.getAsyncContext());
+        asyncWebRequest.onTimeout(event);
+        asyncWebRequest.onComplete(event);
+
+        assertThat(((Future<?>) queued.get(0)).isCancelled()).isTrue();
+        assertThat(limiter.available(ENDPOINT)).isEqualTo(1);
+        limiter.acquire("CarController.getCar");
+    }
+
+
+    @RestController
+    static class PingController
+    {
+        public String ping()
+        {
+            return "pong";
+        }
+    }
+}
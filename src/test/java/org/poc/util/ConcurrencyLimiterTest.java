@@ -0,0 +1,58 @@
+package org.poc.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.Test;
+import org.poc.exception.EndpointOverloadedException;
+
+public class ConcurrencyLimiterTest
+{
+
+    @Test
+    public void acquire_endpointLimitReached_refusedUntilReleased()
+    {
+        RequestExecutionProperties properties = new RequestExecutionProperties();
+        properties.getEndpointLimits().put("CarController.getCar", 1);
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(properties);
+
+        Runnable release = limiter.acquire("CarController.getCar");
+        assertThatThrownBy(() -> limiter.acquire("CarController.getCar"))
+            .isInstanceOf(EndpointOverloadedException.class)
+            .hasMessageContaining("CarController.getCar");
+        limiter.acquire("DriverController.getDriver");
+
+        release.run();
+        limiter.acquire("CarController.getCar");
+        assertThat(limiter.available("CarController.getCar")).isZero();
+    }
+
+
+    @Test
+    public void acquire_totalLimitReached_endpointPermitGivenBack()
+    {
+        RequestExecutionProperties properties = new RequestExecutionProperties();
+        properties.setMaxConcurrent(1);
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(properties);
+
+        limiter.acquire("CarController.getCar");
+
+        assertThatThrownBy(() -> limiter.acquire("DriverController.getDriver")).isInstanceOf(EndpointOverloadedException.class);
+        assertThat(limiter.available("DriverController.getDriver")).isEqualTo(properties.getEndpointLimit());
+    }
+
+
+    @Test
+    public void release_runTwice_permitsReleasedOnce()
+    {
+        RequestExecutionProperties properties = new RequestExecutionProperties();
+        properties.getEndpointLimits().put("CarController.getCar", 1);
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(properties);
+
+        Runnable release = limiter.acquire("CarController.getCar");
+        release.run();
+        release.run();
+
+        assertThat(limiter.available("CarController.getCar")).isEqualTo(1);
+    }
+}
@@ -0,0 +1,81 @@
+package org.poc.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+@RunWith(MockitoJUnitRunner.class)
+public class LoggingInterceptorTest
+{
+    private static final String LOCATIONS = "/v1/drivers/locations";
+
+    @Mock
+    private RequestLogWriter requestLogWriter;
+
+    private RequestLoggingProperties properties;
+    private LoggingInterceptor interceptor;
+
+
+    @Before
+    public void init()
+    {
+        properties = new RequestLoggingProperties();
+        properties.setAlwaysLogStatus(400);
+        properties.getPathSampleRates().put(LOCATIONS, 0.0);
+        interceptor = new LoggingInterceptor(requestLogWriter, properties);
+    }
+
+
+    @Test
+    public void afterCompletion_durationFromPreHandle()
+    {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/v1/cars/1");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        interceptor.preHandle(request, response, null);
+        interceptor.afterCompletion(request, response, null, null);
+
+        verify(requestLogWriter).write(eq("GET"), eq("/v1/cars/1"), eq(200), eq("127.0.0.1"), anyLong(), eq(null));
+    }
+
+
+    @Test
+    public void afterCompletion_notSampledPath_onlyErrorsLogged()
+    {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", LOCATIONS);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        interceptor.preHandle(request, response, null);
+        interceptor.afterCompletion(request, response, null, null);
+        verify(requestLogWriter, never()).write(anyString(), anyString(), anyInt(), anyString(), anyLong(), any());
+
+        response.setStatus(400);
+        interceptor.afterCompletion(request, response, null, null);
+        verify(requestLogWriter).write(eq("POST"), eq(LOCATIONS), eq(400), anyString(), anyLong(), any());
+    }
+
+
+    @Test
+    public void sampleRate_longestPrefixWins()
+    {
+        properties.setSampleRate(0.5);
+        properties.getPathSampleRates().put("/v1/drivers", 0.1);
+
+        assertThat(properties.sampleRate("/v1/cars/1")).isEqualTo(0.5);
+        assertThat(properties.sampleRate("/v1/drivers/1")).isEqualTo(0.1);
+        assertThat(properties.sampleRate(LOCATIONS)).isEqualTo(0.0);
+    }
+}
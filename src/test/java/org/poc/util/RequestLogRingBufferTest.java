@@ -0,0 +1,92 @@
+package org.poc.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class RequestLogRingBufferTest
+{
+
+    @Test
+    public void poll_inOfferOrder()
+    {
+        RequestLogRingBuffer ringBuffer = new RequestLogRingBuffer(4);
+        List<String> uris = new ArrayList<>();
+
+        for (int round = 0; round < 3; round++)
+        {
+            ringBuffer.offer("GET", "/a" + round, 200, "127.0.0.1", 1, null);
+            ringBuffer.offer("GET", "/b" + round, 200, "127.0.0.1", 1, null);
+            while (ringBuffer.poll((method, uri, status, remoteAddress, durationNanos, exception) -> uris.add(uri)))
+            {}
+        }
+
+        assertThat(uris).containsExactly("/a0", "/b0", "/a1", "/b1", "/a2", "/b2");
+    }
+
+
+    @Test
+    public void offer_full_dropsAndCounts()
+    {
+        RequestLogRingBuffer ringBuffer = new RequestLogRingBuffer(3);
+        assertThat(ringBuffer.capacity()).isEqualTo(4);
+
+        for (int i = 0; i < 4; i++)
+        {
+            assertThat(ringBuffer.offer("GET", "/" + i, 200, "127.0.0.1", 1, null)).isTrue();
+        }
+        assertThat(ringBuffer.offer("GET", "/4", 200, "127.0.0.1", 1, null)).isFalse();
+        assertThat(ringBuffer.getDropped()).isEqualTo(1);
+
+        assertThat(ringBuffer.poll((method, uri, status, remoteAddress, durationNanos, exception) -> assertThat(uri).isEqualTo("/0"))).isTrue();
+        assertThat(ringBuffer.offer("GET", "/5", 200, "127.0.0.1", 1, null)).isTrue();
+    }
+
+
+    @Test
+    public void offer_concurrentProducers_noEntryLostOrDuplicated() throws InterruptedException
+    {
+        int producers = 4;
+        int perProducer = 10000;
+        RequestLogRingBuffer ringBuffer = new RequestLogRingBuffer(producers * perProducer);
+        ExecutorService executor = Executors.newFixedThreadPool(producers);
+        CountDownLatch start = new CountDownLatch(1);
+        for (int p = 0; p < producers; p++)
+        {
+            executor.execute(() -> {
+                try
+                {
+                    start.await();
+                }
+                catch (InterruptedException e)
+                {
+                    Thread.currentThread().interrupt();
+                }
+                for (int i = 0; i < perProducer; i++)
+                {
+                    ringBuffer.offer("GET", "/", 200, "127.0.0.1", i, null);
+                }
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+        long[] sum = new long[2];
+        while (ringBuffer.poll((method, uri, status, remoteAddress, durationNanos, exception) -> {
+            sum[0]++;
+            sum[1] += durationNanos;
+        }))
+        {}
+        assertThat(sum[0]).isEqualTo(producers * perProducer);
+        assertThat(sum[1]).isEqualTo((long) producers * perProducer * (perProducer - 1) / 2);
+        assertThat(ringBuffer.getDropped()).isZero();
+    }
+}
@@ -0,0 +1,51 @@
+package org.poc.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.Test;
+
+public class TimingWheelTest
+{
+
+    @Test
+    public void advance_expiresAfterTimeout()
+    {
+        TimingWheel wheel = new TimingWheel(3);
+        wheel.schedule(1L);
+
+        assertThat(wheel.advance()).isEmpty();
+        assertThat(wheel.advance()).isEmpty();
+        assertThat(wheel.advance()).containsExactly(1L);
+        assertThat(wheel.isScheduled(1L)).isFalse();
+        assertThat(wheel.advance()).isEmpty();
+    }
+
+
+    @Test
+    public void schedule_again_restartsTimeout()
+    {
+        TimingWheel wheel = new TimingWheel(3);
+        wheel.schedule(1L);
+        wheel.schedule(2L);
+        wheel.advance();
+        wheel.advance();
+        wheel.schedule(1L);
+
+        assertThat(wheel.advance()).containsExactly(2L);
+        assertThat(wheel.advance()).isEmpty();
+        assertThat(wheel.advance()).containsExactly(1L);
+        assertThat(wheel.size()).isZero();
+    }
+
+
+    @Test
+    public void cancel_neverExpires()
+    {
+        TimingWheel wheel = new TimingWheel(1);
+        wheel.schedule(1L);
+        wheel.cancel(1L);
+
+        assertThat(wheel.advance()).isEmpty();
+        assertThat(wheel.advance()).isEmpty();
+    }
+}
@@ -0,0 +1,68 @@
+package org.poc.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.BitSet;
+
+import org.junit.Test;
+
+public class TrigramPostingsTest
+{
+
+    private final TrigramPostings postings = new TrigramPostings();
+
+
+    @Test
+    public void retainCandidates_allTrigramsOfQueryIgnoringCase()
+    {
+        postings.add(0, "Tesla");
+        postings.add(1, "MANUFACTURER-X");
+        postings.add(2, "Volkswagen");
+
+        assertThat(candidates("esl")).isEqualTo(bits(0));
+        assertThat(candidates("factURER")).isEqualTo(bits(1));
+        assertThat(candidates("wagon")).isEqualTo(bits());
+    }
+
+
+    @Test
+    public void retainCandidates_shortQuery_notNarrowed()
+    {
+        postings.add(0, "Tesla");
+
+        assertThat(candidates("zz")).isEqualTo(bits(0, 1, 2));
+    }
+
+
+    @Test
+    public void remove_emptyPostingsDropped()
+    {
+        postings.add(0, "abcd");
+        postings.add(1, "abc");
+
+        postings.remove(0, "abcd");
+
+        assertThat(candidates("abc")).isEqualTo(bits(1));
+        assertThat(candidates("bcd")).isEqualTo(bits());
+        assertThat(postings.trigramCount()).isEqualTo(1);
+    }
+
+
+    private BitSet candidates(String query)
+    {
+        BitSet documents = bits(0, 1, 2);
+        postings.retainCandidates(documents, query);
+        return documents;
+    }
+
+
+    private static BitSet bits(int... documents)
+    {
+        BitSet bits = new BitSet();
+        for (int document : documents)
+        {
+            bits.set(document);
+        }
+        return bits;
+    }
+}
@@ -0,0 +1,6 @@
+-- schema of versions that stored the driver position as a serialized Point, Point(x=9.5, y=55.954) for driver 40
+drop index idx_driver_coordinate;
+alter table driver drop column latitude;
+alter table driver drop column longitude;
+alter table driver add column coordinate binary(255);
+update driver set coordinate = X'aced0005737200226f72672e737072696e676672616d65776f726b2e646174612e67656f2e506f696e7431b9e90ef11a4006020002440001784400017978704023000000000000404bfa1cac083127' where id = 40;
@@ -0,0 +1,10 @@
+-- schema of versions that took car ids one at a time and driver ids from hibernate_sequence, last ids 150 and 120,
+-- and had no car version column
+alter table car drop column version;
+drop sequence driver_seq;
+create sequence hibernate_sequence start with 121 increment by 1;
+alter sequence car_seq restart with 151 increment by 1;
+INSERT INTO car(ID, CONVERTIBLE, DATE_CREATED, ENGINE_TYPE, LICENSE_PLATE, MANUFACTURER, RATING, SEAT_COUNT, DRIVER_FK)
+values (150, false, now(), 'GAS', 'EU-150', 'MANUFACTURER-X', 4.0, 4, null);
+INSERT INTO driver (ID, DATE_CREATED, DELETED, ONLINE_STATUS, PASSWORD, USERNAME)
+values (120, now(), false, 'ONLINE', 'password', 'driver-120');
@@ -11,16 +11,18 @@ create table car
   engine_type   varchar(255),
   license_plate varchar(255) not null,
   manufacturer  varchar(255),
-  rating        float,
+  rating        real,
   seat_count    smallint     not null check (seat_count >= 0),
   driver_fk     bigint,
+  version       bigint       default 0 not null,
   primary key (id)
 );
 
 create table driver
 (
   id                      bigint       not null,
-  coordinate              binary(255),
+  latitude                double,
+  longitude               double,
   date_coordinate_updated timestamp,
   date_created            timestamp    not null,
   deleted                 boolean      not null,
@@ -37,11 +39,19 @@ alter table driver
 alter table car
   add constraint uc_licenseplate unique (license_plate);
 
+create index idx_driver_coordinate on driver (latitude, longitude);
+
+create index idx_driver_online_status on driver (online_status, id);
+
+create index idx_car_driver on car (driver_fk);
+
+create index idx_car_manufacturer on car (manufacturer);
+
 
 alter table car
   add constraint FKp8l3l2l7aivvj6t8jnykmqjh4 foreign key (driver_fk) references driver;
 
-create sequence car_seq start with 100 increment by 1;
-create sequence hibernate_sequence start with 1 increment by 1;
+create sequence car_seq start with 100 increment by 50;
+create sequence driver_seq start with 100 increment by 50;
 
 